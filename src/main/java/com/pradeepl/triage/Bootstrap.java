@@ -1,13 +1,44 @@
 package com.pradeepl.triage;
 
+import akka.javasdk.DependencyProvider;
 import akka.javasdk.ServiceSetup;
 import akka.javasdk.annotations.Setup;
+import akka.javasdk.client.ComponentClient;
+import com.pradeepl.triage.application.AdmissionSettings;
+import com.pradeepl.triage.application.AgentCallMetrics;
+import com.pradeepl.triage.application.AgentResponseCaches;
+import com.pradeepl.triage.application.CoalescingSettings;
+import com.pradeepl.triage.application.EvaluationSampling;
+import com.pradeepl.triage.application.IncidentRegistryBatcher;
+import com.pradeepl.triage.application.IncidentRegistryMigration;
+import com.pradeepl.triage.application.IncidentRegistrySettings;
+import com.pradeepl.triage.application.IncidentStatsBackfill;
+import com.pradeepl.triage.application.LlmCallGovernor;
+import com.pradeepl.triage.application.McpJsonRpcClient;
+import com.pradeepl.triage.application.ModelRoutingPolicy;
+import com.pradeepl.triage.application.PipelineSettings;
+import com.pradeepl.triage.guardrails.GuardrailScanner;
+import com.pradeepl.triage.guardrails.GuardrailVerdictCache;
 import com.typesafe.config.Config;
 
 @Setup
 public class Bootstrap implements ServiceSetup {
 
-  public Bootstrap(Config config) {
+  private final ComponentClient componentClient;
+  private final AdmissionSettings admissionSettings;
+  private final AgentCallMetrics agentCallMetrics;
+  private final AgentResponseCaches agentResponseCaches;
+  private final CoalescingSettings coalescingSettings;
+  private final EvaluationSampling evaluationSampling;
+  private final GuardrailScanner guardrailScanner;
+  private final IncidentRegistryBatcher incidentRegistryBatcher;
+  private final IncidentRegistrySettings incidentRegistrySettings;
+  private final LlmCallGovernor llmCallGovernor;
+  private final McpJsonRpcClient mcpClient;
+  private final ModelRoutingPolicy modelRoutingPolicy;
+  private final PipelineSettings pipelineSettings;
+
+  public Bootstrap(ComponentClient componentClient, Config config) {
     if (
       config.getString("akka.javasdk.agent.model-provider").equals("openai") &&
       config.getString("akka.javasdk.agent.openai.api-key").isBlank()
@@ -16,5 +47,73 @@ public class Bootstrap implements ServiceSetup {
         "No API keys found. Make sure you have OPENAI_API_KEY defined as environment variable, or change the model provider configuration in application.conf to use a different LLM."
       );
     }
+
+    this.componentClient = componentClient;
+    this.admissionSettings = AdmissionSettings.fromConfig(config);
+    this.agentCallMetrics = new AgentCallMetrics();
+    this.agentResponseCaches = AgentResponseCaches.fromConfig(config);
+    this.coalescingSettings = CoalescingSettings.fromConfig(config);
+    this.evaluationSampling = EvaluationSampling.fromConfig(config);
+    this.guardrailScanner = new GuardrailScanner(GuardrailVerdictCache.fromConfig(config), agentCallMetrics::recordGuardrail);
+    this.incidentRegistrySettings = IncidentRegistrySettings.fromConfig(config);
+    this.incidentRegistryBatcher = new IncidentRegistryBatcher(componentClient, incidentRegistrySettings);
+    this.llmCallGovernor = LlmCallGovernor.fromConfig(componentClient, config);
+    this.mcpClient = McpJsonRpcClient.fromConfig(config);
+    this.modelRoutingPolicy = ModelRoutingPolicy.fromConfig(config);
+    this.pipelineSettings = PipelineSettings.fromConfig(config);
+  }
+
+  @Override
+  public void onStartup() {
+    // Counts the incidents IncidentStats does not reflect yet, e.g. those recorded before it existed
+    new IncidentStatsBackfill(componentClient).run();
+    if (incidentRegistrySettings.enabled()) {
+      // Moves the incidents of the unsharded registry entity into the shards, once
+      new IncidentRegistryMigration(componentClient).run();
+    }
+  }
+
+  @Override
+  public DependencyProvider createDependencyProvider() {
+    return new DependencyProvider() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public <T> T getDependency(Class<T> clazz) {
+        if (clazz == AdmissionSettings.class) {
+          return (T) admissionSettings;
+        }
+        if (clazz == AgentCallMetrics.class) {
+          return (T) agentCallMetrics;
+        }
+        if (clazz == AgentResponseCaches.class) {
+          return (T) agentResponseCaches;
+        }
+        if (clazz == CoalescingSettings.class) {
+          return (T) coalescingSettings;
+        }
+        if (clazz == EvaluationSampling.class) {
+          return (T) evaluationSampling;
+        }
+        if (clazz == GuardrailScanner.class) {
+          return (T) guardrailScanner;
+        }
+        if (clazz == IncidentRegistryBatcher.class) {
+          return (T) incidentRegistryBatcher;
+        }
+        if (clazz == LlmCallGovernor.class) {
+          return (T) llmCallGovernor;
+        }
+        if (clazz == McpJsonRpcClient.class) {
+          return (T) mcpClient;
+        }
+        if (clazz == ModelRoutingPolicy.class) {
+          return (T) modelRoutingPolicy;
+        }
+        if (clazz == PipelineSettings.class) {
+          return (T) pipelineSettings;
+        }
+        throw new IllegalArgumentException("Unknown dependency type: " + clazz.getName());
+      }
+    };
   }
 }
@@ -5,37 +5,88 @@ import akka.javasdk.annotations.Acl;
 import akka.javasdk.annotations.http.Get;
 import akka.javasdk.annotations.http.HttpEndpoint;
 import akka.javasdk.client.ComponentClient;
+import akka.javasdk.http.AbstractHttpEndpoint;
 import akka.javasdk.http.HttpResponses;
 import com.pradeepl.triage.application.EvaluationMetrics;
+import com.pradeepl.triage.application.EvaluationResultsView;
+import com.pradeepl.triage.domain.EvaluationResultsEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.stream.Collectors;
+import java.time.LocalDateTime;
 
 /**
  * EvaluationMetricsEndpoint provides HTTP API for querying LLM evaluation metrics.
  *
  * Endpoints:
- * - GET /evaluations - Get all evaluations
- * - GET /evaluations/failures - Get evaluations with failures
- * - GET /evaluations/workflow/{workflowId} - Get evaluation for specific workflow
- * - GET /evaluations/stats - Get evaluation statistics
+ * - GET /evaluations - Get the recent evaluations
+ * - GET /evaluations/failures - Get a page of evaluations with failures (EvaluationResultsView)
+ * - GET /evaluations/failures/stream - Stream every evaluation with failures as server-sent events
+ * - GET /evaluations/workflow/{workflowId} - Get the evaluation record of one workflow
+ * - GET /evaluations/workflow/{workflowId}/checks - Get the pass flags of one workflow (EvaluationResultsView)
+ * - GET /evaluations/workflow/{workflowId}/results - Get the stored results of one workflow
+ * - GET /evaluations/stats - Get evaluation statistics over all evaluations
+ * - GET /evaluations/hourly - Get hourly rollups of evaluations older than the recent window
+ *
+ * Paginated queries take pageSize (default 20, at most 100) and the pageToken returned as
+ * nextPageToken by the previous page; /failures also takes check to select one check's failures.
  */
 @HttpEndpoint("/evaluations")
 @Acl(allow = @Acl.Matcher(principal = Acl.Principal.ALL))
-public class EvaluationMetricsEndpoint {
+public class EvaluationMetricsEndpoint extends AbstractHttpEndpoint {
 
     private static final Logger logger = LoggerFactory.getLogger(EvaluationMetricsEndpoint.class);
     private static final String METRICS_ENTITY_ID = "global-evaluations";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
 
     private final ComponentClient componentClient;
 
+    /**
+     * One evaluation result with its explanation decoded; stored explanations may be compressed.
+     */
+    public record CheckResult(boolean passed, String explanation) {
+        static CheckResult of(EvaluationResultsEntity.ToxicityResult result) {
+            return result == null ? null : new CheckResult(result.passed(), result.explanationText());
+        }
+
+        static CheckResult of(EvaluationResultsEntity.HallucinationResult result) {
+            return result == null ? null : new CheckResult(result.passed(), result.explanationText());
+        }
+    }
+
+    /**
+     * The stored evaluation results of one workflow, as returned by /workflow/{workflowId}/results.
+     */
+    public record WorkflowResults(
+        String workflowId,
+        CheckResult summaryToxicity,
+        CheckResult remediationToxicity,
+        CheckResult evidenceHallucination,
+        CheckResult triageHallucination,
+        CheckResult summaryHallucination,
+        LocalDateTime evaluatedAt,
+        boolean isComplete
+    ) {
+        static WorkflowResults of(EvaluationResultsEntity.State state) {
+            return new WorkflowResults(
+                state.workflowId(),
+                CheckResult.of(state.summaryToxicity()),
+                CheckResult.of(state.remediationToxicity()),
+                CheckResult.of(state.evidenceHallucination()),
+                CheckResult.of(state.triageHallucination()),
+                CheckResult.of(state.summaryHallucination()),
+                state.evaluatedAt(),
+                state.isComplete());
+        }
+    }
+
     public EvaluationMetricsEndpoint(ComponentClient componentClient) {
         this.componentClient = componentClient;
     }
 
     /**
-     * Get all evaluations.
+     * Get the recent evaluations (the EvaluationMetrics ring), oldest first.
      */
     @Get
     public HttpResponse getAllEvaluations() {
@@ -50,50 +101,85 @@ public class EvaluationMetricsEndpoint {
     }
 
     /**
-     * Get evaluations with failures (any check failed).
+     * Get a page of evaluations with failures (any check failed, or the given check), newest first.
      */
     @Get("/failures")
     public HttpResponse getFailedEvaluations() {
-        logger.info("Fetching failed evaluations");
+        var params = requestContext().queryParams();
+        String pageToken = params.getString("pageToken").orElse("");
+        int pageSize = Math.min(Math.max(params.getInteger("pageSize").orElse(DEFAULT_PAGE_SIZE), 1), MAX_PAGE_SIZE);
+        var check = params.getString("check");
+        logger.info("Fetching failed evaluations (check: {}, page size: {})", check.orElse("any"), pageSize);
+
+        if (check.isPresent()) {
+            if (!EvaluationResultsView.CHECKS.contains(check.get())) {
+                return HttpResponses.badRequest("Unknown check: " + check.get() + ", expected one of " + EvaluationResultsView.CHECKS);
+            }
+            return HttpResponses.ok(componentClient
+                .forView()
+                .method(EvaluationResultsView::getFailuresByCheck)
+                .invoke(new EvaluationResultsView.CheckPageRequest(check.get(), pageToken, pageSize)));
+        }
 
-        var state = componentClient
-            .forKeyValueEntity(METRICS_ENTITY_ID)
-            .method(EvaluationMetrics::getAllEvaluations)
-            .invoke();
+        return HttpResponses.ok(componentClient
+            .forView()
+            .method(EvaluationResultsView::getFailures)
+            .invoke(new EvaluationResultsView.PageRequest(pageToken, pageSize)));
+    }
+
+    /**
+     * Stream every evaluation with failures, newest first, without materialising them.
+     */
+    @Get("/failures/stream")
+    public HttpResponse streamFailedEvaluations() {
+        logger.info("Streaming failed evaluations");
 
-        var failures = state.evaluations().stream()
-            .filter(e -> !e.summaryToxicityPassed() ||
-                        !e.remediationToxicityPassed() ||
-                        !e.evidenceHallucinationPassed() ||
-                        !e.triageHallucinationPassed() ||
-                        !e.summaryHallucinationPassed())
-            .collect(Collectors.toList());
+        var failures = componentClient
+            .forView()
+            .stream(EvaluationResultsView::streamFailures)
+            .source();
 
-        return HttpResponses.ok(failures);
+        return HttpResponses.serverSentEvents(failures);
     }
 
     /**
-     * Get evaluation for a specific workflow.
+     * Get the evaluation record of a specific workflow, with explanations and confidences.
+     * Built from the workflow's own EvaluationResultsEntity, so it does not load the global metrics.
      */
     @Get("/workflow/{workflowId}")
     public HttpResponse getEvaluationByWorkflow(String workflowId) {
         logger.info("Fetching evaluation for workflow: {}", workflowId);
 
-        var state = componentClient
-            .forKeyValueEntity(METRICS_ENTITY_ID)
-            .method(EvaluationMetrics::getAllEvaluations)
+        var results = componentClient
+            .forKeyValueEntity(workflowId)
+            .method(EvaluationResultsEntity::getResults)
             .invoke();
 
-        var evaluation = state.evaluations().stream()
-            .filter(e -> workflowId.equals(e.workflowId()))
-            .findFirst()
-            .orElse(null);
+        if (!results.isComplete()) {
+            return HttpResponses.notFound("No evaluation for workflow: " + workflowId);
+        }
+        return HttpResponses.ok(EvaluationMetrics.EvaluationRecord.from(results));
+    }
 
-        return HttpResponses.ok(evaluation);
+    /**
+     * Get the pass flags and failed checks of a specific workflow (EvaluationResultsView row).
+     */
+    @Get("/workflow/{workflowId}/checks")
+    public HttpResponse getEvaluationChecks(String workflowId) {
+        logger.info("Fetching evaluation checks for workflow: {}", workflowId);
+
+        var evaluation = componentClient
+            .forView()
+            .method(EvaluationResultsView::getEvaluation)
+            .invoke(workflowId);
+
+        return evaluation
+            .map(HttpResponses::ok)
+            .orElseGet(() -> HttpResponses.notFound("No evaluation for workflow: " + workflowId));
     }
 
     /**
-     * Get evaluation results for a specific workflow (for debugging).
+     * Get evaluation results for a specific workflow (for debugging), with explanations as plain text.
      */
     @Get("/workflow/{workflowId}/results")
     public HttpResponse getWorkflowEvaluationResults(String workflowId) {
@@ -101,10 +187,10 @@ public class EvaluationMetricsEndpoint {
 
         var result = componentClient
             .forKeyValueEntity(workflowId)
-            .method(com.pradeepl.triage.domain.EvaluationResultsEntity::getState)
+            .method(EvaluationResultsEntity::getState)
             .invoke();
 
-        return HttpResponses.ok(result);
+        return HttpResponses.ok(WorkflowResults.of(result));
     }
 
     // /**
@@ -135,63 +221,48 @@ public class EvaluationMetricsEndpoint {
     // }
 
     /**
-     * Get evaluation statistics.
+     * Get evaluation statistics, computed from the running totals.
      */
     @Get("/stats")
     public HttpResponse getStats() {
         logger.info("Fetching evaluation statistics");
 
-        var state = componentClient
+        var totals = componentClient
             .forKeyValueEntity(METRICS_ENTITY_ID)
-            .method(EvaluationMetrics::getAllEvaluations)
+            .method(EvaluationMetrics::getTotals)
             .invoke();
 
-        var evals = state.evaluations();
-        long total = evals.size();
-
-        if (total == 0) {
-            return HttpResponses.ok(new EvaluationStats(0, 0, 0, 0, 0, 0, 0, 0.0, 0.0));
-        }
-
-        long summaryToxicityPass = evals.stream().filter(EvaluationMetrics.EvaluationRecord::summaryToxicityPassed).count();
-        long remediationToxicityPass = evals.stream().filter(EvaluationMetrics.EvaluationRecord::remediationToxicityPassed).count();
-        long evidenceHallucinationPass = evals.stream().filter(EvaluationMetrics.EvaluationRecord::evidenceHallucinationPassed).count();
-        long triageHallucinationPass = evals.stream().filter(EvaluationMetrics.EvaluationRecord::triageHallucinationPassed).count();
-        long summaryHallucinationPass = evals.stream().filter(EvaluationMetrics.EvaluationRecord::summaryHallucinationPassed).count();
-
-        long allPassed = evals.stream()
-            .filter(e -> e.summaryToxicityPassed() &&
-                        e.remediationToxicityPassed() &&
-                        e.evidenceHallucinationPassed() &&
-                        e.triageHallucinationPassed() &&
-                        e.summaryHallucinationPassed())
-            .count();
-
-        double avgToxicityConfidence = evals.stream()
-            .mapToDouble(EvaluationMetrics.EvaluationRecord::toxicityConfidence)
-            .average()
-            .orElse(0.0);
-
-        double avgHallucinationConfidence = evals.stream()
-            .mapToDouble(EvaluationMetrics.EvaluationRecord::hallucinationConfidence)
-            .average()
-            .orElse(0.0);
-
+        long total = totals.evaluations();
         var stats = new EvaluationStats(
             total,
-            allPassed,
-            summaryToxicityPass,
-            remediationToxicityPass,
-            evidenceHallucinationPass,
-            triageHallucinationPass,
-            summaryHallucinationPass,
-            avgToxicityConfidence,
-            avgHallucinationConfidence
+            totals.allChecksPassed(),
+            totals.summaryToxicityPassed(),
+            totals.remediationToxicityPassed(),
+            totals.evidenceHallucinationPassed(),
+            totals.triageHallucinationPassed(),
+            totals.summaryHallucinationPassed(),
+            total == 0 ? 0.0 : totals.toxicityConfidenceSum() / total,
+            total == 0 ? 0.0 : totals.hallucinationConfidenceSum() / total
         );
 
         return HttpResponses.ok(stats);
     }
 
+    /**
+     * Get hourly rollups of evaluations that have left the recent window.
+     */
+    @Get("/hourly")
+    public HttpResponse getHourlyRollups() {
+        logger.info("Fetching hourly evaluation rollups");
+
+        var rollups = componentClient
+            .forKeyValueEntity(METRICS_ENTITY_ID)
+            .method(EvaluationMetrics::getHourlyRollups)
+            .invoke();
+
+        return HttpResponses.ok(rollups);
+    }
+
     public record EvaluationStats(
         long totalEvaluations,
         long allChecksPassed,
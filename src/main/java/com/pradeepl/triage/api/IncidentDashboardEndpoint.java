@@ -5,34 +5,80 @@ import akka.javasdk.annotations.Acl;
 import akka.javasdk.annotations.http.Get;
 import akka.javasdk.annotations.http.HttpEndpoint;
 import akka.javasdk.client.ComponentClient;
+import akka.javasdk.http.AbstractHttpEndpoint;
 import akka.javasdk.http.HttpResponses;
 import com.pradeepl.triage.application.IncidentMetrics;
-import com.pradeepl.triage.application.IncidentRegistry;
+import com.pradeepl.triage.application.IncidentMetricsView;
+import com.pradeepl.triage.application.IncidentStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * IncidentDashboardEndpoint provides HTTP API for querying incident metrics.
  *
- * Uses IncidentRegistry (single entity with all incidents) for simple querying.
- * No streaming, no views, no complexity - just simple List returns!
+ * The incident listings are pages of IncidentMetricsView queries. The /stream variants and the
+ * critical listing stream view query results to the client as they are read (NDJSON, and a
+ * chunked JSON array for /critical), with backpressure, so no result set is buffered whole.
+ * The statistics come from IncidentStats.
  *
  * Endpoints:
- * - GET /dashboard/incidents - Get all incidents
- * - GET /dashboard/incidents/active - Get active incidents
- * - GET /dashboard/incidents/service/{service} - Get by service
- * - GET /dashboard/incidents/severity/{severity} - Get by severity
- * - GET /dashboard/incidents/critical - Get critical incidents
+ * - GET /dashboard/incidents - Get a page of all incidents
+ * - GET /dashboard/incidents/active - Get a page of active incidents
+ * - GET /dashboard/incidents/service/{service} - Get a page of incidents by service
+ * - GET /dashboard/incidents/severity/{severity} - Get a page of incidents by severity
+ * - GET /dashboard/incidents/stream - Stream all incidents as NDJSON
+ * - GET /dashboard/incidents/active/stream - Stream active incidents as NDJSON
+ * - GET /dashboard/incidents/service/{service}/stream - Stream incidents by service as NDJSON
+ * - GET /dashboard/incidents/severity/{severity}/stream - Stream incidents by severity as NDJSON
+ * - GET /dashboard/incidents/critical - Get critical incidents (active, P1 or requiring escalation)
  * - GET /dashboard/stats - Get dashboard statistics
+ *
+ * Listing query parameters:
+ * - limit - incidents per page (default 50, at most 500)
+ * - cursor - the nextCursor of the previous page; omitted for the first page
+ * - sort - -lastUpdate (newest first, default) or lastUpdate (oldest first)
+ * - fields - comma-separated IncidentRecord fields to return (default all)
+ *
+ * Incidents are returned as the FIELDS below, never as the stored IncidentRecord: its counted
+ * field is IncidentStats bookkeeping and stays out of responses.
  */
 @HttpEndpoint("/dashboard")
 @Acl(allow = @Acl.Matcher(principal = Acl.Principal.ALL))
-public class IncidentDashboardEndpoint {
+public class IncidentDashboardEndpoint extends AbstractHttpEndpoint {
 
     private static final Logger logger = LoggerFactory.getLogger(IncidentDashboardEndpoint.class);
 
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 500;
+
+    // Fields returned to clients, in response order; the fields parameter selects among them
+    private static final Map<String, Function<IncidentMetrics.IncidentRecord, Object>> FIELDS = new LinkedHashMap<>();
+    static {
+        FIELDS.put("incidentId", IncidentMetrics.IncidentRecord::incidentId);
+        FIELDS.put("status", IncidentMetrics.IncidentRecord::status);
+        FIELDS.put("service", IncidentMetrics.IncidentRecord::service);
+        FIELDS.put("severity", IncidentMetrics.IncidentRecord::severity);
+        FIELDS.put("title", IncidentMetrics.IncidentRecord::title);
+        FIELDS.put("startTime", IncidentMetrics.IncidentRecord::startTime);
+        FIELDS.put("lastUpdate", IncidentMetrics.IncidentRecord::lastUpdate);
+        FIELDS.put("overallConfidence", IncidentMetrics.IncidentRecord::overallConfidence);
+        FIELDS.put("requiresEscalation", IncidentMetrics.IncidentRecord::requiresEscalation);
+        FIELDS.put("stepProgress", IncidentMetrics.IncidentRecord::stepProgress);
+        FIELDS.put("totalSteps", IncidentMetrics.IncidentRecord::totalSteps);
+        FIELDS.put("assignedTeam", IncidentMetrics.IncidentRecord::assignedTeam);
+        FIELDS.put("isActive", IncidentMetrics.IncidentRecord::isActive);
+    }
+    private static final List<String> ALL_FIELDS = List.copyOf(FIELDS.keySet());
+
     private final ComponentClient componentClient;
 
     public IncidentDashboardEndpoint(ComponentClient componentClient) {
@@ -40,166 +86,260 @@ public class IncidentDashboardEndpoint {
     }
 
     /**
-     * Get all incidents.
-     * Simple query to the central registry - returns a plain List!
+     * Get a page of all incidents.
      */
     @Get("/incidents")
     public HttpResponse getAllIncidents() {
         logger.info("Fetching all incidents");
 
-        try {
-            var incidents = componentClient
-                .forKeyValueEntity("global")
-                .method(IncidentRegistry::getAllIncidents)
-                .invoke();
-
-            logger.info("Returning {} incidents", incidents.size());
-            return HttpResponses.ok(incidents);
-
-        } catch (Exception e) {
-            logger.error("Error fetching incidents", e);
-            return HttpResponses.ok(List.of());
-        }
+        return listIncidents("all incidents",
+            (time, id, limit) -> componentClient.forView()
+                .method(IncidentMetricsView::getIncidentsPage)
+                .invoke(new IncidentMetricsView.Page(time, id, limit)),
+            (time, id, limit) -> componentClient.forView()
+                .method(IncidentMetricsView::getIncidentsPageAscending)
+                .invoke(new IncidentMetricsView.Page(time, id, limit)));
     }
 
     /**
-     * Get active (non-completed) incidents.
+     * Get a page of active (non-completed) incidents.
      */
     @Get("/incidents/active")
     public HttpResponse getActiveIncidents() {
         logger.info("Fetching active incidents");
 
-        try {
-            var incidents = componentClient
-                .forKeyValueEntity("global")
-                .method(IncidentRegistry::getActiveIncidents)
-                .invoke();
-
-            return HttpResponses.ok(incidents);
-        } catch (Exception e) {
-            logger.error("Error fetching active incidents", e);
-            return HttpResponses.ok(List.of());
-        }
+        return listIncidents("active incidents",
+            (time, id, limit) -> componentClient.forView()
+                .method(IncidentMetricsView::getActiveIncidentsPage)
+                .invoke(new IncidentMetricsView.Page(time, id, limit)),
+            (time, id, limit) -> componentClient.forView()
+                .method(IncidentMetricsView::getActiveIncidentsPageAscending)
+                .invoke(new IncidentMetricsView.Page(time, id, limit)));
     }
 
     /**
-     * Get incidents by service.
+     * Get a page of incidents by service.
      */
     @Get("/incidents/service/{service}")
     public HttpResponse getIncidentsByService(String service) {
         logger.info("Fetching incidents for service: {}", service);
 
-        try {
-            var incidents = componentClient
-                .forKeyValueEntity("global")
-                .method(IncidentRegistry::getIncidentsByService)
-                .invoke(service);
-
-            return HttpResponses.ok(incidents);
-        } catch (Exception e) {
-            logger.error("Error fetching incidents for service: {}", service, e);
-            return HttpResponses.ok(List.of());
-        }
+        return listIncidents("incidents for service " + service,
+            (time, id, limit) -> componentClient.forView()
+                .method(IncidentMetricsView::getIncidentsByServicePage)
+                .invoke(new IncidentMetricsView.ServicePage(service, time, id, limit)),
+            (time, id, limit) -> componentClient.forView()
+                .method(IncidentMetricsView::getIncidentsByServicePageAscending)
+                .invoke(new IncidentMetricsView.ServicePage(service, time, id, limit)));
     }
 
     /**
-     * Get incidents by severity.
+     * Get a page of incidents by severity.
      */
     @Get("/incidents/severity/{severity}")
     public HttpResponse getIncidentsBySeverity(String severity) {
         logger.info("Fetching incidents with severity: {}", severity);
 
-        try {
-            var incidents = componentClient
-                .forKeyValueEntity("global")
-                .method(IncidentRegistry::getIncidentsBySeverity)
-                .invoke(severity);
+        return listIncidents("incidents with severity " + severity,
+            (time, id, limit) -> componentClient.forView()
+                .method(IncidentMetricsView::getIncidentsBySeverityPage)
+                .invoke(new IncidentMetricsView.SeverityPage(severity, time, id, limit)),
+            (time, id, limit) -> componentClient.forView()
+                .method(IncidentMetricsView::getIncidentsBySeverityPageAscending)
+                .invoke(new IncidentMetricsView.SeverityPage(severity, time, id, limit)));
+    }
 
-            return HttpResponses.ok(incidents);
-        } catch (Exception e) {
-            logger.error("Error fetching incidents with severity: {}", severity, e);
-            return HttpResponses.ok(List.of());
-        }
+    /**
+     * Stream all incidents as NDJSON.
+     */
+    @Get("/incidents/stream")
+    public HttpResponse streamAllIncidents() {
+        logger.info("Streaming all incidents");
+
+        return JsonStreams.ndjson(componentClient.forView()
+            .stream(IncidentMetricsView::getAllIncidents)
+            .source()
+            .map(IncidentDashboardEndpoint::toResponse));
+    }
+
+    /**
+     * Stream active incidents as NDJSON.
+     */
+    @Get("/incidents/active/stream")
+    public HttpResponse streamActiveIncidents() {
+        logger.info("Streaming active incidents");
+
+        return JsonStreams.ndjson(componentClient.forView()
+            .stream(IncidentMetricsView::getActiveIncidents)
+            .source()
+            .map(IncidentDashboardEndpoint::toResponse));
+    }
+
+    /**
+     * Stream incidents by service as NDJSON.
+     */
+    @Get("/incidents/service/{service}/stream")
+    public HttpResponse streamIncidentsByService(String service) {
+        logger.info("Streaming incidents for service: {}", service);
+
+        return JsonStreams.ndjson(componentClient.forView()
+            .stream(IncidentMetricsView::getIncidentsByService)
+            .source(service)
+            .map(IncidentDashboardEndpoint::toResponse));
+    }
+
+    /**
+     * Stream incidents by severity as NDJSON.
+     */
+    @Get("/incidents/severity/{severity}/stream")
+    public HttpResponse streamIncidentsBySeverity(String severity) {
+        logger.info("Streaming incidents with severity: {}", severity);
+
+        return JsonStreams.ndjson(componentClient.forView()
+            .stream(IncidentMetricsView::getIncidentsBySeverity)
+            .source(severity)
+            .map(IncidentDashboardEndpoint::toResponse));
     }
 
     /**
-     * Get critical incidents (P1 or requiring escalation).
+     * Get critical incidents (active, and P1 or requiring escalation), streamed from the view
+     * as a chunked JSON array.
      */
     @Get("/incidents/critical")
     public HttpResponse getCriticalIncidents() {
         logger.info("Fetching critical incidents");
 
-        try {
-            var incidents = componentClient
-                .forKeyValueEntity("global")
-                .method(IncidentRegistry::getCriticalIncidents)
-                .invoke();
-
-            return HttpResponses.ok(incidents);
-        } catch (Exception e) {
-            logger.error("Error fetching critical incidents", e);
-            return HttpResponses.ok(List.of());
-        }
+        return JsonStreams.jsonArray(componentClient.forView()
+            .stream(IncidentMetricsView::getCriticalOrEscalationIncidents)
+            .source()
+            .map(IncidentDashboardEndpoint::toResponse));
     }
 
     /**
      * Get dashboard statistics.
-     * Queries all incidents and calculates aggregate statistics.
+     * Reads the aggregates IncidentMetricsConsumer maintains incrementally in IncidentStats.
      */
     @Get("/stats")
     public HttpResponse getStats() {
         logger.info("Fetching dashboard statistics");
 
         try {
-            // Get all incidents from the registry
-            var incidents = componentClient
-                .forKeyValueEntity("global")
-                .method(IncidentRegistry::getAllIncidents)
+            var aggregates = componentClient
+                .forKeyValueEntity(IncidentStats.ENTITY_ID)
+                .method(IncidentStats::getStats)
                 .invoke();
 
-            logger.info("Calculating stats from {} incidents", incidents.size());
-
-            long totalIncidents = incidents.size();
-            long activeIncidents = incidents.stream().filter(i -> i.isActive()).count();
-            long p1Count = incidents.stream()
-                .filter(i -> "P1".equalsIgnoreCase(i.severity()) && i.isActive())
-                .count();
-            long p2Count = incidents.stream()
-                .filter(i -> "P2".equalsIgnoreCase(i.severity()) && i.isActive())
-                .count();
-            long escalationCount = incidents.stream()
-                .filter(i -> i.requiresEscalation() && i.isActive())
-                .count();
-
-            double averageProgress = incidents.isEmpty() ? 0.0 :
-                incidents.stream()
-                    .filter(i -> i.isActive())
-                    .mapToInt(i -> i.stepProgress())
-                    .average()
-                    .orElse(0.0);
-
             var stats = new DashboardStats(
-                totalIncidents,
-                activeIncidents,
-                p1Count,
-                p2Count,
-                escalationCount,
-                averageProgress
+                aggregates.totalIncidents(),
+                aggregates.activeIncidents(),
+                aggregates.p1Count(),
+                aggregates.p2Count(),
+                aggregates.escalationCount(),
+                aggregates.averageProgress()
             );
 
-            logger.info("Stats calculated: total={}, active={}, P1={}, P2={}, escalations={}, avgProgress={}",
-                totalIncidents, activeIncidents, p1Count, p2Count, escalationCount, averageProgress);
+            logger.info("Stats: total={}, active={}, P1={}, P2={}, escalations={}, avgProgress={}",
+                stats.totalIncidents(), stats.activeIncidents(), stats.p1Count(), stats.p2Count(),
+                stats.escalationCount(), stats.averageProgress());
 
             return HttpResponses.ok(stats);
 
         } catch (Exception e) {
-            logger.error("Error calculating dashboard stats", e);
+            logger.error("Error fetching dashboard stats", e);
             // Return zeros on error rather than failing
             var stats = new DashboardStats(0, 0, 0, 0, 0, 0.0);
             return HttpResponses.ok(stats);
         }
     }
 
+    /**
+     * One page query of IncidentMetricsView, starting after the cursor position.
+     */
+    @FunctionalInterface
+    private interface PageQuery {
+        IncidentMetricsView.IncidentRows fetch(Instant cursorTime, String cursorId, int limit);
+    }
+
+    /**
+     * Run a listing with the limit, cursor, sort and fields parameters of the request.
+     * One row more than the limit is fetched to tell whether there is a next page.
+     */
+    private HttpResponse listIncidents(String listing, PageQuery newestFirst, PageQuery oldestFirst) {
+        var params = requestContext().queryParams();
+        int limit = Math.min(Math.max(params.getInteger("limit").orElse(DEFAULT_LIMIT), 1), MAX_LIMIT);
+
+        String sort = params.getString("sort").orElse("-lastUpdate");
+        boolean ascending;
+        if (sort.equals("-lastUpdate")) {
+            ascending = false;
+        } else if (sort.equals("lastUpdate")) {
+            ascending = true;
+        } else {
+            return HttpResponses.badRequest("Unknown sort: " + sort + ", expected -lastUpdate or lastUpdate");
+        }
+
+        List<String> fields = params.getString("fields")
+            .map(f -> List.of(f.split(",")).stream().map(String::trim).filter(name -> !name.isEmpty()).toList())
+            .orElse(List.of());
+        for (String field : fields) {
+            if (!FIELDS.containsKey(field)) {
+                return HttpResponses.badRequest("Unknown field: " + field + ", expected any of " + FIELDS.keySet());
+            }
+        }
+
+        Instant cursorTime = ascending ? IncidentMetricsView.EARLIEST : IncidentMetricsView.LATEST;
+        String cursorId = "";
+        var cursor = params.getString("cursor");
+        if (cursor.isPresent()) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor.get()), StandardCharsets.UTF_8);
+                int separator = decoded.indexOf('|');
+                cursorTime = Instant.parse(decoded.substring(0, separator));
+                cursorId = decoded.substring(separator + 1);
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                return HttpResponses.badRequest("Invalid cursor");
+            }
+        }
+
+        try {
+            var rows = (ascending ? oldestFirst : newestFirst).fetch(cursorTime, cursorId, limit + 1).incidents();
+            boolean hasMore = rows.size() > limit;
+            var page = hasMore ? rows.subList(0, limit) : rows;
+            String nextCursor = hasMore ? encodeCursor(page.get(page.size() - 1)) : null;
+
+            var selected = fields.isEmpty() ? ALL_FIELDS : fields;
+            List<Object> incidents = page.stream().map(incident -> (Object) project(incident, selected)).toList();
+
+            logger.info("Returning {} {} (more: {})", incidents.size(), listing, hasMore);
+            return HttpResponses.ok(new IncidentPage(incidents, nextCursor, hasMore));
+        } catch (Exception e) {
+            logger.error("Error fetching {}", listing, e);
+            return HttpResponses.ok(new IncidentPage(List.of(), null, false));
+        }
+    }
+
+    private static String encodeCursor(IncidentMetrics.IncidentRecord last) {
+        String position = last.lastUpdate() + "|" + last.incidentId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, Object> toResponse(IncidentMetrics.IncidentRecord incident) {
+        return project(incident, ALL_FIELDS);
+    }
+
+    private static Map<String, Object> project(IncidentMetrics.IncidentRecord incident, List<String> fields) {
+        Map<String, Object> projected = new LinkedHashMap<>();
+        for (String field : fields) {
+            projected.put(field, FIELDS.get(field).apply(incident));
+        }
+        return projected;
+    }
+
+    /**
+     * A page of a listing; nextCursor is null on the last page.
+     */
+    public record IncidentPage(List<Object> incidents, String nextCursor, boolean hasMore) {}
+
     public record DashboardStats(
         long totalIncidents,
         long activeIncidents,
@@ -0,0 +1,53 @@
+package com.pradeepl.triage.api;
+
+import akka.NotUsed;
+import akka.http.javadsl.model.ContentTypes;
+import akka.http.javadsl.model.HttpCharsets;
+import akka.http.javadsl.model.HttpEntities;
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.MediaTypes;
+import akka.javasdk.JsonSupport;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * JsonStreams turns a stream of values (typically a view QueryStreamEffect source) into a
+ * chunked HTTP response, serializing each value as it is pulled.
+ *
+ * The response entity is the stream itself, so the client's read rate backpressures the view
+ * query and a result set is never held in memory as a whole.
+ */
+final class JsonStreams {
+
+    private static final ByteString NEWLINE = ByteString.fromString("\n");
+
+    private JsonStreams() {}
+
+    /**
+     * Newline-delimited JSON: one value per line.
+     */
+    static HttpResponse ndjson(Source<?, NotUsed> values) {
+        var lines = values.map(value -> toJson(value).concat(NEWLINE));
+        return HttpResponse.create().withEntity(HttpEntities.createChunked(
+            MediaTypes.applicationWithFixedCharset("x-ndjson", HttpCharsets.UTF_8).toContentType(), lines));
+    }
+
+    /**
+     * A JSON array, written element by element.
+     */
+    static HttpResponse jsonArray(Source<?, NotUsed> values) {
+        var elements = values
+            .map(JsonStreams::toJson)
+            .intersperse(ByteString.fromString("["), ByteString.fromString(","), ByteString.fromString("]"));
+        return HttpResponse.create().withEntity(HttpEntities.createChunked(ContentTypes.APPLICATION_JSON, elements));
+    }
+
+    private static ByteString toJson(Object value) {
+        try {
+            return ByteString.fromArray(JsonSupport.getObjectMapper().writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.pradeepl.triage.api;
+
+import akka.http.javadsl.model.HttpResponse;
+import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.http.Get;
+import akka.javasdk.annotations.http.HttpEndpoint;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.http.HttpResponses;
+import com.pradeepl.triage.application.AdmissionQueue;
+import com.pradeepl.triage.application.AgentCallMetrics;
+import com.pradeepl.triage.application.AgentResponseCaches;
+import com.pradeepl.triage.application.EvaluationSampling;
+import com.pradeepl.triage.application.LlmCallGovernor;
+import com.pradeepl.triage.application.McpJsonRpcClient;
+import com.pradeepl.triage.domain.CompressedText;
+import com.pradeepl.triage.guardrails.GuardrailScanner;
+
+/**
+ * MetricsEndpoint exposes node-local runtime metrics of the triage service.
+ *
+ * Endpoints:
+ * - GET /metrics/agents - Agent call wall time and token percentiles per agent
+ * - GET /metrics/cache - Agent response cache hit/miss counters
+ * - GET /metrics/mcp - MCP tool call latency and error counters
+ * - GET /metrics/guardrails - Guardrail verdict cache hit ratio
+ * - GET /metrics/guardrails/scans - Guardrail scan counts and scan time percentiles per guardrail
+ * - GET /metrics/compression - Compression ratio of stored agent outputs and explanations
+ * - GET /metrics/llm - LLM call governor permits, waits and leased budget per caller
+ * - GET /metrics/evaluation-sampling - Evaluation sampling decisions and lexical pre-screen verdicts
+ * - GET /metrics/admission - Admission queue depth, running workflows and wait times per severity
+ *   (service-wide, read from the AdmissionQueue entity)
+ */
+@HttpEndpoint("/metrics")
+@Acl(allow = @Acl.Matcher(principal = Acl.Principal.ALL))
+public class MetricsEndpoint {
+
+    private final AgentCallMetrics agentCallMetrics;
+    private final AgentResponseCaches agentResponseCaches;
+    private final McpJsonRpcClient mcpClient;
+    private final LlmCallGovernor llmCallGovernor;
+    private final EvaluationSampling evaluationSampling;
+    private final GuardrailScanner guardrailScanner;
+    private final ComponentClient componentClient;
+
+    public MetricsEndpoint(AgentCallMetrics agentCallMetrics, AgentResponseCaches agentResponseCaches, McpJsonRpcClient mcpClient,
+                           LlmCallGovernor llmCallGovernor, EvaluationSampling evaluationSampling,
+                           GuardrailScanner guardrailScanner, ComponentClient componentClient) {
+        this.agentCallMetrics = agentCallMetrics;
+        this.agentResponseCaches = agentResponseCaches;
+        this.mcpClient = mcpClient;
+        this.llmCallGovernor = llmCallGovernor;
+        this.evaluationSampling = evaluationSampling;
+        this.guardrailScanner = guardrailScanner;
+        this.componentClient = componentClient;
+    }
+
+    /**
+     * Get agent call statistics for this node: totals and p50/p90/p99 of recent calls per agent.
+     */
+    @Get("/agents")
+    public HttpResponse getAgentStats() {
+        return HttpResponses.ok(agentCallMetrics.stats());
+    }
+
+    /**
+     * Get agent response cache statistics for this node.
+     */
+    @Get("/cache")
+    public HttpResponse getCacheStats() {
+        return HttpResponses.ok(agentResponseCaches.stats());
+    }
+
+    /**
+     * Get MCP tool call statistics for this node.
+     */
+    @Get("/mcp")
+    public HttpResponse getMcpStats() {
+        return HttpResponses.ok(mcpClient.stats());
+    }
+
+    /**
+     * Get guardrail verdict cache statistics for this node.
+     */
+    @Get("/guardrails")
+    public HttpResponse getGuardrailStats() {
+        return HttpResponses.ok(guardrailScanner.cacheStats());
+    }
+
+    /**
+     * Get guardrail scan statistics for this node: scans and p50/p90/p99 scan time per guardrail.
+     */
+    @Get("/guardrails/scans")
+    public HttpResponse getGuardrailScanStats() {
+        return HttpResponses.ok(agentCallMetrics.guardrailStats());
+    }
+
+    /**
+     * Get compression statistics of the text values written on this node.
+     */
+    @Get("/compression")
+    public HttpResponse getCompressionStats() {
+        return HttpResponses.ok(CompressedText.stats());
+    }
+
+    /**
+     * Get LLM call governor statistics for this node.
+     */
+    @Get("/llm")
+    public HttpResponse getLlmGovernorStats() {
+        return HttpResponses.ok(llmCallGovernor.stats());
+    }
+
+    /**
+     * Get evaluation sampling and pre-screen counters for this node.
+     */
+    @Get("/evaluation-sampling")
+    public HttpResponse getEvaluationSamplingStats() {
+        return HttpResponses.ok(evaluationSampling.stats());
+    }
+
+    /**
+     * Get admission queue depth and wait time statistics.
+     */
+    @Get("/admission")
+    public HttpResponse getAdmissionStats() {
+        return HttpResponses.ok(componentClient.forKeyValueEntity(AdmissionQueue.ENTITY_ID)
+            .method(AdmissionQueue::getStats)
+            .invoke());
+    }
+}
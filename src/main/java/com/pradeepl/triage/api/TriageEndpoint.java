@@ -1,35 +1,132 @@
 package com.pradeepl.triage.api;
 
+import akka.NotUsed;
+import akka.http.javadsl.model.ContentTypes;
 import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.StatusCodes;
+import akka.japi.Pair;
 import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.http.Delete;
 import akka.javasdk.annotations.http.Get;
 import akka.javasdk.annotations.http.HttpEndpoint;
 import akka.javasdk.annotations.http.Post;
 import akka.javasdk.client.ComponentClient;
 import akka.javasdk.http.HttpResponses;
+import akka.stream.javadsl.Source;
+import com.pradeepl.triage.application.AdmissionDispatcher;
+import com.pradeepl.triage.application.AdmissionSettings;
+import com.pradeepl.triage.application.ArtifactStore;
+import com.pradeepl.triage.application.CoalescingSettings;
+import com.pradeepl.triage.application.IncidentCoalescer;
+import com.pradeepl.triage.application.IncidentFingerprint;
+import com.pradeepl.triage.application.IncidentLinks;
+import com.pradeepl.triage.application.PendingIncident;
+import com.pradeepl.triage.application.TriageProgressView;
 import com.pradeepl.triage.application.TriageWorkflow;
+import com.pradeepl.triage.domain.Conversation;
+import com.pradeepl.triage.domain.LinkedIncident;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 
 @Acl(allow = @Acl.Matcher(principal = Acl.Principal.INTERNET))
 @HttpEndpoint("/triage/{triageId}")
 public class TriageEndpoint {
 
+    // Bound on stale primaries released while looking for one incident's primary
+    private static final int MAX_STALE_RELEASES = 4;
+
     private final ComponentClient client;
+    private final CoalescingSettings coalescing;
+    private final AdmissionSettings admission;
+    private final AdmissionDispatcher dispatcher;
+    private final ArtifactStore artifacts;
 
-    public TriageEndpoint(ComponentClient client) {
+    public TriageEndpoint(ComponentClient client, CoalescingSettings coalescing, AdmissionSettings admission) {
         this.client = client;
+        this.coalescing = coalescing;
+        this.admission = admission;
+        this.dispatcher = new AdmissionDispatcher(client, admission);
+        this.artifacts = new ArtifactStore(client);
     }
 
     public record StartRequest(String incident) {}
     public record RepeatRequest(String message, int times) {}
+    public record CoalescedResponse(String status, String primaryTriageId, int distance) {}
+    public record QueuedResponse(String status, String severity, int position) {}
+
+    /**
+     * One SSE message: the status (flagged when it changed) and the conversation entries added
+     * since the previous message, starting at index offset.
+     */
+    public record ProgressEvent(
+        String triageId,
+        String status,
+        boolean statusChanged,
+        int offset,
+        List<Conversation> conversations
+    ) {
+        boolean terminal() {
+            return "COMPLETED".equals(status) || "FAILED".equals(status);
+        }
+    }
+
+    // What the subscriber has already been sent
+    private record ProgressCursor(String status, int sentConversations) {}
 
     @Post
     public HttpResponse start(String triageId, StartRequest req) {
+        boolean holdsSlot = false;
+        String claimedWindow = null;
         try {
+            // Alert-storm coalescing: attach near-duplicates to an already-running workflow
+            if (coalescing.enabled()) {
+                Instant now = Instant.now();
+                var match = findRunningPrimary(triageId, req.incident(), now);
+                if (!match.found()) {
+                    // This incident is now the primary of the current window
+                    claimedWindow = coalescing.windowId(now);
+                } else {
+                    client.forKeyValueEntity(match.primaryTriageId())
+                        .method(IncidentLinks::link)
+                        .invoke(new LinkedIncident(triageId, firstLine(req.incident()), match.distance(), Instant.now()));
+                    return HttpResponses.ok(new CoalescedResponse("coalesced", match.primaryTriageId(), match.distance()));
+                }
+            }
+
+            // Admission control: wait for a slot in the incident's severity pool
+            if (admission.enabled()) {
+                var admitted = dispatcher.admit(triageId, req.incident());
+                if (admitted.rejected()) {
+                    // The queue is full: shed low-severity incidents instead of queueing them
+                    if (claimedWindow != null) {
+                        releaseClaim(claimedWindow, triageId);
+                    }
+                    return HttpResponse.create()
+                        .withStatus(StatusCodes.SERVICE_UNAVAILABLE)
+                        .withEntity(ContentTypes.APPLICATION_JSON,
+                            "{\"error\":\"ADMISSION_REJECTED\",\"message\":\"Admission queue is full; "
+                                + admitted.severity() + " incidents are not accepted right now\"}");
+                }
+                if (!admitted.admitted()) {
+                    return HttpResponses.ok(new QueuedResponse("queued", admitted.severity(), admitted.position()));
+                }
+                holdsSlot = true;
+            }
+
             var res = client.forWorkflow(triageId)
                 .method(TriageWorkflow::start)
                 .invoke(new TriageWorkflow.StartTriage(req.incident()));
             return HttpResponses.ok(res);
         } catch (Exception e) {
+            if (holdsSlot) {
+                dispatcher.release(triageId);
+            }
+            if (claimedWindow != null) {
+                // The workflow never started, so near-duplicates must not be linked to it
+                releaseClaim(claimedWindow, triageId);
+            }
             String errorMsg = e.getMessage() != null ? e.getMessage() : e.toString();
             
             // Check for guardrail violations (profanity, toxic content, PII, etc.)
@@ -54,14 +151,168 @@ public class TriageEndpoint {
         return HttpResponses.ok(res);
     }
 
+    /**
+     * Live progress as Server-Sent Events. Each event carries only what changed since the
+     * previous one; the stream ends once the workflow completes or fails.
+     */
+    @Get("/events")
+    public HttpResponse events(String triageId) {
+        Source<ProgressEvent, NotUsed> events = client.forView()
+            .stream(TriageProgressView::streamProgress)
+            .source(triageId)
+            .statefulMap(
+                () -> new ProgressCursor(null, 0),
+                TriageEndpoint::nextProgressEvent,
+                cursor -> Optional.<Optional<ProgressEvent>>empty())
+            .filter(Optional::isPresent)
+            .map(Optional::get)
+            .takeWhile(event -> !event.terminal(), true);
+        return HttpResponses.serverSentEvents(events);
+    }
+
+    private static Pair<ProgressCursor, Optional<ProgressEvent>> nextProgressEvent(
+            ProgressCursor cursor, TriageProgressView.ProgressRow row) {
+        List<Conversation> conversations = row.conversations() != null ? row.conversations() : List.of();
+        // A shorter conversation means the log was trimmed or reset: resend it from the start
+        int from = cursor.sentConversations() <= conversations.size() ? cursor.sentConversations() : 0;
+        boolean statusChanged = !row.status().equals(cursor.status());
+
+        if (!statusChanged && from == conversations.size()) {
+            return Pair.create(cursor, Optional.empty());
+        }
+
+        var event = new ProgressEvent(row.triageId(), row.status(), statusChanged, from,
+            List.copyOf(conversations.subList(from, conversations.size())));
+        return Pair.create(new ProgressCursor(row.status(), conversations.size()), Optional.of(event));
+    }
+
     @Get("/state")
     public HttpResponse state(String triageId) {
         var res = client.forWorkflow(triageId)
                 .method(TriageWorkflow::getState)
                 .invoke();
+        // Agent outputs are stored as artifacts; fetch them so the response keeps its full shape
+        res = res.withTexts(artifacts.resolve(res.outputs(), res.texts()));
+        // Links are copied into the workflow state on completion; show live links while running
+        if (res.linkedIncidents().isEmpty()) {
+            var linked = client.forKeyValueEntity(triageId)
+                    .method(IncidentLinks::getLinks)
+                    .invoke();
+            if (!linked.isEmpty()) {
+                res = res.withLinkedIncidents(linked);
+            }
+        }
         return HttpResponses.ok(res);
     }
 
+    /**
+     * Delete a completed or failed workflow together with the artifacts no other workflow
+     * references. Artifacts are released only once the workflow is gone, so a retried delete
+     * cannot release them twice; a release that fails leaves the artifact in place.
+     */
+    @Delete
+    public HttpResponse delete(String triageId) {
+        var res = client.forWorkflow(triageId)
+                .method(TriageWorkflow::getState)
+                .invoke();
+        if (res.status().equals("EMPTY")) {
+            return HttpResponses.notFound();
+        }
+        if (!res.status().equals("COMPLETED") && !res.status().equals("FAILED")) {
+            return HttpResponses.badRequest("{\"error\":\"WORKFLOW_RUNNING\",\"status\":\"" + res.status() + "\"}");
+        }
+        var deleted = client.forWorkflow(triageId)
+                .method(TriageWorkflow::delete)
+                .invoke();
+        artifacts.release(res.outputs()).toCompletableFuture().join();
+        return HttpResponses.ok(deleted);
+    }
+
+    /**
+     * Look for a near-duplicate primary in the previous and current coalescing windows, claiming
+     * the current window for this incident when there is none. A primary whose workflow has
+     * already completed or failed, or has neither started nor been queued within the start
+     * grace of its claim, is released and the window claimed again; that claim may in turn
+     * find a primary registered concurrently, which this incident is then linked to.
+     */
+    private IncidentCoalescer.Match findRunningPrimary(String triageId, String incident, Instant now) {
+        long fingerprint = IncidentFingerprint.simHash(incident, coalescing.shingleSize());
+        String currentWindow = coalescing.windowId(now);
+        String previousWindow = coalescing.windowId(now.minus(coalescing.window()));
+
+        var match = client.forKeyValueEntity(previousWindow)
+            .method(IncidentCoalescer::findMatch)
+            .invoke(new IncidentCoalescer.FindMatch(fingerprint, coalescing.maxDistance()));
+        String matchWindow = previousWindow;
+
+        if (!match.found()) {
+            match = client.forKeyValueEntity(currentWindow)
+                .method(IncidentCoalescer::claim)
+                .invoke(new IncidentCoalescer.Claim(triageId, fingerprint, coalescing.maxDistance()));
+            matchWindow = currentWindow;
+        }
+
+        for (int released = 0; released < MAX_STALE_RELEASES; released++) {
+            if (!match.found() || match.primaryTriageId().equals(triageId)) {
+                return IncidentCoalescer.Match.none();
+            }
+            if (!isStale(match, now)) {
+                return match;
+            }
+            client.forKeyValueEntity(matchWindow)
+                .method(IncidentCoalescer::release)
+                .invoke(match.primaryTriageId());
+            // Register this incident as the new primary now that the stale one is gone, unless
+            // another request got there first
+            match = client.forKeyValueEntity(currentWindow)
+                .method(IncidentCoalescer::claim)
+                .invoke(new IncidentCoalescer.Claim(triageId, fingerprint, coalescing.maxDistance()));
+            matchWindow = currentWindow;
+        }
+        return match.found() && !match.primaryTriageId().equals(triageId) && !isStale(match, now)
+            ? match
+            : IncidentCoalescer.Match.none();
+    }
+
+    /**
+     * Whether the primary's workflow completed or failed, or does not exist past the start grace
+     * of its claim. A primary still waiting in the admission queue (its incident text is parked
+     * in PendingIncident) is not stale, however long the queue takes.
+     */
+    private boolean isStale(IncidentCoalescer.Match match, Instant now) {
+        String primaryStatus = client.forWorkflow(match.primaryTriageId())
+            .method(TriageWorkflow::getStatus)
+            .invoke();
+        if (primaryStatus.equals("COMPLETED") || primaryStatus.equals("FAILED")) {
+            return true;
+        }
+        // "EMPTY": the workflow does not exist, e.g. its start was rejected or it is still queued
+        if (!primaryStatus.equals("EMPTY")
+            || match.firstSeen() == null
+            || !match.firstSeen().plus(coalescing.startGrace()).isBefore(now)) {
+            return false;
+        }
+        String pending = client.forKeyValueEntity(match.primaryTriageId())
+            .method(PendingIncident::get)
+            .invoke();
+        return pending.isEmpty();
+    }
+
+    private void releaseClaim(String window, String triageId) {
+        try {
+            client.forKeyValueEntity(window)
+                .method(IncidentCoalescer::release)
+                .invoke(triageId);
+        } catch (Exception e) {
+            // A claim left behind is released as stale once its start grace has passed
+        }
+    }
+
+    private static String firstLine(String incident) {
+        String line = incident == null ? "" : incident.strip().lines().findFirst().orElse("");
+        return line.length() > 120 ? line.substring(0, 120) + "..." : line;
+    }
+
     @Post("/repeat")
     public HttpResponse repeat(String triageId, RepeatRequest req) {
         var res = client.forWorkflow(triageId)
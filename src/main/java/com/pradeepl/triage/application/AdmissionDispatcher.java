@@ -0,0 +1,135 @@
+package com.pradeepl.triage.application;
+
+import akka.javasdk.client.ComponentClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * AdmissionDispatcher is the client side of the AdmissionQueue: it asks for a slot when an
+ * incident arrives, and starts the workflows of the queued incidents granted a slot - on
+ * release, or on admission when expired leases were reclaimed.
+ *
+ * The text of a queued incident is parked in its PendingIncident entity until it is started.
+ * Used by TriageEndpoint and AdmissionReleaseConsumer.
+ */
+public class AdmissionDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionDispatcher.class);
+
+    // Bound on releases handled by one call when dispatched incidents keep failing to start
+    private static final int MAX_RELEASE_ROUNDS = 16;
+
+    private final ComponentClient client;
+    private final AdmissionSettings settings;
+
+    public AdmissionDispatcher(ComponentClient client, AdmissionSettings settings) {
+        this.client = client;
+        this.settings = settings;
+    }
+
+    /**
+     * Pre-classify the incident and request a slot in its severity pool. The incident text is
+     * stored before asking, so it is there whenever the queue dispatches the incident.
+     */
+    public AdmissionQueue.Admission admit(String triageId, String incident) {
+        String severity = IncidentPreClassifier.severity(incident);
+        client.forKeyValueEntity(triageId)
+            .method(PendingIncident::put)
+            .invoke(incident);
+        var admission = client.forKeyValueEntity(AdmissionQueue.ENTITY_ID)
+            .method(AdmissionQueue::admit)
+            .invoke(new AdmissionQueue.Admit(triageId, severity, settings.limits()));
+        if (!admission.dispatched().isEmpty()) {
+            // Slots reclaimed from expired leases went to incidents already waiting
+            var toRelease = new ArrayDeque<String>();
+            startAll(admission.dispatched(), toRelease);
+            releaseAll(toRelease);
+        }
+        if (!admission.admitted() && !admission.rejected()) {
+            return admission;
+        }
+        // Admitted immediately (the caller starts the workflow) or rejected: nothing is pending
+        discardPending(triageId);
+        return admission;
+    }
+
+    /**
+     * Give back the slot of a workflow that finished or failed to start, and start whatever
+     * the queue dispatched in its place. Incidents that fail to start give their slot back in
+     * turn, up to MAX_RELEASE_ROUNDS releases; slots left over then expire with their lease.
+     */
+    public void release(String triageId) {
+        var toRelease = new ArrayDeque<String>();
+        toRelease.add(triageId);
+        releaseAll(toRelease);
+    }
+
+    private void releaseAll(ArrayDeque<String> toRelease) {
+        int rounds = 0;
+
+        while (!toRelease.isEmpty()) {
+            if (rounds++ == MAX_RELEASE_ROUNDS) {
+                logger.warn("Stopped releasing after {} rounds; {} slots are left to lease expiry: {}",
+                    MAX_RELEASE_ROUNDS, toRelease.size(), toRelease);
+                return;
+            }
+            var dispatched = client.forKeyValueEntity(AdmissionQueue.ENTITY_ID)
+                .method(AdmissionQueue::release)
+                .invoke(new AdmissionQueue.Release(toRelease.poll(), settings.limits()));
+            startAll(dispatched, toRelease);
+        }
+    }
+
+    // Start the dispatched incidents; those that cannot start are added to toRelease
+    private void startAll(List<AdmissionQueue.QueuedIncident> dispatched, ArrayDeque<String> toRelease) {
+        for (var next : dispatched) {
+            if (toRelease.contains(next.triageId())) {
+                continue;
+            }
+            try {
+                start(next);
+            } catch (Exception e) {
+                // Typically a guardrail rejection; the incident cannot run, so hand its slot on
+                logger.warn("Could not start queued incident {}: {}", next.triageId(), e.getMessage());
+                discardPending(next.triageId());
+                toRelease.add(next.triageId());
+            }
+        }
+    }
+
+    private void start(AdmissionQueue.QueuedIncident next) {
+        // The release may be redelivered; never restart a workflow that already exists
+        String status = client.forWorkflow(next.triageId())
+            .method(TriageWorkflow::getStatus)
+            .invoke();
+        if (status.equals("EMPTY")) {
+            String incident = client.forKeyValueEntity(next.triageId())
+                .method(PendingIncident::get)
+                .invoke();
+            if (incident.isEmpty()) {
+                throw new IllegalStateException("No pending incident text for " + next.triageId());
+            }
+            client.forWorkflow(next.triageId())
+                .method(TriageWorkflow::start)
+                .invoke(new TriageWorkflow.StartTriage(incident));
+            logger.info("Admitted queued incident {} ({})", next.triageId(), next.severity());
+        }
+        client.forKeyValueEntity(AdmissionQueue.ENTITY_ID)
+            .method(AdmissionQueue::markStarted)
+            .invoke(next.triageId());
+        discardPending(next.triageId());
+    }
+
+    private void discardPending(String triageId) {
+        try {
+            client.forKeyValueEntity(triageId)
+                .method(PendingIncident::delete)
+                .invoke();
+        } catch (Exception e) {
+            logger.debug("Could not delete pending incident {}: {}", triageId, e.getMessage());
+        }
+    }
+}
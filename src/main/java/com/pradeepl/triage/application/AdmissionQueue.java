@@ -0,0 +1,391 @@
+package com.pradeepl.triage.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AdmissionQueue decides when a triage workflow may start.
+ *
+ * Single entity (ID="global") holding one concurrency pool per severity: the workflows
+ * currently running in it, and the incidents waiting for a slot in arrival order. Commands are
+ * serialized by the entity, so pools are never oversubscribed. Whenever capacity is found - a
+ * released slot, or an expired lease reclaimed on admission - waiting incidents are dispatched
+ * into it highest severity first; dispatched incidents stay listed until their workflow is
+ * confirmed started, so a failed start is retried on the next release.
+ *
+ * Entries only hold the triage ID and severity; the incident text waits in its PendingIncident
+ * entity. The queue is capped at max-queued entries: past it P3/P4 incidents are rejected
+ * rather than queued, while P1/P2 incidents are always queued. Slots are leased: a slot whose
+ * workflow never reports COMPLETED or FAILED is reclaimed once its lease expires.
+ *
+ * Limits come from AdmissionSettings and are passed with each command.
+ */
+@Component(id = "admission-queue")
+public class AdmissionQueue extends KeyValueEntity<AdmissionQueue.QueueState> {
+
+    public static final String ENTITY_ID = "global";
+
+    // Pool size for severities missing from the settings
+    private static final int DEFAULT_MAX_RUNNING = 4;
+
+    /**
+     * An incident waiting for (or just granted) a slot.
+     */
+    public record QueuedIncident(
+        String triageId,
+        String severity,
+        Instant enqueuedAt
+    ) {
+        @JsonCreator
+        public QueuedIncident(
+            @JsonProperty("triageId") String triageId,
+            @JsonProperty("severity") String severity,
+            @JsonProperty("enqueuedAt") Instant enqueuedAt
+        ) {
+            this.triageId = triageId;
+            this.severity = severity;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    /**
+     * A slot held in a severity pool until the workflow finishes or the lease expires.
+     */
+    public record Slot(
+        String severity,
+        Instant leaseExpires
+    ) {
+        @JsonCreator
+        public Slot(
+            @JsonProperty("severity") String severity,
+            @JsonProperty("leaseExpires") Instant leaseExpires
+        ) {
+            this.severity = severity;
+            this.leaseExpires = leaseExpires;
+        }
+    }
+
+    public record QueueState(
+        // severity -> incidents waiting in arrival order
+        Map<String, List<QueuedIncident>> queued,
+        // triage ID -> slot it holds
+        Map<String, Slot> running,
+        List<QueuedIncident> dispatched,
+        long admittedImmediately,
+        long admittedFromQueue,
+        long totalWaitMillis,
+        long maxWaitMillis,
+        long rejected,
+        long expiredLeases
+    ) {
+        @JsonCreator
+        public QueueState(
+            @JsonProperty("queued") Map<String, List<QueuedIncident>> queued,
+            @JsonProperty("running") Map<String, Slot> running,
+            @JsonProperty("dispatched") List<QueuedIncident> dispatched,
+            @JsonProperty("admittedImmediately") long admittedImmediately,
+            @JsonProperty("admittedFromQueue") long admittedFromQueue,
+            @JsonProperty("totalWaitMillis") long totalWaitMillis,
+            @JsonProperty("maxWaitMillis") long maxWaitMillis,
+            @JsonProperty("rejected") long rejected,
+            @JsonProperty("expiredLeases") long expiredLeases
+        ) {
+            this.queued = queued != null ? queued : new HashMap<>();
+            this.running = running != null ? running : new HashMap<>();
+            this.dispatched = dispatched != null ? dispatched : new ArrayList<>();
+            this.admittedImmediately = admittedImmediately;
+            this.admittedFromQueue = admittedFromQueue;
+            this.totalWaitMillis = totalWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+            this.rejected = rejected;
+            this.expiredLeases = expiredLeases;
+        }
+
+        public static QueueState empty() {
+            return new QueueState(new HashMap<>(), new HashMap<>(), new ArrayList<>(), 0, 0, 0, 0, 0, 0);
+        }
+
+        List<QueuedIncident> queuedIn(String severity) {
+            return queued.getOrDefault(severity, List.of());
+        }
+
+        int depth() {
+            int depth = 0;
+            for (var waiting : queued.values()) {
+                depth += waiting.size();
+            }
+            return depth;
+        }
+    }
+
+    // Commands
+
+    /**
+     * Pool sizes per severity, the queue depth past which P3/P4 incidents are rejected, and the
+     * lease of a granted slot.
+     */
+    public record Limits(Map<String, Integer> maxRunning, int maxQueued, long slotLeaseSeconds) {}
+
+    public record Admit(String triageId, String severity, Limits limits) {}
+    public record Release(String triageId, Limits limits) {}
+
+    /**
+     * Outcome of an admission request. When queued, position is the number of incidents of the
+     * same severity ahead of this one; a rejected incident was neither admitted nor queued.
+     * dispatched lists waiting incidents granted a slot by this request, whose workflows the
+     * caller has to start.
+     */
+    public record Admission(boolean admitted, boolean rejected, String severity, int position,
+                            List<QueuedIncident> dispatched) {}
+
+    public record Stats(
+        Map<String, Integer> queued,
+        Map<String, Integer> running,
+        Map<String, Long> oldestWaitMillis,
+        int starting,
+        long admittedImmediately,
+        long admittedFromQueue,
+        double averageWaitMillis,
+        long maxWaitMillis,
+        long rejected,
+        long expiredLeases
+    ) {}
+
+    /**
+     * Take a slot in the incident's severity pool if one is free and nobody of that severity is
+     * waiting, otherwise join the queue - or, for P3/P4 when the queue is full, be rejected.
+     * Slots freed by expired leases are first given to waiting incidents. Repeated requests for
+     * the same triage ID are answered from the current state.
+     */
+    public Effect<Admission> admit(Admit cmd) {
+        var state = currentState() != null ? currentState() : QueueState.empty();
+        Instant now = Instant.now();
+
+        var slot = state.running().get(cmd.triageId());
+        if (slot != null && slot.leaseExpires().isAfter(now)) {
+            return effects().reply(new Admission(true, false, slot.severity(), 0, List.of()));
+        }
+        int position = positionOf(state.queuedIn(cmd.severity()), cmd.triageId());
+        if (position >= 0) {
+            return effects().reply(new Admission(false, false, cmd.severity(), position, List.of()));
+        }
+
+        var running = withoutExpired(state.running(), now);
+        long expired = state.expiredLeases() + (state.running().size() - running.size());
+        var dispatched = withoutReleased(state.dispatched(), running);
+        var queued = new HashMap<>(state.queued());
+        // Reclaimed slots go to the incidents already waiting for them
+        var granted = fill(queued, running, cmd.limits(), now);
+        dispatched.addAll(granted);
+        var waiting = queued.getOrDefault(cmd.severity(), List.of());
+        int depth = state.depth() - granted.size();
+
+        Admission admission;
+        long admittedImmediately = state.admittedImmediately();
+        long rejected = state.rejected();
+        if (countIn(running, cmd.severity()) < limit(cmd.limits(), cmd.severity()) && waiting.isEmpty()) {
+            running.put(cmd.triageId(), new Slot(cmd.severity(), leaseFrom(now, cmd.limits())));
+            admittedImmediately++;
+            admission = new Admission(true, false, cmd.severity(), 0, granted);
+        } else if (depth >= cmd.limits().maxQueued() && sheddable(cmd.severity())) {
+            rejected++;
+            admission = new Admission(false, true, cmd.severity(), -1, granted);
+        } else {
+            var severityQueue = new ArrayList<>(waiting);
+            severityQueue.add(new QueuedIncident(cmd.triageId(), cmd.severity(), now));
+            queued.put(cmd.severity(), severityQueue);
+            admission = new Admission(false, false, cmd.severity(), severityQueue.size() - 1, granted);
+        }
+
+        var updated = new QueueState(queued, running, dispatched,
+            admittedImmediately, state.admittedFromQueue() + granted.size(),
+            state.totalWaitMillis() + totalWait(granted, now), Math.max(state.maxWaitMillis(), maxWait(granted, now)),
+            rejected, expired);
+        return effects()
+            .updateState(updated)
+            .thenReply(admission);
+    }
+
+    /**
+     * Free the slot held by a finished (or failed-to-start) workflow, reclaim expired leases and
+     * fill free slots from the queue, highest severity first. Replies with every incident granted
+     * a slot whose workflow has not been confirmed started yet.
+     */
+    public Effect<List<QueuedIncident>> release(Release cmd) {
+        var state = currentState();
+        if (state == null) {
+            return effects().reply(List.of());
+        }
+        Instant now = Instant.now();
+
+        var running = withoutExpired(state.running(), now);
+        long expired = state.expiredLeases() + (state.running().size() - running.size());
+        running.remove(cmd.triageId());
+        var dispatched = withoutReleased(state.dispatched(), running);
+        var queued = new HashMap<>(state.queued());
+        var granted = fill(queued, running, cmd.limits(), now);
+        dispatched.addAll(granted);
+
+        var updated = new QueueState(queued, running, dispatched,
+            state.admittedImmediately(), state.admittedFromQueue() + granted.size(),
+            state.totalWaitMillis() + totalWait(granted, now), Math.max(state.maxWaitMillis(), maxWait(granted, now)),
+            state.rejected(), expired);
+        return effects()
+            .updateState(updated)
+            .thenReply(List.copyOf(dispatched));
+    }
+
+    /**
+     * Confirm that the workflow of a dispatched incident has started.
+     */
+    public Effect<String> markStarted(String triageId) {
+        var state = currentState();
+        if (state == null || state.dispatched().stream().noneMatch(d -> d.triageId().equals(triageId))) {
+            return effects().reply("Not dispatched: " + triageId);
+        }
+        var dispatched = new ArrayList<>(state.dispatched());
+        dispatched.removeIf(d -> d.triageId().equals(triageId));
+        return effects()
+            .updateState(new QueueState(state.queued(), state.running(), dispatched,
+                state.admittedImmediately(), state.admittedFromQueue(), state.totalWaitMillis(),
+                state.maxWaitMillis(), state.rejected(), state.expiredLeases()))
+            .thenReply("Started: " + triageId);
+    }
+
+    public ReadOnlyEffect<Stats> getStats() {
+        var state = currentState() != null ? currentState() : QueueState.empty();
+        Instant now = Instant.now();
+
+        Map<String, Integer> queued = new LinkedHashMap<>();
+        Map<String, Integer> running = new LinkedHashMap<>();
+        Map<String, Long> oldestWait = new LinkedHashMap<>();
+        for (String severity : AdmissionSettings.PRIORITY_ORDER) {
+            var waiting = state.queuedIn(severity);
+            queued.put(severity, waiting.size());
+            running.put(severity, 0);
+            // Each queue is in arrival order, so its first entry is the oldest
+            oldestWait.put(severity, waiting.isEmpty() ? 0L : Duration.between(waiting.get(0).enqueuedAt(), now).toMillis());
+        }
+        for (var slot : state.running().values()) {
+            if (slot.leaseExpires().isAfter(now)) {
+                running.merge(slot.severity(), 1, Integer::sum);
+            }
+        }
+
+        return effects().reply(new Stats(
+            queued,
+            running,
+            oldestWait,
+            state.dispatched().size(),
+            state.admittedImmediately(),
+            state.admittedFromQueue(),
+            state.admittedFromQueue() == 0 ? 0.0 : (double) state.totalWaitMillis() / state.admittedFromQueue(),
+            state.maxWaitMillis(),
+            state.rejected(),
+            state.expiredLeases()
+        ));
+    }
+
+    /**
+     * Grant free slots to waiting incidents, highest severity first. Updates the given queued
+     * and running maps (copies owned by the caller) and returns the incidents granted a slot.
+     */
+    private static List<QueuedIncident> fill(Map<String, List<QueuedIncident>> queued, Map<String, Slot> running,
+                                             Limits limits, Instant now) {
+        var granted = new ArrayList<QueuedIncident>();
+        for (String severity : AdmissionSettings.PRIORITY_ORDER) {
+            var waiting = queued.getOrDefault(severity, List.of());
+            int free = limit(limits, severity) - countIn(running, severity);
+            int count = Math.min(Math.max(free, 0), waiting.size());
+            if (count == 0) {
+                continue;
+            }
+            for (var next : waiting.subList(0, count)) {
+                running.put(next.triageId(), new Slot(severity, leaseFrom(now, limits)));
+                granted.add(next);
+            }
+            queued.put(severity, new ArrayList<>(waiting.subList(count, waiting.size())));
+        }
+        return granted;
+    }
+
+    private static long totalWait(List<QueuedIncident> granted, Instant now) {
+        long total = 0;
+        for (var next : granted) {
+            total += Duration.between(next.enqueuedAt(), now).toMillis();
+        }
+        return total;
+    }
+
+    private static long maxWait(List<QueuedIncident> granted, Instant now) {
+        long max = 0;
+        for (var next : granted) {
+            max = Math.max(max, Duration.between(next.enqueuedAt(), now).toMillis());
+        }
+        return max;
+    }
+
+    // Only low-severity incidents are shed; P1/P2 always wait for a slot
+    private static boolean sheddable(String severity) {
+        return "P3".equals(severity) || "P4".equals(severity);
+    }
+
+    private static int positionOf(List<QueuedIncident> waiting, String triageId) {
+        for (int i = 0; i < waiting.size(); i++) {
+            if (waiting.get(i).triageId().equals(triageId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static HashMap<String, Slot> withoutExpired(Map<String, Slot> running, Instant now) {
+        var live = new HashMap<String, Slot>();
+        running.forEach((triageId, slot) -> {
+            if (slot.leaseExpires().isAfter(now)) {
+                live.put(triageId, slot);
+            }
+        });
+        return live;
+    }
+
+    // Dispatched incidents whose slot is gone (released or expired) are no longer starting
+    private static ArrayList<QueuedIncident> withoutReleased(List<QueuedIncident> dispatched, Map<String, Slot> running) {
+        var starting = new ArrayList<QueuedIncident>();
+        for (var d : dispatched) {
+            if (running.containsKey(d.triageId())) {
+                starting.add(d);
+            }
+        }
+        return starting;
+    }
+
+    private static Instant leaseFrom(Instant now, Limits limits) {
+        return now.plusSeconds(limits.slotLeaseSeconds());
+    }
+
+    private static int countIn(Map<String, Slot> running, String severity) {
+        int n = 0;
+        for (var slot : running.values()) {
+            if (slot.severity().equals(severity)) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    private static int limit(Limits limits, String severity) {
+        var maxRunning = limits != null ? limits.maxRunning() : null;
+        return maxRunning != null ? maxRunning.getOrDefault(severity, DEFAULT_MAX_RUNNING) : DEFAULT_MAX_RUNNING;
+    }
+}
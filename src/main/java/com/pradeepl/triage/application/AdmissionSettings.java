@@ -0,0 +1,51 @@
+package com.pradeepl.triage.application;
+
+import com.typesafe.config.Config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Settings for workflow admission control, read from triage.admission.
+ *
+ * max-running.<severity> bounds the number of triage workflows of that (pre-classified) severity
+ * running at the same time; further incidents wait in the admission queue. Once max-queued
+ * incidents are waiting, new P3/P4 incidents are rejected. A slot whose workflow never reports
+ * back is reclaimed after slot-lease.
+ */
+public record AdmissionSettings(
+    boolean enabled,
+    Map<String, Integer> maxRunning,
+    int maxQueued,
+    Duration slotLease
+) {
+
+    // Highest priority first; the order in which queued incidents are dispatched
+    public static final List<String> PRIORITY_ORDER = List.of("P1", "P2", "P3", "P4");
+
+    private static final Map<String, Integer> DEFAULT_MAX_RUNNING = Map.of("P1", 50, "P2", 20, "P3", 8, "P4", 4);
+
+    public static AdmissionSettings fromConfig(Config config) {
+        String section = "triage.admission";
+        Map<String, Integer> maxRunning = new HashMap<>(DEFAULT_MAX_RUNNING);
+        if (config.hasPath(section + ".max-running")) {
+            Config pools = config.getConfig(section + ".max-running");
+            for (String severity : pools.root().keySet()) {
+                maxRunning.put(severity.toUpperCase(Locale.ROOT), Math.max(1, pools.getInt("\"" + severity + "\"")));
+            }
+        }
+        return new AdmissionSettings(
+            !config.hasPath(section + ".enabled") || config.getBoolean(section + ".enabled"),
+            Map.copyOf(maxRunning),
+            config.hasPath(section + ".max-queued") ? Math.max(0, config.getInt(section + ".max-queued")) : 1000,
+            config.hasPath(section + ".slot-lease") ? config.getDuration(section + ".slot-lease") : Duration.ofMinutes(30)
+        );
+    }
+
+    public AdmissionQueue.Limits limits() {
+        return new AdmissionQueue.Limits(maxRunning, maxQueued, slotLease.toSeconds());
+    }
+}
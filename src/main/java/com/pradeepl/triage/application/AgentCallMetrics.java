@@ -0,0 +1,277 @@
+package com.pradeepl.triage.application;
+
+import com.pradeepl.triage.domain.AgentUsage;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.LongHistogram;
+import io.opentelemetry.api.metrics.Meter;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * AgentCallMetrics records wall time, estimated prompt and completion tokens and tool calls of
+ * every agent and evaluator call, and the time spent in each guardrail.
+ *
+ * Samples are exported as OpenTelemetry histograms and counters (meter "agentic-triage-system")
+ * and kept in a bounded window of recent samples per agent and per guardrail, from which
+ * {@link #stats()} and {@link #guardrailStats()} compute percentiles for /metrics/agents and
+ * /metrics/guardrails/scans. Guardrails are keyed by their configured name: the runtime does
+ * not tell a guardrail which agent it guards. Token counts are estimated from character counts,
+ * since agent replies do not carry model usage.
+ *
+ * Tool calls are reported by the agents' function tools under their session ID and collected
+ * when the call returns. This only sees tools run on the calling node, which is where agent
+ * calls are executed. Tool calls whose agent call is never recorded are dropped after
+ * {@link #PENDING_TOOL_CALLS_TTL}.
+ *
+ * Created once in Bootstrap and injected into TriageWorkflow, TriageEvaluatorConsumer and the
+ * agents with function tools.
+ */
+public class AgentCallMetrics {
+
+    // Recent samples kept per agent for percentiles
+    private static final int WINDOW = 1024;
+    // Pending tool call entries above which stale ones are dropped
+    private static final int MAX_PENDING_TOOL_CALLS = 1024;
+    static final Duration PENDING_TOOL_CALLS_TTL = Duration.ofMinutes(10);
+
+    private static final AttributeKey<String> AGENT = AttributeKey.stringKey("agent");
+    private static final AttributeKey<String> CALLER = AttributeKey.stringKey("caller");
+    private static final AttributeKey<String> OUTCOME = AttributeKey.stringKey("outcome");
+    private static final AttributeKey<String> TOKEN_TYPE = AttributeKey.stringKey("type");
+    private static final AttributeKey<String> GUARDRAIL = AttributeKey.stringKey("guardrail");
+    private static final AttributeKey<String> CHECK = AttributeKey.stringKey("check");
+
+    public record Percentiles(double p50, double p90, double p99, double max) {}
+
+    public record AgentStats(
+        long calls,
+        long errors,
+        long promptTokens,
+        long completionTokens,
+        long toolCalls,
+        Percentiles wallMillis,
+        Percentiles promptTokensPerCall,
+        Percentiles completionTokensPerCall
+    ) {}
+
+    public record GuardrailStats(long scans, Percentiles micros) {}
+
+    /**
+     * Accumulates the usage of the agent calls made by one workflow step.
+     */
+    public static final class StepUsage {
+        private AgentUsage total = AgentUsage.empty();
+
+        synchronized void add(AgentUsage usage) {
+            total = total.plus(usage);
+        }
+
+        public synchronized AgentUsage total() {
+            return total;
+        }
+    }
+
+    // Ring buffer of recent samples of one series
+    private static final class Window {
+        private final long[] values = new long[WINDOW];
+        private int next;
+        private int size;
+
+        synchronized void add(long value) {
+            values[next] = value;
+            next = (next + 1) % WINDOW;
+            size = Math.min(size + 1, WINDOW);
+        }
+
+        synchronized Percentiles percentiles() {
+            if (size == 0) {
+                return new Percentiles(0, 0, 0, 0);
+            }
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return new Percentiles(at(sorted, 0.50), at(sorted, 0.90), at(sorted, 0.99), sorted[size - 1]);
+        }
+
+        private static double at(long[] sorted, double quantile) {
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)];
+        }
+    }
+
+    private static final class Series {
+        final LongAdder calls = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder promptTokens = new LongAdder();
+        final LongAdder completionTokens = new LongAdder();
+        final LongAdder toolCalls = new LongAdder();
+        final Window wallMillis = new Window();
+        final Window promptTokensPerCall = new Window();
+        final Window completionTokensPerCall = new Window();
+    }
+
+    private static final class GuardrailSeries {
+        final LongAdder scans = new LongAdder();
+        final Window micros = new Window();
+    }
+
+    // Tool calls of one agent call, counted since the first one
+    private record PendingToolCalls(LongAdder count, long sinceNanos) {}
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+    // guardrail name -> scans
+    private final Map<String, GuardrailSeries> guardrails = new ConcurrentHashMap<>();
+    // "{sessionId}/{agentId}" -> tool calls not yet collected
+    private final Map<String, PendingToolCalls> pendingToolCalls = new ConcurrentHashMap<>();
+
+    private final LongHistogram callDuration;
+    private final LongCounter callCount;
+    private final LongCounter tokenCount;
+    private final LongCounter toolCallCount;
+    private final LongHistogram guardrailDuration;
+
+    public AgentCallMetrics() {
+        Meter meter = GlobalOpenTelemetry.getMeter("agentic-triage-system");
+        this.callDuration = meter.histogramBuilder("triage.agent.call.duration")
+            .setDescription("Wall time of agent calls").setUnit("ms").ofLongs().build();
+        this.callCount = meter.counterBuilder("triage.agent.calls")
+            .setDescription("Agent calls by outcome").build();
+        this.tokenCount = meter.counterBuilder("triage.agent.tokens")
+            .setDescription("Estimated prompt and completion tokens of agent calls").build();
+        this.toolCallCount = meter.counterBuilder("triage.agent.tool_calls")
+            .setDescription("Function tool calls made by agents").build();
+        this.guardrailDuration = meter.histogramBuilder("triage.guardrail.duration")
+            .setDescription("Time spent in guardrail scans").setUnit("us").ofLongs().build();
+    }
+
+    /**
+     * Run a blocking agent call and record it; its usage is also added to the step.
+     */
+    public <T> T record(String caller, String agentId, String sessionId, int promptTokens, StepUsage step, Supplier<T> call) {
+        long started = System.nanoTime();
+        try {
+            T reply = call.get();
+            step.add(complete(caller, agentId, sessionId, promptTokens, started, reply));
+            return reply;
+        } catch (RuntimeException e) {
+            failed(caller, agentId, sessionId, started);
+            throw e;
+        }
+    }
+
+    /**
+     * Start an asynchronous agent call and record it when it completes.
+     */
+    public <T> CompletionStage<T> recordAsync(String caller, String agentId, String sessionId, int promptTokens, StepUsage step,
+                                              Supplier<CompletionStage<T>> call) {
+        long started = System.nanoTime();
+        return call.get().whenComplete((reply, error) -> {
+            if (error != null) {
+                failed(caller, agentId, sessionId, started);
+            } else {
+                step.add(complete(caller, agentId, sessionId, promptTokens, started, reply));
+            }
+        });
+    }
+
+    /**
+     * Called by an agent's function tool.
+     */
+    public void toolCall(String sessionId, String agentId) {
+        pendingToolCalls.computeIfAbsent(sessionId + "/" + agentId, k -> new PendingToolCalls(new LongAdder(), System.nanoTime()))
+            .count().increment();
+        if (pendingToolCalls.size() > MAX_PENDING_TOOL_CALLS) {
+            long cutoff = System.nanoTime() - PENDING_TOOL_CALLS_TTL.toNanos();
+            pendingToolCalls.values().removeIf(pending -> pending.sinceNanos() - cutoff < 0);
+        }
+    }
+
+    /**
+     * Called by GuardrailScanner for every scan of a guardrail, identified by its configured name.
+     */
+    public void recordGuardrail(String guardrail, String check, long nanos) {
+        long micros = nanos / 1_000;
+        var s = guardrails.computeIfAbsent(guardrail, k -> new GuardrailSeries());
+        s.scans.increment();
+        s.micros.add(micros);
+        guardrailDuration.record(micros, Attributes.of(GUARDRAIL, guardrail, CHECK, check));
+    }
+
+    /**
+     * Per-agent totals and percentiles over the recent samples of this node.
+     */
+    public Map<String, AgentStats> stats() {
+        Map<String, AgentStats> result = new TreeMap<>();
+        series.forEach((agentId, s) -> result.put(agentId, new AgentStats(
+            s.calls.sum(),
+            s.errors.sum(),
+            s.promptTokens.sum(),
+            s.completionTokens.sum(),
+            s.toolCalls.sum(),
+            s.wallMillis.percentiles(),
+            s.promptTokensPerCall.percentiles(),
+            s.completionTokensPerCall.percentiles()
+        )));
+        return result;
+    }
+
+    /**
+     * Per-guardrail scan counts and scan time percentiles over the recent scans of this node.
+     */
+    public Map<String, GuardrailStats> guardrailStats() {
+        Map<String, GuardrailStats> result = new TreeMap<>();
+        guardrails.forEach((guardrail, s) -> result.put(guardrail, new GuardrailStats(s.scans.sum(), s.micros.percentiles())));
+        return result;
+    }
+
+    private AgentUsage complete(String caller, String agentId, String sessionId, int promptTokens, long started, Object reply) {
+        long wallMillis = (System.nanoTime() - started) / 1_000_000;
+        String text = reply == null ? "" : reply instanceof String s ? s : reply.toString();
+        long completionTokens = text.length() / 4;
+        int toolCalls = takeToolCalls(sessionId, agentId);
+
+        Series s = seriesFor(agentId);
+        s.calls.increment();
+        s.promptTokens.add(promptTokens);
+        s.completionTokens.add(completionTokens);
+        s.toolCalls.add(toolCalls);
+        s.wallMillis.add(wallMillis);
+        s.promptTokensPerCall.add(promptTokens);
+        s.completionTokensPerCall.add(completionTokens);
+
+        Attributes attributes = Attributes.of(AGENT, agentId, CALLER, caller);
+        callDuration.record(wallMillis, attributes);
+        callCount.add(1, Attributes.of(AGENT, agentId, CALLER, caller, OUTCOME, "success"));
+        tokenCount.add(promptTokens, Attributes.of(AGENT, agentId, TOKEN_TYPE, "prompt"));
+        tokenCount.add(completionTokens, Attributes.of(AGENT, agentId, TOKEN_TYPE, "completion"));
+        if (toolCalls > 0) {
+            toolCallCount.add(toolCalls, Attributes.of(AGENT, agentId));
+        }
+        return new AgentUsage(1, wallMillis, promptTokens, completionTokens, toolCalls);
+    }
+
+    private void failed(String caller, String agentId, String sessionId, long started) {
+        long wallMillis = (System.nanoTime() - started) / 1_000_000;
+        takeToolCalls(sessionId, agentId);
+        seriesFor(agentId).errors.increment();
+        callDuration.record(wallMillis, Attributes.of(AGENT, agentId, CALLER, caller));
+        callCount.add(1, Attributes.of(AGENT, agentId, CALLER, caller, OUTCOME, "error"));
+    }
+
+    private int takeToolCalls(String sessionId, String agentId) {
+        var pending = pendingToolCalls.remove(sessionId + "/" + agentId);
+        return pending == null ? 0 : pending.count().intValue();
+    }
+
+    private Series seriesFor(String agentId) {
+        return series.computeIfAbsent(agentId, k -> new Series());
+    }
+}
@@ -0,0 +1,182 @@
+package com.pradeepl.triage.application;
+
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * AgentResponseCache is an exact-match cache for agent replies, keyed by a normalized prompt.
+ *
+ * The key is built from the agent id, model name, temperature and the request inputs with
+ * whitespace collapsed and volatile timestamps stripped, so an alert storm that repeats the
+ * same incident text only pays for one LLM round-trip per TTL.
+ *
+ * Entries expire after a fixed TTL and the cache is bounded with LRU eviction.
+ * Hit/miss counters are kept per cache and exposed through {@link #stats()}.
+ *
+ * The cache is node-local: every node in the cluster warms its own copy.
+ */
+public class AgentResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgentResponseCache.class);
+
+    // ISO-8601 date-times (with optional fraction/zone), clock times and epoch seconds/millis
+    // between 2017 and 2033; other 10/13 digit numbers (order, account, phone numbers) are kept
+    private static final Pattern TIMESTAMP_PATTERN = Pattern.compile(
+        "\\b\\d{4}-\\d{2}-\\d{2}[T ]\\d{2}:\\d{2}(?::\\d{2}(?:\\.\\d+)?)?(?:Z|[+-]\\d{2}:?\\d{2})?\\b" +
+        "|\\b\\d{1,2}:\\d{2}:\\d{2}(?:\\.\\d+)?\\b" +
+        "|\\b1[5-9]\\d{11}\\b|\\b1[5-9]\\d{8}\\b"
+    );
+
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+
+    public record Stats(
+        String name,
+        long hits,
+        long misses,
+        long evictions,
+        long expirations,
+        int size,
+        int maxEntries,
+        double hitRatio
+    ) {}
+
+    private record Entry(String value, long expiresAtNanos) {}
+
+    private final String name;
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public AgentResponseCache(String name, boolean enabled, Duration ttl, int maxEntries) {
+        this.name = name;
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > AgentResponseCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Build a cache from a config section with optional "ttl", "max-entries" and "enabled" keys.
+     */
+    public static AgentResponseCache fromConfig(String name, Config config, String path, Duration defaultTtl, int defaultMaxEntries) {
+        boolean enabled = !config.hasPath("triage.agent-cache.enabled") || config.getBoolean("triage.agent-cache.enabled");
+        String section = "triage.agent-cache." + path;
+        Duration ttl = config.hasPath(section + ".ttl") ? config.getDuration(section + ".ttl") : defaultTtl;
+        int maxEntries = config.hasPath(section + ".max-entries") ? config.getInt(section + ".max-entries") : defaultMaxEntries;
+        logger.info("AgentResponseCache '{}' enabled={}, ttl={}, maxEntries={}", name, enabled, ttl, maxEntries);
+        return new AgentResponseCache(name, enabled, ttl, maxEntries);
+    }
+
+    /**
+     * Return the cached reply for the key, or call the loader and cache its result.
+     * The loader runs outside the lock, so concurrent misses for the same key may both call the agent.
+     */
+    public String getOrCompute(String key, Supplier<String> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        String cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        String value = loader.get();
+        store(key, value);
+        return value;
+    }
+
+    private synchronized String lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (entry.expiresAtNanos() - System.nanoTime() > 0) {
+                hits++;
+                logger.debug("AgentResponseCache '{}' HIT", name);
+                return entry.value();
+            }
+            entries.remove(key);
+            expirations++;
+        }
+        misses++;
+        return null;
+    }
+
+    private synchronized void store(String key, String value) {
+        if (value != null && !value.isBlank()) {
+            entries.put(key, new Entry(value, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    /**
+     * Async variant of {@link #getOrCompute} for agent calls made with invokeAsync.
+     */
+    public CompletionStage<String> getOrComputeAsync(String key, Supplier<CompletionStage<String>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        String cached = lookup(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return loader.get().thenApply(value -> {
+            store(key, value);
+            return value;
+        });
+    }
+
+    public synchronized Stats stats() {
+        long lookups = hits + misses;
+        return new Stats(name, hits, misses, evictions, expirations, entries.size(), maxEntries,
+            lookups == 0 ? 0.0 : (double) hits / lookups);
+    }
+
+    /**
+     * Build a cache key from the agent identity, model settings and the request inputs.
+     */
+    public static String key(String agentId, String modelName, double temperature, String... inputs) {
+        StringBuilder sb = new StringBuilder()
+            .append(agentId).append('|')
+            .append(modelName).append('|')
+            .append(String.format(Locale.ROOT, "%.2f", temperature));
+        for (String input : inputs) {
+            sb.append('|').append(normalize(input));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Collapse whitespace and strip volatile timestamps so equivalent prompts share a key.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String withoutTimestamps = TIMESTAMP_PATTERN.matcher(text).replaceAll("<ts>");
+        return WHITESPACE_PATTERN.matcher(withoutTimestamps).replaceAll(" ").trim();
+    }
+}
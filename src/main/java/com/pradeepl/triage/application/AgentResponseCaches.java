@@ -0,0 +1,52 @@
+package com.pradeepl.triage.application;
+
+import com.typesafe.config.Config;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * AgentResponseCaches groups the per-agent response caches used by TriageWorkflow.
+ *
+ * Created once in Bootstrap and injected into components that call agents.
+ * TTLs reflect how stable each agent's answer is:
+ * - knowledge base: runbook summaries keyed by service name, long TTL
+ * - classifier: keyed by normalized incident text, medium TTL
+ * - evidence: live logs/metrics, short TTL that only absorbs alert storms
+ */
+public class AgentResponseCaches {
+
+    private final AgentResponseCache classifier;
+    private final AgentResponseCache evidence;
+    private final AgentResponseCache knowledgeBase;
+
+    public AgentResponseCaches(AgentResponseCache classifier, AgentResponseCache evidence, AgentResponseCache knowledgeBase) {
+        this.classifier = classifier;
+        this.evidence = evidence;
+        this.knowledgeBase = knowledgeBase;
+    }
+
+    public static AgentResponseCaches fromConfig(Config config) {
+        return new AgentResponseCaches(
+            AgentResponseCache.fromConfig("classifier", config, "classifier", Duration.ofMinutes(10), 500),
+            AgentResponseCache.fromConfig("evidence", config, "evidence", Duration.ofMinutes(2), 200),
+            AgentResponseCache.fromConfig("knowledge-base", config, "knowledge-base", Duration.ofHours(1), 200)
+        );
+    }
+
+    public AgentResponseCache classifier() {
+        return classifier;
+    }
+
+    public AgentResponseCache evidence() {
+        return evidence;
+    }
+
+    public AgentResponseCache knowledgeBase() {
+        return knowledgeBase;
+    }
+
+    public List<AgentResponseCache.Stats> stats() {
+        return List.of(classifier.stats(), evidence.stats(), knowledgeBase.stats());
+    }
+}
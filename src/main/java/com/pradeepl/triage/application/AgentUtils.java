@@ -2,6 +2,8 @@ package com.pradeepl.triage.application;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pradeepl.triage.domain.Classification;
+import com.pradeepl.triage.domain.EvidenceSummary;
 
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
@@ -14,6 +16,59 @@ import java.util.ArrayList;
 public class AgentUtils {
     
     private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Result of parsing an EvidenceAgent response once: the logs/metrics sections plus typed summary.
+     */
+    public record ParsedEvidence(String logs, String metrics, EvidenceSummary summary) {}
+
+    /**
+     * Parse a ClassifierAgent response once into its typed fields.
+     * Falls back to regex extraction when the response is not valid JSON.
+     */
+    public static Classification parseClassification(String classificationJson) {
+        if (classificationJson == null || classificationJson.isBlank()) {
+            return Classification.unknown();
+        }
+
+        try {
+            JsonNode node = objectMapper.readTree(classificationJson);
+            JsonNode classification = node.path("classification");
+            String service = classification.has("service") ? classification.get("service").asText()
+                : node.has("service") ? node.get("service").asText() : "unknown";
+            String severity = classification.has("severity") ? classification.get("severity").asText()
+                : node.has("severity") ? node.get("severity").asText() : "P3";
+            return new Classification(service, severity, confidenceScore(node, "overall"));
+        } catch (Exception e) {
+            return new Classification(
+                extractServiceWithRegex(classificationJson),
+                extractSeverity(classificationJson),
+                extractConfidenceScore(classificationJson, "overall"));
+        }
+    }
+
+    /**
+     * Parse an EvidenceAgent response once into logs, metrics, key findings and data quality.
+     */
+    public static ParsedEvidence parseEvidence(String evidenceResponse) {
+        if (evidenceResponse == null || evidenceResponse.isBlank()) {
+            return new ParsedEvidence(null, null, new EvidenceSummary(List.of(), 0.0, false));
+        }
+
+        boolean highRisk = hasHighRiskSignals(evidenceResponse);
+        try {
+            JsonNode node = objectMapper.readTree(evidenceResponse);
+            String[] logsAndMetrics = logsAndMetrics(node);
+            return new ParsedEvidence(logsAndMetrics[0], logsAndMetrics[1],
+                new EvidenceSummary(keyFindings(node), confidenceScore(node, "data_quality"), highRisk));
+        } catch (Exception e) {
+            // Not JSON: no logs/metrics split, text fallbacks for the summary fields
+            return new ParsedEvidence(null, null, new EvidenceSummary(
+                extractKeyFindings(evidenceResponse),
+                extractConfidenceScore(evidenceResponse, "data_quality"),
+                highRisk));
+        }
+    }
     
     /**
      * Extract service name from classification JSON with fallback logic
@@ -51,41 +106,7 @@ public class AgentUtils {
         if (agentResponse == null) return 0.0;
         
         try {
-            JsonNode node = objectMapper.readTree(agentResponse);
-            
-            // Look for confidence in root_cause_analysis.primary_hypothesis (TriageAgent format)
-            if (node.has("root_cause_analysis")) {
-                JsonNode rca = node.get("root_cause_analysis");
-                if (rca.has("primary_hypothesis")) {
-                    JsonNode hypothesis = rca.get("primary_hypothesis");
-                    if (hypothesis.has("confidence")) {
-                        return hypothesis.get("confidence").asDouble();
-                    }
-                }
-            }
-            
-            // Look for confidence object
-            if (node.has("confidence")) {
-                JsonNode confidence = node.get("confidence");
-                if (confidence.isNumber()) {
-                    return confidence.asDouble();
-                }
-                if (confidence.has(scoreType)) {
-                    return confidence.get(scoreType).asDouble();
-                }
-                if (confidence.has("overall")) {
-                    return confidence.get("overall").asDouble();
-                }
-            }
-            
-            // Look for confidence_assessment
-            if (node.has("confidence_assessment")) {
-                JsonNode assessment = node.get("confidence_assessment");
-                if (assessment.has(scoreType)) {
-                    return assessment.get(scoreType).asDouble();
-                }
-            }
-            
+            return confidenceScore(objectMapper.readTree(agentResponse), scoreType);
         } catch (Exception e) {
             // Fallback to regex parsing
             Pattern pattern = Pattern.compile("\"" + scoreType + "\"\\s*:\\s*(\\d+(?:\\.\\d+)?)");
@@ -97,6 +118,43 @@ public class AgentUtils {
         
         return 0.0;
     }
+
+    private static double confidenceScore(JsonNode node, String scoreType) {
+        // Look for confidence in root_cause_analysis.primary_hypothesis (TriageAgent format)
+        if (node.has("root_cause_analysis")) {
+            JsonNode rca = node.get("root_cause_analysis");
+            if (rca.has("primary_hypothesis")) {
+                JsonNode hypothesis = rca.get("primary_hypothesis");
+                if (hypothesis.has("confidence")) {
+                    return hypothesis.get("confidence").asDouble();
+                }
+            }
+        }
+        
+        // Look for confidence object
+        if (node.has("confidence")) {
+            JsonNode confidence = node.get("confidence");
+            if (confidence.isNumber()) {
+                return confidence.asDouble();
+            }
+            if (confidence.has(scoreType)) {
+                return confidence.get(scoreType).asDouble();
+            }
+            if (confidence.has("overall")) {
+                return confidence.get("overall").asDouble();
+            }
+        }
+        
+        // Look for confidence_assessment
+        if (node.has("confidence_assessment")) {
+            JsonNode assessment = node.get("confidence_assessment");
+            if (assessment.has(scoreType)) {
+                return assessment.get(scoreType).asDouble();
+            }
+        }
+        
+        return 0.0;
+    }
     
     /**
      * Extract key findings from evidence analysis
@@ -107,17 +165,7 @@ public class AgentUtils {
         if (evidenceResponse == null) return findings;
         
         try {
-            JsonNode node = objectMapper.readTree(evidenceResponse);
-            
-            if (node.has("analysis") && node.get("analysis").has("key_findings")) {
-                JsonNode keyFindings = node.get("analysis").get("key_findings");
-                if (keyFindings.isArray()) {
-                    for (JsonNode finding : keyFindings) {
-                        findings.add(finding.asText());
-                    }
-                }
-            }
-            
+            return keyFindings(objectMapper.readTree(evidenceResponse));
         } catch (Exception e) {
             // Fallback: look for common patterns in text
             if (evidenceResponse.contains("key findings") || evidenceResponse.contains("Key findings")) {
@@ -137,6 +185,19 @@ public class AgentUtils {
         
         return findings;
     }
+
+    private static List<String> keyFindings(JsonNode node) {
+        List<String> findings = new ArrayList<>();
+        if (node.has("analysis") && node.get("analysis").has("key_findings")) {
+            JsonNode keyFindings = node.get("analysis").get("key_findings");
+            if (keyFindings.isArray()) {
+                for (JsonNode finding : keyFindings) {
+                    findings.add(finding.asText());
+                }
+            }
+        }
+        return findings;
+    }
     
     /**
      * Validate JSON structure of agent responses
@@ -187,16 +248,20 @@ public class AgentUtils {
      * Determine if incident requires immediate escalation
      */
     public static boolean requiresImmediateEscalation(String classificationJson, String evidenceResponse) {
-        String severity = extractSeverity(classificationJson);
-        double confidence = extractConfidenceScore(classificationJson, "overall");
-        
+        return requiresImmediateEscalation(parseClassification(classificationJson), parseEvidence(evidenceResponse).summary());
+    }
+
+    /**
+     * Determine if incident requires immediate escalation, from already-parsed agent outputs
+     */
+    public static boolean requiresImmediateEscalation(Classification classification, EvidenceSummary evidence) {
         // P1 incidents always require escalation
-        if ("P1".equals(severity)) {
+        if ("P1".equals(classification.severity())) {
             return true;
         }
         
         // High confidence P2 incidents during business hours
-        if ("P2".equals(severity) && confidence >= 8.0) {
+        if ("P2".equals(classification.severity()) && classification.confidence() >= 8.0) {
             int hour = java.time.LocalDateTime.now().getHour();
             if (hour >= 9 && hour < 17) {
                 return true;
@@ -204,15 +269,13 @@ public class AgentUtils {
         }
         
         // Check for high-risk keywords in evidence
-        if (evidenceResponse != null) {
-            String evidence = evidenceResponse.toLowerCase();
-            if (evidence.contains("security") || evidence.contains("breach") || 
-                evidence.contains("data loss") || evidence.contains("payment")) {
-                return true;
-            }
-        }
-        
-        return false;
+        return evidence != null && evidence.highRiskSignals();
+    }
+
+    private static boolean hasHighRiskSignals(String evidenceResponse) {
+        String evidence = evidenceResponse.toLowerCase();
+        return evidence.contains("security") || evidence.contains("breach") ||
+            evidence.contains("data loss") || evidence.contains("payment");
     }
     
     private static String extractServiceWithRegex(String classificationJson) {
@@ -265,43 +328,45 @@ public class AgentUtils {
      * Returns a String[2] = {logsJsonOrText, metricsJsonOrText}. Values may be null if absent.
      */
     public static String[] extractLogsAndMetrics(String evidenceResponse) {
-        String logs = null;
-        String metrics = null;
-
         if (evidenceResponse == null || evidenceResponse.isBlank()) {
             return new String[] { null, null };
         }
 
         try {
-            JsonNode node = objectMapper.readTree(evidenceResponse);
+            return logsAndMetrics(objectMapper.readTree(evidenceResponse));
+        } catch (Exception ignored) {
+            // Not JSON; can't split — return both nulls to let caller decide fallback
+            return new String[] { null, null };
+        }
+    }
 
-            // Prefer evidence_summary.logs/metrics if present
-            JsonNode summary = node.get("evidence_summary");
-            if (summary != null && summary.isObject()) {
-                if (summary.has("logs")) {
-                    JsonNode logsNode = summary.get("logs");
-                    logs = logsNode.isTextual() ? logsNode.asText() : logsNode.toString();
-                }
-                if (summary.has("metrics")) {
-                    JsonNode metricsNode = summary.get("metrics");
-                    metrics = metricsNode.isTextual() ? metricsNode.asText() : metricsNode.toString();
-                }
-            }
+    private static String[] logsAndMetrics(JsonNode node) {
+        String logs = null;
+        String metrics = null;
 
-            // Fallback to top-level fields
-            if (logs == null && node.has("logs")) {
-                JsonNode logsNode = node.get("logs");
+        // Prefer evidence_summary.logs/metrics if present
+        JsonNode summary = node.get("evidence_summary");
+        if (summary != null && summary.isObject()) {
+            if (summary.has("logs")) {
+                JsonNode logsNode = summary.get("logs");
                 logs = logsNode.isTextual() ? logsNode.asText() : logsNode.toString();
             }
-            if (metrics == null && node.has("metrics")) {
-                JsonNode metricsNode = node.get("metrics");
+            if (summary.has("metrics")) {
+                JsonNode metricsNode = summary.get("metrics");
                 metrics = metricsNode.isTextual() ? metricsNode.asText() : metricsNode.toString();
             }
+        }
 
-            return new String[] { logs, metrics };
-        } catch (Exception ignored) {
-            // Not JSON; can't split — return both nulls to let caller decide fallback
-            return new String[] { null, null };
+        // Fallback to top-level fields
+        if (logs == null && node.has("logs")) {
+            JsonNode logsNode = node.get("logs");
+            logs = logsNode.isTextual() ? logsNode.asText() : logsNode.toString();
+        }
+        if (metrics == null && node.has("metrics")) {
+            JsonNode metricsNode = node.get("metrics");
+            metrics = metricsNode.isTextual() ? metricsNode.asText() : metricsNode.toString();
         }
+
+        return new String[] { logs, metrics };
     }
 }
@@ -0,0 +1,115 @@
+package com.pradeepl.triage.application;
+
+import akka.javasdk.client.ComponentClient;
+import com.pradeepl.triage.domain.ArtifactRef;
+import com.pradeepl.triage.domain.TriageOutputs;
+import com.pradeepl.triage.domain.TriageState;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * ArtifactStore writes agent outputs to TriageArtifact entities and resolves ArtifactRefs back
+ * to text. Outputs small enough to be held by their reference are never written to an entity.
+ * Workflows stored before outputs were moved out of TriageState still carry the text inline;
+ * for those the inline value is returned without a lookup.
+ */
+public class ArtifactStore {
+
+    /**
+     * The agent outputs of a workflow as text, in the shape TriageState used to hold them.
+     */
+    public record Texts(
+        String classificationJson,
+        String evidenceLogs,
+        String evidenceMetrics,
+        String triageText,
+        String remediationText,
+        String summaryText,
+        String knowledgeBaseResult
+    ) {
+        public static Texts inline(TriageState s) {
+            return new Texts(s.classificationJson(), s.evidenceLogs(), s.evidenceMetrics(), s.triageText(),
+                    s.remediationText(), s.summaryText(), s.knowledgeBaseResult());
+        }
+    }
+
+    private final ComponentClient componentClient;
+
+    public ArtifactStore(ComponentClient componentClient) {
+        this.componentClient = componentClient;
+    }
+
+    /**
+     * Store the content, adding a reference to it, and return its reference, or null when
+     * there is no content.
+     */
+    public ArtifactRef store(String content) {
+        ArtifactRef ref = ArtifactRef.of(content);
+        if (ref != null && !ref.inline()) {
+            componentClient
+                .forKeyValueEntity(ref.hash())
+                .method(TriageArtifact::put)
+                .invoke(content);
+        }
+        return ref;
+    }
+
+    /**
+     * Release the references held by a deleted workflow's outputs, deleting the artifacts no
+     * other workflow references.
+     */
+    public CompletionStage<Void> release(TriageOutputs outputs) {
+        var releases = outputs.storedRefs().stream()
+            .map(ref -> componentClient
+                .forKeyValueEntity(ref.hash())
+                .method(TriageArtifact::release)
+                .invokeAsync()
+                .toCompletableFuture())
+            .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(releases);
+    }
+
+    /**
+     * Text of the referenced artifact, or the inline text when there is no reference.
+     */
+    public String load(ArtifactRef ref, String inline) {
+        return ref == null ? inline : loadAsync(ref, inline).join();
+    }
+
+    /**
+     * Resolve every output of the workflow, fetching the referenced artifacts concurrently.
+     */
+    public Texts resolve(TriageState s) {
+        return resolve(s.outputs(), Texts.inline(s));
+    }
+
+    /**
+     * Resolve the referenced outputs, keeping the inline text where there is no reference.
+     */
+    public Texts resolve(TriageOutputs outputs, Texts inline) {
+        var classification = loadAsync(outputs.classification(), inline.classificationJson());
+        var logs = loadAsync(outputs.evidenceLogs(), inline.evidenceLogs());
+        var metrics = loadAsync(outputs.evidenceMetrics(), inline.evidenceMetrics());
+        var triage = loadAsync(outputs.triage(), inline.triageText());
+        var remediation = loadAsync(outputs.remediation(), inline.remediationText());
+        var summary = loadAsync(outputs.summary(), inline.summaryText());
+        var knowledgeBase = loadAsync(outputs.knowledgeBase(), inline.knowledgeBaseResult());
+        return new Texts(classification.join(), logs.join(), metrics.join(), triage.join(),
+                remediation.join(), summary.join(), knowledgeBase.join());
+    }
+
+    private CompletableFuture<String> loadAsync(ArtifactRef ref, String inline) {
+        if (ref == null) {
+            return CompletableFuture.completedFuture(inline);
+        }
+        if (ref.inline()) {
+            return CompletableFuture.completedFuture(ref.text());
+        }
+        return componentClient
+            .forKeyValueEntity(ref.hash())
+            .method(TriageArtifact::get)
+            .invokeAsync()
+            .toCompletableFuture();
+    }
+}
@@ -0,0 +1,37 @@
+package com.pradeepl.triage.application;
+
+import com.typesafe.config.Config;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Settings for alert-storm coalescing, read from triage.coalescing.
+ */
+public record CoalescingSettings(
+    boolean enabled,
+    Duration window,
+    int maxDistance,
+    int shingleSize,
+    // How long a claimed primary may take to start its workflow before it counts as stale
+    Duration startGrace
+) {
+
+    public static CoalescingSettings fromConfig(Config config) {
+        String section = "triage.coalescing";
+        return new CoalescingSettings(
+            !config.hasPath(section + ".enabled") || config.getBoolean(section + ".enabled"),
+            config.hasPath(section + ".window") ? config.getDuration(section + ".window") : Duration.ofMinutes(10),
+            config.hasPath(section + ".max-distance") ? config.getInt(section + ".max-distance") : 6,
+            config.hasPath(section + ".shingle-size") ? config.getInt(section + ".shingle-size") : 3,
+            config.hasPath(section + ".start-grace") ? config.getDuration(section + ".start-grace") : Duration.ofSeconds(30)
+        );
+    }
+
+    /**
+     * Entity ID of the coalescing window containing the given instant.
+     */
+    public String windowId(Instant at) {
+        return "window-" + (at.getEpochSecond() / Math.max(1, window.toSeconds()));
+    }
+}
@@ -4,43 +4,203 @@ import akka.javasdk.annotations.Component;
 import akka.javasdk.keyvalueentity.KeyValueEntity;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.pradeepl.triage.domain.EvaluationResultsEntity;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * EvaluationMetrics stores queryable LLM evaluation metrics.
  *
  * This Key-Value Entity maintains:
- * - Evaluation results for toxicity and hallucination checks
- * - Pass/fail rates and confidence scores
- * - Detailed explanations for each evaluation
- * - Accessible via HTTP endpoints for monitoring dashboards
+ * - The most recent evaluation records in a fixed-size ring (RECENT_CAPACITY) for the
+ *   dashboard table; failure queries go to EvaluationResultsView, and a single workflow's
+ *   record is built from its EvaluationResultsEntity
+ * - Running totals of pass counts and confidence sums over all evaluations, updated
+ *   incrementally, so statistics cost the same however long the history is
+ * - Per-hour rollups of the records that have left the ring (the last MAX_HOURLY_ROLLUPS hours)
  *
- * Updated by TriageEvaluatorConsumer as evaluations complete.
+ * Updated by EvaluationMetricsConsumer as evaluations complete.
  */
 @Component(id="evaluation-metrics")
 public class EvaluationMetrics extends KeyValueEntity<EvaluationMetrics.MetricsState> {
 
+    // Evaluation records kept in full
+    static final int RECENT_CAPACITY = 500;
+    // Hourly rollups kept for records older than the ring (30 days)
+    static final int MAX_HOURLY_ROLLUPS = 720;
+    // Confidence recorded per evaluation, since the evaluators report no scores
+    static final double DEFAULT_CONFIDENCE = 0.85;
+
     /**
-     * State holding all evaluation metrics.
+     * State holding the evaluation metrics.
+     *
+     * recent is the ring of records, oldest first once it has wrapped at head; slots maps a
+     * workflow ID to its index in recent.
      */
     public record MetricsState(
-        List<EvaluationRecord> evaluations,
+        List<EvaluationRecord> recent,
+        int head,
+        Map<String, Integer> slots,
+        Counts totals,
+        // epoch hour -> counts of evicted records evaluated in that hour
+        Map<Long, Counts> hourly,
         LocalDateTime lastUpdated
     ) {
+        public MetricsState {
+            recent = recent != null ? recent : List.of();
+            slots = slots != null ? slots : Map.of();
+            totals = totals != null ? totals : Counts.ZERO;
+            hourly = hourly != null ? hourly : Map.of();
+            lastUpdated = lastUpdated != null ? lastUpdated : LocalDateTime.now();
+        }
+
+        /**
+         * Reads both the current shape and the earlier one, which kept every record in a single
+         * unbounded evaluations list; such state is folded into the ring and totals on load.
+         */
         @JsonCreator
-        public MetricsState(
-            @JsonProperty("evaluations") List<EvaluationRecord> evaluations,
-            @JsonProperty("lastUpdated") LocalDateTime lastUpdated
+        public static MetricsState fromJson(
+            @JsonProperty("recent") List<EvaluationRecord> recent,
+            @JsonProperty("head") int head,
+            @JsonProperty("slots") Map<String, Integer> slots,
+            @JsonProperty("totals") Counts totals,
+            @JsonProperty("hourly") Map<Long, Counts> hourly,
+            @JsonProperty("lastUpdated") LocalDateTime lastUpdated,
+            @JsonProperty("evaluations") List<EvaluationRecord> evaluations
         ) {
-            this.evaluations = evaluations != null ? evaluations : new ArrayList<>();
-            this.lastUpdated = lastUpdated != null ? lastUpdated : LocalDateTime.now();
+            if (recent == null && evaluations != null) {
+                var state = empty();
+                for (EvaluationRecord evaluation : evaluations) {
+                    state = state.record(evaluation);
+                }
+                return state;
+            }
+            return new MetricsState(recent, head, slots, totals, hourly, lastUpdated);
         }
 
         public static MetricsState empty() {
-            return new MetricsState(new ArrayList<>(), LocalDateTime.now());
+            return new MetricsState(List.of(), 0, Map.of(), Counts.ZERO, Map.of(), LocalDateTime.now());
+        }
+
+        /**
+         * Add or replace the record of a workflow. A record still in the ring is replaced in
+         * place and its old counts are taken out of the totals; when the ring is full the oldest
+         * record is evicted into its hourly rollup.
+         */
+        MetricsState record(EvaluationRecord evaluation) {
+            var ring = new ArrayList<>(recent);
+            var index = new HashMap<>(slots);
+            var rollups = hourly;
+            Counts counts = totals;
+
+            Integer existing = index.get(evaluation.workflowId());
+            int nextHead = head;
+            if (existing != null) {
+                counts = counts.minus(Counts.of(ring.get(existing)));
+                ring.set(existing, evaluation);
+            } else if (ring.size() < RECENT_CAPACITY) {
+                index.put(evaluation.workflowId(), ring.size());
+                ring.add(evaluation);
+            } else {
+                EvaluationRecord evicted = ring.get(head);
+                index.remove(evicted.workflowId());
+                rollups = rollUp(rollups, evicted);
+                ring.set(head, evaluation);
+                index.put(evaluation.workflowId(), head);
+                nextHead = (head + 1) % RECENT_CAPACITY;
+            }
+            counts = counts.plus(Counts.of(evaluation));
+
+            return new MetricsState(ring, nextHead, index, counts, rollups, LocalDateTime.now());
+        }
+
+        /**
+         * The records in the ring, oldest first.
+         */
+        public List<EvaluationRecord> inOrder() {
+            if (head == 0) {
+                return recent;
+            }
+            var ordered = new ArrayList<EvaluationRecord>(recent.size());
+            ordered.addAll(recent.subList(head, recent.size()));
+            ordered.addAll(recent.subList(0, head));
+            return ordered;
+        }
+
+        private static Map<Long, Counts> rollUp(Map<Long, Counts> hourly, EvaluationRecord evicted) {
+            var rollups = new TreeMap<>(hourly);
+            long hour = evicted.evaluatedAt() != null
+                ? evicted.evaluatedAt().toEpochSecond(ZoneOffset.UTC) / 3600
+                : 0L;
+            rollups.merge(hour, Counts.of(evicted), Counts::plus);
+            while (rollups.size() > MAX_HOURLY_ROLLUPS) {
+                rollups.pollFirstEntry();
+            }
+            return rollups;
+        }
+    }
+
+    /**
+     * Pass counts and confidence sums of a set of evaluation records.
+     */
+    public record Counts(
+        long evaluations,
+        long allChecksPassed,
+        long summaryToxicityPassed,
+        long remediationToxicityPassed,
+        long evidenceHallucinationPassed,
+        long triageHallucinationPassed,
+        long summaryHallucinationPassed,
+        double toxicityConfidenceSum,
+        double hallucinationConfidenceSum
+    ) {
+        public static final Counts ZERO = new Counts(0, 0, 0, 0, 0, 0, 0, 0.0, 0.0);
+
+        public static Counts of(EvaluationRecord e) {
+            boolean allPassed = e.summaryToxicityPassed() && e.remediationToxicityPassed()
+                && e.evidenceHallucinationPassed() && e.triageHallucinationPassed() && e.summaryHallucinationPassed();
+            return new Counts(
+                1,
+                allPassed ? 1 : 0,
+                e.summaryToxicityPassed() ? 1 : 0,
+                e.remediationToxicityPassed() ? 1 : 0,
+                e.evidenceHallucinationPassed() ? 1 : 0,
+                e.triageHallucinationPassed() ? 1 : 0,
+                e.summaryHallucinationPassed() ? 1 : 0,
+                e.toxicityConfidence(),
+                e.hallucinationConfidence());
+        }
+
+        public Counts plus(Counts o) {
+            return new Counts(
+                evaluations + o.evaluations,
+                allChecksPassed + o.allChecksPassed,
+                summaryToxicityPassed + o.summaryToxicityPassed,
+                remediationToxicityPassed + o.remediationToxicityPassed,
+                evidenceHallucinationPassed + o.evidenceHallucinationPassed,
+                triageHallucinationPassed + o.triageHallucinationPassed,
+                summaryHallucinationPassed + o.summaryHallucinationPassed,
+                toxicityConfidenceSum + o.toxicityConfidenceSum,
+                hallucinationConfidenceSum + o.hallucinationConfidenceSum);
+        }
+
+        public Counts minus(Counts o) {
+            return new Counts(
+                evaluations - o.evaluations,
+                allChecksPassed - o.allChecksPassed,
+                summaryToxicityPassed - o.summaryToxicityPassed,
+                remediationToxicityPassed - o.remediationToxicityPassed,
+                evidenceHallucinationPassed - o.evidenceHallucinationPassed,
+                triageHallucinationPassed - o.triageHallucinationPassed,
+                summaryHallucinationPassed - o.summaryHallucinationPassed,
+                toxicityConfidenceSum - o.toxicityConfidenceSum,
+                hallucinationConfidenceSum - o.hallucinationConfidenceSum);
         }
     }
 
@@ -89,6 +249,60 @@ public class EvaluationMetrics extends KeyValueEntity<EvaluationMetrics.MetricsS
             this.evaluatedAt = evaluatedAt;
             this.evaluationStatus = evaluationStatus;
         }
+
+        /**
+         * Aggregate the complete results of a workflow. A missing result is a check that did not
+         * apply (e.g. no summary on a fast-path pipeline), which has nothing to flag.
+         */
+        public static EvaluationRecord from(EvaluationResultsEntity.State state) {
+            return new EvaluationRecord(
+                state.workflowId(),
+                state.summaryToxicity() == null || state.summaryToxicity().passed(),
+                state.remediationToxicity() == null || state.remediationToxicity().passed(),
+                state.evidenceHallucination() == null || state.evidenceHallucination().passed(),
+                state.triageHallucination() == null || state.triageHallucination().passed(),
+                state.summaryHallucination() == null || state.summaryHallucination().passed(),
+                // The evaluators report no scores; a fixed confidence is recorded for now
+                DEFAULT_CONFIDENCE,
+                DEFAULT_CONFIDENCE,
+                toxicityExplanation(state),
+                hallucinationExplanation(state),
+                state.evaluatedAt(),
+                "COMPLETED"
+            );
+        }
+
+        private static String toxicityExplanation(EvaluationResultsEntity.State state) {
+            StringBuilder sb = new StringBuilder();
+
+            if (state.summaryToxicity() != null) {
+                sb.append("Summary: ").append(state.summaryToxicity().explanationText()).append("\n");
+            }
+
+            if (state.remediationToxicity() != null) {
+                sb.append("Remediation: ").append(state.remediationToxicity().explanationText()).append("\n");
+            }
+
+            return sb.length() > 0 ? sb.toString() : "No toxicity evaluations completed";
+        }
+
+        private static String hallucinationExplanation(EvaluationResultsEntity.State state) {
+            StringBuilder sb = new StringBuilder();
+
+            if (state.evidenceHallucination() != null) {
+                sb.append("Evidence: ").append(state.evidenceHallucination().explanationText()).append("\n");
+            }
+
+            if (state.triageHallucination() != null) {
+                sb.append("Triage: ").append(state.triageHallucination().explanationText()).append("\n");
+            }
+
+            if (state.summaryHallucination() != null) {
+                sb.append("Summary: ").append(state.summaryHallucination().explanationText()).append("\n");
+            }
+
+            return sb.length() > 0 ? sb.toString() : "No hallucination evaluations completed";
+        }
     }
 
     /**
@@ -97,9 +311,14 @@ public class EvaluationMetrics extends KeyValueEntity<EvaluationMetrics.MetricsS
     public record UpdateEvaluation(EvaluationRecord evaluation) {}
 
     /**
-     * Command to get all evaluations.
+     * The recent evaluation records, oldest first.
+     */
+    public record RecentEvaluations(List<EvaluationRecord> evaluations, LocalDateTime lastUpdated) {}
+
+    /**
+     * One hourly rollup of evaluations that have left the recent window.
      */
-    public record GetAllEvaluations() {}
+    public record HourlyRollup(LocalDateTime hour, Counts counts) {}
 
     public Effect<String> updateEvaluation(UpdateEvaluation cmd) {
         var state = currentState();
@@ -107,25 +326,38 @@ public class EvaluationMetrics extends KeyValueEntity<EvaluationMetrics.MetricsS
             state = MetricsState.empty();
         }
 
-        // Remove existing record if present
-        var evaluations = new ArrayList<>(state.evaluations());
-        evaluations.removeIf(e -> e.workflowId().equals(cmd.evaluation().workflowId()));
-
-        // Add updated record
-        evaluations.add(cmd.evaluation());
-
-        var newState = new MetricsState(evaluations, LocalDateTime.now());
-
         return effects()
-            .updateState(newState)
+            .updateState(state.record(cmd.evaluation()))
             .thenReply("Updated");
     }
 
-    public ReadOnlyEffect<MetricsState> getAllEvaluations() {
+    public ReadOnlyEffect<RecentEvaluations> getAllEvaluations() {
         var state = currentState();
         if (state == null) {
             state = MetricsState.empty();
         }
-        return effects().reply(state);
+        return effects().reply(new RecentEvaluations(state.inOrder(), state.lastUpdated()));
+    }
+
+    /**
+     * Running totals over every evaluation recorded.
+     */
+    public ReadOnlyEffect<Counts> getTotals() {
+        var state = currentState();
+        return effects().reply(state != null ? state.totals() : Counts.ZERO);
+    }
+
+    /**
+     * Hourly rollups of evaluations older than the recent window, oldest first.
+     */
+    public ReadOnlyEffect<List<HourlyRollup>> getHourlyRollups() {
+        var state = currentState();
+        if (state == null) {
+            return effects().reply(List.of());
+        }
+        var rollups = new TreeMap<>(state.hourly()).entrySet().stream()
+            .map(e -> new HourlyRollup(LocalDateTime.ofEpochSecond(e.getKey() * 3600, 0, ZoneOffset.UTC), e.getValue()))
+            .toList();
+        return effects().reply(rollups);
     }
 }
@@ -0,0 +1,106 @@
+package com.pradeepl.triage.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * EvaluationReservoir samples the completed workflows of one service in one hour for evaluation.
+ *
+ * One entity per service and hour (keyed by "{service}-hour-{epochHour}"). It keeps the
+ * capacity workflows with the lowest priority, a hash of the workflow ID (bottom-k sampling):
+ * every workflow of the hour ends up in the reservoir with the same probability, and quiet
+ * services get their evaluations instead of being drowned out by busy ones. The priority is
+ * derived from the workflow ID rather than drawn at random, so a redelivered offer is decided
+ * the same way as the first one.
+ *
+ * An evaluation that already ran cannot be taken back, so a replaced member has still been
+ * evaluated: the expected number of evaluations per service and hour is about
+ * capacity * (1 + ln(n / capacity)).
+ */
+@Component(id = "evaluation-reservoir")
+public class EvaluationReservoir extends KeyValueEntity<EvaluationReservoir.ReservoirState> {
+
+    public record ReservoirState(
+        long seen,
+        List<String> members
+    ) {
+        @JsonCreator
+        public ReservoirState(
+            @JsonProperty("seen") long seen,
+            @JsonProperty("members") List<String> members
+        ) {
+            this.seen = seen;
+            this.members = members != null ? members : List.of();
+        }
+
+        public static ReservoirState empty() {
+            return new ReservoirState(0, List.of());
+        }
+    }
+
+    // Commands
+
+    public record Offer(String workflowId, int capacity) {}
+
+    public static String reservoirId(String service, long epochHour) {
+        String name = service == null || service.isBlank() ? "unknown" : service.toLowerCase(Locale.ROOT);
+        return name + "-hour-" + epochHour;
+    }
+
+    /**
+     * Offer a workflow to the reservoir; replies whether it was taken (and should be evaluated).
+     * A workflow is taken while it ranks among the capacity lowest priorities offered so far.
+     */
+    public Effect<Boolean> offer(Offer cmd) {
+        var state = currentState() != null ? currentState() : ReservoirState.empty();
+
+        // Redelivered event for a workflow already taken
+        if (state.members().contains(cmd.workflowId())) {
+            return effects().reply(true);
+        }
+
+        long seen = state.seen() + 1;
+        var members = new ArrayList<>(state.members());
+        boolean taken;
+        if (members.size() < cmd.capacity()) {
+            members.add(cmd.workflowId());
+            taken = true;
+        } else {
+            int highest = 0;
+            for (int i = 1; i < members.size(); i++) {
+                if (Long.compareUnsigned(priority(members.get(i)), priority(members.get(highest))) > 0) {
+                    highest = i;
+                }
+            }
+            taken = !members.isEmpty()
+                && Long.compareUnsigned(priority(cmd.workflowId()), priority(members.get(highest))) < 0;
+            if (taken) {
+                members.set(highest, cmd.workflowId());
+            }
+        }
+
+        return effects()
+            .updateState(new ReservoirState(seen, members))
+            .thenReply(taken);
+    }
+
+    // Uniform 64-bit priority of a workflow; independent of the CRC32 bucket of the percentage sample
+    static long priority(String workflowId) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(workflowId.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
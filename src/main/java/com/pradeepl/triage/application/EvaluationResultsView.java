@@ -0,0 +1,131 @@
+package com.pradeepl.triage.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import com.pradeepl.triage.domain.EvaluationResultsEntity;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * EvaluationResultsView indexes the completed EvaluationResultsEntity of every workflow.
+ *
+ * Each row holds the pass flag of every check, an any-failure flag, the names of the failed
+ * checks and the evaluation time, so failure drill-downs are index queries instead of scans
+ * over a global list. List queries are paginated with page tokens (newest first); the failure
+ * stream serves consumers that want every failure without holding them all in memory.
+ *
+ * A check that did not run (no output to evaluate) counts as passed, as in EvaluationMetrics.
+ */
+@Component(id = "evaluation-results-view")
+public class EvaluationResultsView extends View {
+
+    public static final List<String> CHECKS = List.of(
+        "summary-toxicity", "remediation-toxicity", "evidence-hallucination", "triage-hallucination", "summary-hallucination");
+
+    public record EvaluationRow(
+        String workflowId,
+        boolean anyFailure,
+        boolean summaryToxicityPassed,
+        boolean remediationToxicityPassed,
+        boolean evidenceHallucinationPassed,
+        boolean triageHallucinationPassed,
+        boolean summaryHallucinationPassed,
+        List<String> failedChecks,
+        Instant evaluatedAt
+    ) {
+        static EvaluationRow of(EvaluationResultsEntity.State state) {
+            boolean summaryToxicity = state.summaryToxicity() == null || state.summaryToxicity().passed();
+            boolean remediationToxicity = state.remediationToxicity() == null || state.remediationToxicity().passed();
+            boolean evidenceHallucination = state.evidenceHallucination() == null || state.evidenceHallucination().passed();
+            boolean triageHallucination = state.triageHallucination() == null || state.triageHallucination().passed();
+            boolean summaryHallucination = state.summaryHallucination() == null || state.summaryHallucination().passed();
+
+            boolean[] passed = { summaryToxicity, remediationToxicity, evidenceHallucination, triageHallucination, summaryHallucination };
+            List<String> failed = new ArrayList<>();
+            for (int i = 0; i < passed.length; i++) {
+                if (!passed[i]) {
+                    failed.add(CHECKS.get(i));
+                }
+            }
+
+            Instant evaluatedAt = state.evaluatedAt() != null
+                ? state.evaluatedAt().atZone(ZoneId.systemDefault()).toInstant()
+                : Instant.now();
+            return new EvaluationRow(state.workflowId(), !failed.isEmpty(), summaryToxicity, remediationToxicity,
+                evidenceHallucination, triageHallucination, summaryHallucination, failed, evaluatedAt);
+        }
+    }
+
+    /**
+     * A page of a list query. An empty pageToken starts at the first page.
+     */
+    public record PageRequest(String pageToken, int pageSize) {}
+
+    public record CheckPageRequest(String check, String pageToken, int pageSize) {}
+
+    public record EvaluationPage(List<EvaluationRow> evaluations, String nextPageToken, boolean hasMore) {}
+
+    @Consume.FromKeyValueEntity(EvaluationResultsEntity.class)
+    public static class EvaluationResultsUpdater extends TableUpdater<EvaluationRow> {
+
+        public Effect<EvaluationRow> onUpdate(EvaluationResultsEntity.State state) {
+            // Rows appear once all results of the workflow are recorded
+            if (state == null || !state.isComplete()) {
+                return effects().ignore();
+            }
+            return effects().updateRow(EvaluationRow.of(state));
+        }
+    }
+
+    @Query("SELECT * FROM evaluation_results_view WHERE workflowId = :workflowId")
+    public QueryEffect<Optional<EvaluationRow>> getEvaluation(String workflowId) {
+        return queryResult();
+    }
+
+    @Query("""
+        SELECT * AS evaluations, next_page_token() AS nextPageToken, has_more() AS hasMore
+        FROM evaluation_results_view
+        ORDER BY evaluatedAt DESC
+        OFFSET page_token_offset(:pageToken) LIMIT :pageSize
+        """)
+    public QueryEffect<EvaluationPage> getEvaluations(PageRequest request) {
+        return queryResult();
+    }
+
+    @Query("""
+        SELECT * AS evaluations, next_page_token() AS nextPageToken, has_more() AS hasMore
+        FROM evaluation_results_view
+        WHERE anyFailure = true
+        ORDER BY evaluatedAt DESC
+        OFFSET page_token_offset(:pageToken) LIMIT :pageSize
+        """)
+    public QueryEffect<EvaluationPage> getFailures(PageRequest request) {
+        return queryResult();
+    }
+
+    /**
+     * Failures of one check, by the names in {@link #CHECKS}.
+     */
+    @Query("""
+        SELECT * AS evaluations, next_page_token() AS nextPageToken, has_more() AS hasMore
+        FROM evaluation_results_view
+        WHERE :check = ANY(failedChecks)
+        ORDER BY evaluatedAt DESC
+        OFFSET page_token_offset(:pageToken) LIMIT :pageSize
+        """)
+    public QueryEffect<EvaluationPage> getFailuresByCheck(CheckPageRequest request) {
+        return queryResult();
+    }
+
+    @Query("SELECT * FROM evaluation_results_view WHERE anyFailure = true ORDER BY evaluatedAt DESC")
+    public QueryStreamEffect<EvaluationRow> streamFailures() {
+        return queryStreamResult();
+    }
+}
@@ -0,0 +1,126 @@
+package com.pradeepl.triage.application;
+
+import com.typesafe.config.Config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * EvaluationSampling decides which completed workflows get LLM evaluations, read from
+ * triage.evaluation.
+ *
+ * A workflow is evaluated when sampling is disabled, when its severity is in always-evaluate,
+ * when its ID hashes into the sample-rate percentage, or when the per-service hourly reservoir
+ * (EvaluationReservoir) takes it. Both are derived from the workflow ID and the hour of the
+ * completion event, so redelivered events decide the same way. The lexical pre-screen (off
+ * unless triage.evaluation.prescreen.enabled) lets clear passes skip the LLM hallucination check.
+ *
+ * Created once in Bootstrap and injected into TriageEvaluatorConsumer. Node-local counters of
+ * the decisions are exposed through {@link #stats()}.
+ */
+public class EvaluationSampling {
+
+    public enum Reason { ALL, SEVERITY, PERCENTAGE, RESERVOIR, SKIPPED }
+
+    public record Stats(
+        Map<String, Long> decisions,
+        Map<String, Long> prescreen
+    ) {}
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final List<String> alwaysEvaluate;
+    private final int reservoirPerServiceHour;
+    private final boolean prescreenEnabled;
+    private final double prescreenPassAbove;
+    private final double prescreenFailBelow;
+
+    private final Map<Reason, LongAdder> decisions = new ConcurrentHashMap<>();
+    private final Map<LexicalPrescreen.Verdict, LongAdder> prescreenVerdicts = new ConcurrentHashMap<>();
+
+    public EvaluationSampling(boolean enabled, double sampleRate, List<String> alwaysEvaluate, int reservoirPerServiceHour,
+                              boolean prescreenEnabled, double prescreenPassAbove, double prescreenFailBelow) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.alwaysEvaluate = alwaysEvaluate;
+        this.reservoirPerServiceHour = reservoirPerServiceHour;
+        this.prescreenEnabled = prescreenEnabled;
+        this.prescreenPassAbove = prescreenPassAbove;
+        this.prescreenFailBelow = prescreenFailBelow;
+    }
+
+    public static EvaluationSampling fromConfig(Config config) {
+        String section = "triage.evaluation";
+        return new EvaluationSampling(
+            config.hasPath(section + ".sampling.enabled") && config.getBoolean(section + ".sampling.enabled"),
+            config.hasPath(section + ".sampling.sample-rate") ? config.getDouble(section + ".sampling.sample-rate") : 1.0,
+            config.hasPath(section + ".sampling.always-evaluate")
+                ? config.getStringList(section + ".sampling.always-evaluate").stream().map(s -> s.toUpperCase(Locale.ROOT)).toList()
+                : List.of("P1"),
+            config.hasPath(section + ".sampling.reservoir-per-service-hour") ? config.getInt(section + ".sampling.reservoir-per-service-hour") : 0,
+            config.hasPath(section + ".prescreen.enabled") && config.getBoolean(section + ".prescreen.enabled"),
+            config.hasPath(section + ".prescreen.pass-above") ? config.getDouble(section + ".prescreen.pass-above") : 0.6,
+            config.hasPath(section + ".prescreen.fail-below") ? config.getDouble(section + ".prescreen.fail-below") : 0.15
+        );
+    }
+
+    /**
+     * The decision that does not need the reservoir, or null when the reservoir decides.
+     */
+    public Reason preDecide(String workflowId, String severity) {
+        if (!enabled) {
+            return Reason.ALL;
+        }
+        if (severity != null && alwaysEvaluate.contains(severity.toUpperCase(Locale.ROOT))) {
+            return Reason.SEVERITY;
+        }
+        if (bucket(workflowId) < sampleRate) {
+            return Reason.PERCENTAGE;
+        }
+        return reservoirPerServiceHour > 0 ? null : Reason.SKIPPED;
+    }
+
+    public int reservoirPerServiceHour() {
+        return reservoirPerServiceHour;
+    }
+
+    public void recordDecision(Reason reason) {
+        decisions.computeIfAbsent(reason, r -> new LongAdder()).increment();
+    }
+
+    /**
+     * Pre-screen a hallucination check; ESCALATE when the pre-screen is disabled.
+     */
+    public LexicalPrescreen.Result prescreen(String answer, String reference) {
+        var result = prescreenEnabled
+            ? LexicalPrescreen.screen(answer, reference, prescreenPassAbove, prescreenFailBelow)
+            : LexicalPrescreen.Result.escalate();
+        prescreenVerdicts.computeIfAbsent(result.verdict(), v -> new LongAdder()).increment();
+        return result;
+    }
+
+    public Stats stats() {
+        Map<String, Long> decided = new LinkedHashMap<>();
+        for (Reason reason : Reason.values()) {
+            decided.put(reason.name(), decisions.containsKey(reason) ? decisions.get(reason).sum() : 0L);
+        }
+        Map<String, Long> screened = new LinkedHashMap<>();
+        for (LexicalPrescreen.Verdict verdict : LexicalPrescreen.Verdict.values()) {
+            screened.put(verdict.name(), prescreenVerdicts.containsKey(verdict) ? prescreenVerdicts.get(verdict).sum() : 0L);
+        }
+        return new Stats(decided, screened);
+    }
+
+    // Stable position of the workflow in [0, 1)
+    private static double bucket(String workflowId) {
+        CRC32 crc = new CRC32();
+        crc.update(workflowId.getBytes(StandardCharsets.UTF_8));
+        return (crc.getValue() % 10_000) / 10_000.0;
+    }
+}
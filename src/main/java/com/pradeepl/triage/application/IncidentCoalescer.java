@@ -0,0 +1,144 @@
+package com.pradeepl.triage.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * IncidentCoalescer remembers the fingerprints of incidents that started a triage workflow
+ * within one coalescing time window.
+ *
+ * One entity per window (keyed by "window-{index}"), so state stays small and old windows
+ * simply stop receiving traffic. TriageEndpoint asks the current and previous window
+ * whether an incoming incident is a near-duplicate of an already-running workflow.
+ */
+@Component(id = "incident-coalescer")
+public class IncidentCoalescer extends KeyValueEntity<IncidentCoalescer.WindowState> {
+
+    // Bound on primaries tracked per window; a storm produces few distinct incidents
+    private static final int MAX_PRIMARIES_PER_WINDOW = 1000;
+
+    /**
+     * An incident that started a workflow in this window.
+     */
+    public record Primary(
+        String triageId,
+        long fingerprint,
+        Instant firstSeen
+    ) {
+        @JsonCreator
+        public Primary(
+            @JsonProperty("triageId") String triageId,
+            @JsonProperty("fingerprint") long fingerprint,
+            @JsonProperty("firstSeen") Instant firstSeen
+        ) {
+            this.triageId = triageId;
+            this.fingerprint = fingerprint;
+            this.firstSeen = firstSeen;
+        }
+    }
+
+    public record WindowState(
+        List<Primary> primaries
+    ) {
+        @JsonCreator
+        public WindowState(
+            @JsonProperty("primaries") List<Primary> primaries
+        ) {
+            this.primaries = primaries != null ? primaries : new ArrayList<>();
+        }
+
+        public static WindowState empty() {
+            return new WindowState(new ArrayList<>());
+        }
+    }
+
+    // Commands
+
+    public record FindMatch(long fingerprint, int maxDistance) {}
+    public record Claim(String triageId, long fingerprint, int maxDistance) {}
+
+    /**
+     * Result of a lookup: either a match against a running primary (and when it was claimed),
+     * or none.
+     */
+    public record Match(boolean found, String primaryTriageId, int distance, Instant firstSeen) {
+        public static Match none() {
+            return new Match(false, null, -1, null);
+        }
+    }
+
+    /**
+     * Look for a near-duplicate primary without registering anything.
+     */
+    public ReadOnlyEffect<Match> findMatch(FindMatch cmd) {
+        var state = currentState();
+        if (state == null) {
+            return effects().reply(Match.none());
+        }
+        return effects().reply(closest(state, cmd.fingerprint(), cmd.maxDistance()));
+    }
+
+    /**
+     * Return the matching primary if there is one, otherwise register the caller as a new primary.
+     * Claims are serialized by the entity, so concurrent duplicates cannot both become primaries.
+     */
+    public Effect<Match> claim(Claim cmd) {
+        var state = currentState();
+        if (state == null) {
+            state = WindowState.empty();
+        }
+
+        var match = closest(state, cmd.fingerprint(), cmd.maxDistance());
+        if (match.found()) {
+            return effects().reply(match);
+        }
+
+        var primaries = new ArrayList<>(state.primaries());
+        primaries.removeIf(p -> p.triageId().equals(cmd.triageId()));
+        primaries.add(new Primary(cmd.triageId(), cmd.fingerprint(), Instant.now()));
+        if (primaries.size() > MAX_PRIMARIES_PER_WINDOW) {
+            primaries.remove(0);
+        }
+
+        return effects()
+            .updateState(new WindowState(primaries))
+            .thenReply(Match.none());
+    }
+
+    /**
+     * Forget a primary whose workflow is no longer running, so the next duplicate starts afresh.
+     */
+    public Effect<String> release(String triageId) {
+        var state = currentState();
+        if (state == null) {
+            return effects().reply("Window is empty");
+        }
+
+        var primaries = new ArrayList<>(state.primaries());
+        if (!primaries.removeIf(p -> p.triageId().equals(triageId))) {
+            return effects().reply("Primary not found: " + triageId);
+        }
+        return effects()
+            .updateState(new WindowState(primaries))
+            .thenReply("Released primary: " + triageId);
+    }
+
+    private static Match closest(WindowState state, long fingerprint, int maxDistance) {
+        Primary best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (Primary primary : state.primaries()) {
+            int distance = IncidentFingerprint.distance(primary.fingerprint(), fingerprint);
+            if (distance <= maxDistance && distance < bestDistance) {
+                best = primary;
+                bestDistance = distance;
+            }
+        }
+        return best == null ? Match.none() : new Match(true, best.triageId(), bestDistance, best.firstSeen());
+    }
+}
@@ -0,0 +1,100 @@
+package com.pradeepl.triage.application;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * IncidentFingerprint computes SimHash fingerprints of incident text for alert-storm coalescing.
+ *
+ * The text is normalized (lower-cased, timestamps/ids/numbers masked, whitespace collapsed),
+ * split into overlapping word shingles and folded into a 64-bit SimHash. Near-identical
+ * incidents produce fingerprints with a small Hamming distance.
+ */
+public class IncidentFingerprint {
+
+    // UUIDs, hex ids and any remaining digit runs (request ids, counts, ports, percentages)
+    private static final Pattern VOLATILE_TOKEN_PATTERN = Pattern.compile(
+        "\\b[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}\\b" +
+        "|\\b0x[0-9a-f]+\\b" +
+        "|\\d+"
+    );
+
+    private static final Pattern TOKEN_SPLIT_PATTERN = Pattern.compile("[^a-z0-9#<>_-]+");
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private IncidentFingerprint() {}
+
+    /**
+     * 64-bit SimHash over word shingles of the normalized incident text.
+     */
+    public static long simHash(String incident, int shingleSize) {
+        List<String> shingles = shingles(incident, shingleSize);
+        if (shingles.isEmpty()) {
+            return 0L;
+        }
+
+        int[] weights = new int[64];
+        for (String shingle : shingles) {
+            long hash = fnv1a64(shingle);
+            for (int bit = 0; bit < 64; bit++) {
+                weights[bit] += ((hash >>> bit) & 1L) == 1L ? 1 : -1;
+            }
+        }
+
+        long fingerprint = 0L;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Number of differing bits between two fingerprints.
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    static List<String> shingles(String incident, int shingleSize) {
+        String normalized = VOLATILE_TOKEN_PATTERN
+            .matcher(AgentResponseCache.normalize(incident).toLowerCase(Locale.ROOT))
+            .replaceAll("#");
+        String[] tokens = TOKEN_SPLIT_PATTERN.split(normalized.trim());
+
+        List<String> words = new ArrayList<>(tokens.length);
+        for (String token : tokens) {
+            if (!token.isEmpty()) {
+                words.add(token);
+            }
+        }
+
+        List<String> shingles = new ArrayList<>();
+        int size = Math.max(1, shingleSize);
+        if (words.size() < size) {
+            if (!words.isEmpty()) {
+                shingles.add(String.join(" ", words));
+            }
+            return shingles;
+        }
+        for (int i = 0; i + size <= words.size(); i++) {
+            shingles.add(String.join(" ", words.subList(i, i + size)));
+        }
+        return shingles;
+    }
+
+    private static long fnv1a64(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
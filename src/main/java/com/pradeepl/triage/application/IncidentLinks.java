@@ -0,0 +1,65 @@
+package com.pradeepl.triage.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.pradeepl.triage.domain.LinkedIncident;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * IncidentLinks holds the duplicates coalesced into one triage workflow.
+ *
+ * One entity per primary workflow (keyed by its triage ID). Kept outside the workflow so that
+ * linking never races with a running step overwriting workflow state. TriageWorkflow copies
+ * the links into TriageState when it finalizes, and TriageEndpoint merges them into the state view.
+ */
+@Component(id = "incident-links")
+public class IncidentLinks extends KeyValueEntity<IncidentLinks.LinksState> {
+
+    public record LinksState(
+        List<LinkedIncident> linked
+    ) {
+        @JsonCreator
+        public LinksState(
+            @JsonProperty("linked") List<LinkedIncident> linked
+        ) {
+            this.linked = linked != null ? linked : new ArrayList<>();
+        }
+
+        public static LinksState empty() {
+            return new LinksState(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Attach a duplicate incident. Re-linking the same triage ID is a no-op.
+     */
+    public Effect<String> link(LinkedIncident incident) {
+        var current = currentState();
+        if (current == null) {
+            current = LinksState.empty();
+        }
+
+        if (current.linked().stream().anyMatch(l -> l.triageId().equals(incident.triageId()))) {
+            return effects().reply("Already linked: " + incident.triageId());
+        }
+
+        List<LinkedIncident> updated = new ArrayList<>(current.linked());
+        updated.add(incident);
+
+        return effects()
+            .updateState(new LinksState(updated))
+            .thenReply("Linked incident: " + incident.triageId());
+    }
+
+    public ReadOnlyEffect<List<LinkedIncident>> getLinks() {
+        var current = currentState();
+        if (current == null) {
+            return effects().reply(List.of());
+        }
+        return effects().reply(current.linked());
+    }
+}
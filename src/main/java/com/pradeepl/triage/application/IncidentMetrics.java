@@ -6,6 +6,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.time.Instant;
+import java.util.Objects;
 
 /**
  * IncidentMetrics stores metrics for a single incident.
@@ -33,8 +34,11 @@ public class IncidentMetrics extends KeyValueEntity<IncidentMetrics.IncidentReco
         double overallConfidence,
         boolean requiresEscalation,
         int stepProgress,
+        int totalSteps,
         String assignedTeam,
-        boolean isActive
+        boolean isActive,
+        // What IncidentStats has counted for this incident; null until it is counted
+        IncidentStats.Contribution counted
     ) {
         @JsonCreator
         public IncidentRecord(
@@ -48,8 +52,10 @@ public class IncidentMetrics extends KeyValueEntity<IncidentMetrics.IncidentReco
             @JsonProperty("overallConfidence") double overallConfidence,
             @JsonProperty("requiresEscalation") boolean requiresEscalation,
             @JsonProperty("stepProgress") int stepProgress,
+            @JsonProperty("totalSteps") int totalSteps,
             @JsonProperty("assignedTeam") String assignedTeam,
-            @JsonProperty("isActive") boolean isActive
+            @JsonProperty("isActive") boolean isActive,
+            @JsonProperty("counted") IncidentStats.Contribution counted
         ) {
             this.incidentId = incidentId;
             this.status = status;
@@ -61,19 +67,125 @@ public class IncidentMetrics extends KeyValueEntity<IncidentMetrics.IncidentReco
             this.overallConfidence = overallConfidence;
             this.requiresEscalation = requiresEscalation;
             this.stepProgress = stepProgress;
+            // Records stored before pipeline profiles always had the full seven steps
+            this.totalSteps = totalSteps > 0 ? totalSteps : 7;
             this.assignedTeam = assignedTeam;
             this.isActive = isActive;
+            this.counted = counted;
+        }
+
+        /**
+         * Whether IncidentStats does not reflect this record yet.
+         */
+        public boolean statsPending() {
+            return !IncidentStats.Contribution.of(this).equals(counted);
+        }
+
+        /**
+         * Whether the two records show the same on the dashboard, ignoring their timestamps.
+         */
+        public boolean sameContent(IncidentRecord other) {
+            return other != null
+                && Objects.equals(incidentId, other.incidentId)
+                && Objects.equals(status, other.status)
+                && Objects.equals(service, other.service)
+                && Objects.equals(severity, other.severity)
+                && Objects.equals(title, other.title)
+                && overallConfidence == other.overallConfidence
+                && requiresEscalation == other.requiresEscalation
+                && stepProgress == other.stepProgress
+                && totalSteps == other.totalSteps
+                && Objects.equals(assignedTeam, other.assignedTeam)
+                && isActive == other.isActive;
+        }
+
+        public IncidentRecord withStartTime(Instant startTime) {
+            return new IncidentRecord(incidentId, status, service, severity, title, startTime, lastUpdate,
+                overallConfidence, requiresEscalation, stepProgress, totalSteps, assignedTeam, isActive, counted);
+        }
+
+        public IncidentRecord withCounted(IncidentStats.Contribution counted) {
+            return new IncidentRecord(incidentId, status, service, severity, title, startTime, lastUpdate,
+                overallConfidence, requiresEscalation, stepProgress, totalSteps, assignedTeam, isActive, counted);
+        }
+    }
+
+    /**
+     * The record before and after an update; previous is null for a new incident. When the
+     * update changed nothing the dashboard shows, current keeps the timestamps of previous.
+     * statsDelta is the change IncidentStats has not counted yet, claimed by this update, or
+     * null when the stats already reflect the record.
+     */
+    public record Transition(IncidentRecord previous, IncidentRecord current, IncidentStats.Delta statsDelta) {
+
+        /**
+         * Whether the update changed what the dashboard shows (the record is new or its content changed).
+         */
+        public boolean contentChanged() {
+            return previous == null || !previous.sameContent(current);
         }
     }
 
     /**
      * Update incident metrics.
-     * Simply replaces the entire state - no manual list management needed!
+     * Replaces the entire state and replies with the transition. The update also claims the
+     * change for IncidentStats: the stored record is marked as counted and the reply carries
+     * the delta, which the caller applies to IncidentStats (or hands back with releaseStats
+     * when that fails). Each change is claimed once, so a redelivered update claims nothing.
+     * An update that changes nothing the dashboard shows is not stored (unless it claims a
+     * delta); the incident keeps the start time of its first record.
      */
-    public Effect<String> updateIncident(IncidentRecord incident) {
+    public Effect<Transition> updateIncident(IncidentRecord incident) {
+        var previous = currentState();
+        if (incident.sameContent(previous)) {
+            return claim(previous, previous);
+        }
+
+        var updated = previous != null
+            ? incident.withStartTime(previous.startTime()).withCounted(previous.counted())
+            : incident.withCounted(null);
+        return claim(previous, updated);
+    }
+
+    /**
+     * Claim the change of this incident IncidentStats has not counted yet, without updating
+     * the record. Used by IncidentStatsBackfill for incidents recorded before the stats.
+     */
+    public Effect<Transition> claimStats() {
+        var current = currentState();
+        if (current == null) {
+            return effects().reply(new Transition(null, null, null));
+        }
+        return claim(current, current);
+    }
+
+    /**
+     * Hand back a claimed delta that could not be applied to IncidentStats, so the next update
+     * or backfill claims it again. Ignored when the incident has been claimed since.
+     */
+    public Effect<String> releaseStats(IncidentStats.Delta delta) {
+        var current = currentState();
+        if (current == null || !Objects.equals(current.counted(), delta.to())) {
+            return effects().reply("Not claimed");
+        }
+        return effects()
+            .updateState(current.withCounted(delta.from()))
+            .thenReply("Released");
+    }
+
+    private Effect<Transition> claim(IncidentRecord previous, IncidentRecord updated) {
+        IncidentStats.Delta delta = null;
+        if (updated.statsPending()) {
+            var contribution = IncidentStats.Contribution.of(updated);
+            delta = new IncidentStats.Delta(updated.incidentId(), updated.counted(), contribution);
+            updated = updated.withCounted(contribution);
+        }
+        if (updated.equals(previous)) {
+            return effects().reply(new Transition(previous, previous, null));
+        }
         return effects()
-            .updateState(incident)
-            .thenReply("Updated");
+            .updateState(updated)
+            .thenReply(new Transition(previous, updated, delta));
     }
 
     /**
@@ -6,6 +6,9 @@ import akka.javasdk.annotations.Query;
 import akka.javasdk.view.TableUpdater;
 import akka.javasdk.view.View;
 
+import java.time.Instant;
+import java.util.List;
+
 /**
  * IncidentMetricsView provides queryable view of all incidents for dashboards.
  *
@@ -13,10 +16,39 @@ import akka.javasdk.view.View;
  * Supports filtering by service, severity, status, etc.
  *
  * This is the recommended pattern for querying across multiple entities.
+ *
+ * The page queries use keyset (cursor) pagination on (lastUpdate, incidentId): each page
+ * starts strictly after the last row of the previous one, so a page costs the same however
+ * deep into the history it is, and rows inserted or deleted meanwhile do not shift the pages
+ * the way an offset would. lastUpdate changes whenever an incident is updated, though, which
+ * moves the row to the newest end: a row updated after it was passed is skipped by a
+ * newest-first listing and shows up again at the end of an oldest-first one. Use
+ * {@link #getIncidentsById} to list each incident exactly once. Newest-first and oldest-first
+ * variants exist for every listing; the first page of a newest-first listing starts at
+ * {@link #LATEST}, of an oldest-first one at {@link #EARLIEST}.
  */
 @Component(id = "incident-metrics-view")
 public class IncidentMetricsView extends View {
 
+    public static final Instant LATEST = Instant.parse("9999-12-31T23:59:59Z");
+    public static final Instant EARLIEST = Instant.EPOCH;
+
+    /**
+     * Position after which a page starts, and the number of rows to return.
+     */
+    public record Page(Instant cursorTime, String cursorId, int limit) {}
+
+    /**
+     * Incident ID after which a page starts, and the number of rows to return.
+     */
+    public record IdPage(String cursorId, int limit) {}
+
+    public record ServicePage(String service, Instant cursorTime, String cursorId, int limit) {}
+
+    public record SeverityPage(String severity, Instant cursorTime, String cursorId, int limit) {}
+
+    public record IncidentRows(List<IncidentMetrics.IncidentRecord> incidents) {}
+
     @Consume.FromKeyValueEntity(IncidentMetrics.class)
     public static class IncidentMetricsUpdater extends TableUpdater<IncidentMetrics.IncidentRecord> {
         
@@ -33,6 +65,20 @@ public class IncidentMetricsView extends View {
         return queryStreamResult();
     }
 
+    /**
+     * All incidents in incident ID order, a page at a time; a page starts strictly after the
+     * last ID of the previous one ("" for the first page).
+     */
+    @Query("""
+        SELECT * AS incidents FROM incident_metrics_view
+        WHERE incidentId > :cursorId
+        ORDER BY incidentId ASC
+        LIMIT :limit
+        """)
+    public QueryEffect<IncidentRows> getIncidentsById(IdPage page) {
+        return queryResult();
+    }
+
     @Query("SELECT * FROM incident_metrics_view WHERE isActive = true")
     public QueryStreamEffect<IncidentMetrics.IncidentRecord> getActiveIncidents() {
         return queryStreamResult();
@@ -48,6 +94,96 @@ public class IncidentMetricsView extends View {
         return queryStreamResult();
     }
 
+    // Page queries, newest first
+
+    @Query("""
+        SELECT * AS incidents FROM incident_metrics_view
+        WHERE lastUpdate < :cursorTime OR (lastUpdate = :cursorTime AND incidentId < :cursorId)
+        ORDER BY lastUpdate DESC, incidentId DESC
+        LIMIT :limit
+        """)
+    public QueryEffect<IncidentRows> getIncidentsPage(Page page) {
+        return queryResult();
+    }
+
+    @Query("""
+        SELECT * AS incidents FROM incident_metrics_view
+        WHERE isActive = true
+          AND (lastUpdate < :cursorTime OR (lastUpdate = :cursorTime AND incidentId < :cursorId))
+        ORDER BY lastUpdate DESC, incidentId DESC
+        LIMIT :limit
+        """)
+    public QueryEffect<IncidentRows> getActiveIncidentsPage(Page page) {
+        return queryResult();
+    }
+
+    @Query("""
+        SELECT * AS incidents FROM incident_metrics_view
+        WHERE service = :service
+          AND (lastUpdate < :cursorTime OR (lastUpdate = :cursorTime AND incidentId < :cursorId))
+        ORDER BY lastUpdate DESC, incidentId DESC
+        LIMIT :limit
+        """)
+    public QueryEffect<IncidentRows> getIncidentsByServicePage(ServicePage page) {
+        return queryResult();
+    }
+
+    @Query("""
+        SELECT * AS incidents FROM incident_metrics_view
+        WHERE severity = :severity
+          AND (lastUpdate < :cursorTime OR (lastUpdate = :cursorTime AND incidentId < :cursorId))
+        ORDER BY lastUpdate DESC, incidentId DESC
+        LIMIT :limit
+        """)
+    public QueryEffect<IncidentRows> getIncidentsBySeverityPage(SeverityPage page) {
+        return queryResult();
+    }
+
+    // Page queries, oldest first
+
+    @Query("""
+        SELECT * AS incidents FROM incident_metrics_view
+        WHERE lastUpdate > :cursorTime OR (lastUpdate = :cursorTime AND incidentId > :cursorId)
+        ORDER BY lastUpdate ASC, incidentId ASC
+        LIMIT :limit
+        """)
+    public QueryEffect<IncidentRows> getIncidentsPageAscending(Page page) {
+        return queryResult();
+    }
+
+    @Query("""
+        SELECT * AS incidents FROM incident_metrics_view
+        WHERE isActive = true
+          AND (lastUpdate > :cursorTime OR (lastUpdate = :cursorTime AND incidentId > :cursorId))
+        ORDER BY lastUpdate ASC, incidentId ASC
+        LIMIT :limit
+        """)
+    public QueryEffect<IncidentRows> getActiveIncidentsPageAscending(Page page) {
+        return queryResult();
+    }
+
+    @Query("""
+        SELECT * AS incidents FROM incident_metrics_view
+        WHERE service = :service
+          AND (lastUpdate > :cursorTime OR (lastUpdate = :cursorTime AND incidentId > :cursorId))
+        ORDER BY lastUpdate ASC, incidentId ASC
+        LIMIT :limit
+        """)
+    public QueryEffect<IncidentRows> getIncidentsByServicePageAscending(ServicePage page) {
+        return queryResult();
+    }
+
+    @Query("""
+        SELECT * AS incidents FROM incident_metrics_view
+        WHERE severity = :severity
+          AND (lastUpdate > :cursorTime OR (lastUpdate = :cursorTime AND incidentId > :cursorId))
+        ORDER BY lastUpdate ASC, incidentId ASC
+        LIMIT :limit
+        """)
+    public QueryEffect<IncidentRows> getIncidentsBySeverityPageAscending(SeverityPage page) {
+        return queryResult();
+    }
+
     @Query("SELECT * FROM incident_metrics_view WHERE severity = 'P1' AND isActive = true")
     public QueryStreamEffect<IncidentMetrics.IncidentRecord> getCriticalIncidents() {
         return queryStreamResult();
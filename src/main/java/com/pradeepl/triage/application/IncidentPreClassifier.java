@@ -0,0 +1,66 @@
+package com.pradeepl.triage.application;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * IncidentPreClassifier assigns an admission severity to an incoming incident from keywords
+ * in its text, without an LLM call.
+ *
+ * It only decides which admission pool and queue an incident waits in; the workflow's
+ * ClassifierAgent still determines the severity used for triage. The rules mirror the
+ * classifier's scale: P1 critical outage, P2 major degradation, P3 minor issues, P4 cosmetic.
+ * The first matching level wins, checked from P1 down; incidents matching nothing are P3.
+ * P1 and P2 terms are phrases of broad impact: a lone "down", "critical" or "timeout" appears
+ * in most alerts whatever their severity, so only the phrases that name a full outage count.
+ */
+public final class IncidentPreClassifier {
+
+    private static final List<String> P1_TERMS = List.of(
+        "outage", "is down", "are down", "went down", "completely down", "completely unavailable",
+        "entirely unavailable", "not responding", "data loss", "security breach", "all users",
+        "all customers", "sev1", "sev-1", "p1");
+    private static final List<String> P2_TERMS = List.of(
+        "degraded", "degradation", "high error rate", "elevated error rate", "error rate spike",
+        "5xx", "503", "high latency", "elevated latency", "latency spike", "failing",
+        "sev2", "sev-2", "p2");
+    private static final List<String> P4_TERMS = List.of(
+        "cosmetic", "typo", "misaligned", "styling", "ui glitch", "documentation",
+        "feature request", "sev4", "sev-4", "p4");
+
+    private IncidentPreClassifier() {}
+
+    public static String severity(String incident) {
+        if (incident == null || incident.isBlank()) {
+            return "P3";
+        }
+        String text = incident.toLowerCase(Locale.ROOT);
+        if (containsAny(text, P1_TERMS)) {
+            return "P1";
+        }
+        if (containsAny(text, P2_TERMS)) {
+            return "P2";
+        }
+        if (containsAny(text, P4_TERMS)) {
+            return "P4";
+        }
+        return "P3";
+    }
+
+    private static boolean containsAny(String text, List<String> terms) {
+        for (String term : terms) {
+            int at = text.indexOf(term);
+            while (at >= 0) {
+                // Whole words only, so "download" does not read as "down"
+                int end = at + term.length();
+                boolean startOk = at == 0 || !Character.isLetterOrDigit(text.charAt(at - 1));
+                boolean endOk = end == text.length() || !Character.isLetterOrDigit(text.charAt(end));
+                if (startOk && endOk) {
+                    return true;
+                }
+                at = text.indexOf(term, at + 1);
+            }
+        }
+        return false;
+    }
+}
@@ -1,46 +1,296 @@
 package com.pradeepl.triage.application;
 
+import akka.javasdk.JsonMigration;
 import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Migration;
 import akka.javasdk.keyvalueentity.KeyValueEntity;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 /**
- * IncidentRegistry maintains a central list of all incidents.
+ * IncidentRegistry maintains the incidents shown on the dashboard.
  *
- * Single entity (ID="global") that holds all incidents in memory.
- * Simple to query - just get the list, no streaming complexity.
+ * Sharded by incident ID hash: each shard is one entity (ID="shard-{n}") holding its incidents
+ * keyed by incident ID, plus secondary indexes by service, severity and active flag.
+ * Updates touch a single shard and a constant number of index buckets; reads query every
+ * shard and merge the results. Each shard keeps at most max-incidents-per-shard incidents:
+ * past it the least recently updated resolved incidents are evicted first, then the least
+ * recently updated active ones, so a shard stays bounded however long the registry runs.
  *
- * Perfect for dashboards with reasonable incident counts (< 10,000).
+ * Optional: the dashboard reads IncidentMetricsView, and IncidentMetricsConsumer only
+ * maintains the registry when triage.incident-registry.enabled is set.
+ *
+ * Before sharding, the registry was a single entity (ID="global") holding a list of incidents.
+ * RegistryStateMigration reads that list into the current state shape, and
+ * IncidentRegistryMigration moves its incidents into their shards once.
  */
 @Component(id = "incident-registry")
 public class IncidentRegistry extends KeyValueEntity<IncidentRegistry.RegistryState> {
 
+    // Changing this re-homes incidents to different shards; only change it on an empty registry
+    public static final int SHARD_COUNT = 16;
+
+    // The unsharded registry entity, only read to migrate its incidents into the shards
+    public static final String LEGACY_ENTITY_ID = "global";
+
+    /**
+     * Shard entity ID owning the given incident.
+     */
+    public static String shardIdFor(String incidentId) {
+        return "shard-" + Math.floorMod(incidentId.hashCode(), SHARD_COUNT);
+    }
+
+    /**
+     * All shard entity IDs, for fan-out reads.
+     */
+    public static List<String> allShardIds() {
+        return IntStream.range(0, SHARD_COUNT).mapToObj(i -> "shard-" + i).toList();
+    }
+
     /**
-     * State holds the list of all incidents.
+     * State holds this shard's incidents and their secondary indexes.
+     * Index keys are lower-cased so lookups stay case-insensitive.
      */
+    @Migration(RegistryStateMigration.class)
     public record RegistryState(
-        List<IncidentMetrics.IncidentRecord> incidents
+        Map<String, IncidentMetrics.IncidentRecord> incidents,
+        Map<String, Set<String>> byService,
+        Map<String, Set<String>> bySeverity,
+        Set<String> activeIds
     ) {
         @JsonCreator
         public RegistryState(
-            @JsonProperty("incidents") List<IncidentMetrics.IncidentRecord> incidents
+            @JsonProperty("incidents") Map<String, IncidentMetrics.IncidentRecord> incidents,
+            @JsonProperty("byService") Map<String, Set<String>> byService,
+            @JsonProperty("bySeverity") Map<String, Set<String>> bySeverity,
+            @JsonProperty("activeIds") Set<String> activeIds
         ) {
-            this.incidents = incidents != null ? incidents : new ArrayList<>();
+            this.incidents = incidents != null ? incidents : new LinkedHashMap<>();
+            this.byService = byService != null ? byService : new HashMap<>();
+            this.bySeverity = bySeverity != null ? bySeverity : new HashMap<>();
+            this.activeIds = activeIds != null ? activeIds : new HashSet<>();
         }
 
         public static RegistryState empty() {
-            return new RegistryState(new ArrayList<>());
+            return new RegistryState(new LinkedHashMap<>(), new HashMap<>(), new HashMap<>(), new HashSet<>());
+        }
+
+        /*
+         * Writes return a new state and leave this one unchanged: the incident map, the active
+         * set and the outer index maps are copied once per write, index buckets only when an
+         * incident moves in or out of them. Incidents are kept in update order, least recently
+         * updated first, which is the order they are evicted in.
+         */
+
+        /**
+         * Insert or replace the incident.
+         */
+        public RegistryState upsert(IncidentMetrics.IncidentRecord incident) {
+            return upsertAll(List.of(incident), Integer.MAX_VALUE);
+        }
+
+        /**
+         * Insert or replace the incidents, then evict the least recently updated ones beyond
+         * maxIncidents, resolved incidents before active ones.
+         */
+        public RegistryState upsertAll(List<IncidentMetrics.IncidentRecord> updates, int maxIncidents) {
+            var updated = copy();
+            for (var incident : updates) {
+                updated.put(incident);
+            }
+            updated.evictBeyond(maxIncidents);
+            return updated;
+        }
+
+        /**
+         * Remove the incident and its index entries.
+         */
+        public RegistryState remove(String incidentId) {
+            if (!incidents.containsKey(incidentId)) {
+                return this;
+            }
+            var updated = copy();
+            updated.delete(incidentId);
+            return updated;
+        }
+
+        private RegistryState copy() {
+            return new RegistryState(new LinkedHashMap<>(incidents), new HashMap<>(byService),
+                new HashMap<>(bySeverity), new HashSet<>(activeIds));
+        }
+
+        // Only called on a copy: moves the incident to the most recently updated end, and
+        // between index buckets only if its service, severity or active flag changed
+        private void put(IncidentMetrics.IncidentRecord incident) {
+            String id = incident.incidentId();
+            var previous = incidents.remove(id);
+            incidents.put(id, incident);
+
+            String service = indexKey(incident.service());
+            String severity = indexKey(incident.severity());
+            if (previous == null || !service.equals(indexKey(previous.service()))) {
+                if (previous != null) {
+                    unindex(byService, indexKey(previous.service()), id);
+                }
+                index(byService, service, id);
+            }
+            if (previous == null || !severity.equals(indexKey(previous.severity()))) {
+                if (previous != null) {
+                    unindex(bySeverity, indexKey(previous.severity()), id);
+                }
+                index(bySeverity, severity, id);
+            }
+            if (incident.isActive()) {
+                activeIds.add(id);
+            } else {
+                activeIds.remove(id);
+            }
+        }
+
+        // Only called on a copy
+        private void delete(String incidentId) {
+            var previous = incidents.remove(incidentId);
+            if (previous == null) {
+                return;
+            }
+            unindex(byService, indexKey(previous.service()), incidentId);
+            unindex(bySeverity, indexKey(previous.severity()), incidentId);
+            activeIds.remove(incidentId);
+        }
+
+        // Only called on a copy
+        private void evictBeyond(int maxIncidents) {
+            int excess = incidents.size() - maxIncidents;
+            if (excess <= 0) {
+                return;
+            }
+            var evicted = new ArrayList<String>(excess);
+            for (String id : incidents.keySet()) {
+                if (evicted.size() == excess) {
+                    break;
+                }
+                if (!activeIds.contains(id)) {
+                    evicted.add(id);
+                }
+            }
+            // Not enough resolved incidents: the least recently updated active ones go too
+            for (String id : incidents.keySet()) {
+                if (evicted.size() == excess) {
+                    break;
+                }
+                if (activeIds.contains(id)) {
+                    evicted.add(id);
+                }
+            }
+            evicted.forEach(this::delete);
+        }
+
+        List<IncidentMetrics.IncidentRecord> lookup(Set<String> ids) {
+            if (ids == null || ids.isEmpty()) {
+                return List.of();
+            }
+            List<IncidentMetrics.IncidentRecord> result = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                var incident = incidents.get(id);
+                if (incident != null) {
+                    result.add(incident);
+                }
+            }
+            return result;
+        }
+
+        // Buckets may be shared with the state this one was copied from, so they are replaced
+        // rather than changed
+        private static void index(Map<String, Set<String>> index, String key, String incidentId) {
+            var bucket = index.get(key);
+            var updated = bucket != null ? new HashSet<>(bucket) : new HashSet<String>();
+            updated.add(incidentId);
+            index.put(key, updated);
+        }
+
+        private static void unindex(Map<String, Set<String>> index, String key, String incidentId) {
+            var bucket = index.get(key);
+            if (bucket == null || !bucket.contains(incidentId)) {
+                return;
+            }
+            if (bucket.size() == 1) {
+                index.remove(key);
+                return;
+            }
+            var updated = new HashSet<>(bucket);
+            updated.remove(incidentId);
+            index.put(key, updated);
+        }
+
+        private static String indexKey(String value) {
+            return value == null ? "" : value.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Reads the unsharded state, {"incidents": [record, ...]}, as a map keyed by incident ID
+     * with its indexes built. Sharded states written before versioning already have the map.
+     */
+    public static class RegistryStateMigration extends JsonMigration {
+
+        @Override
+        public int currentVersion() {
+            return 1;
+        }
+
+        @Override
+        public JsonNode transform(int fromVersion, JsonNode json) {
+            if (fromVersion > 0 || !json.path("incidents").isArray()) {
+                return json;
+            }
+            var nodes = JsonNodeFactory.instance;
+            ObjectNode incidents = nodes.objectNode();
+            ObjectNode byService = nodes.objectNode();
+            ObjectNode bySeverity = nodes.objectNode();
+            ArrayNode activeIds = nodes.arrayNode();
+            for (JsonNode incident : json.get("incidents")) {
+                String id = incident.path("incidentId").asText();
+                if (incidents.has(id)) {
+                    continue;
+                }
+                incidents.set(id, incident);
+                indexNode(byService, incident.path("service"), id);
+                indexNode(bySeverity, incident.path("severity"), id);
+                if (incident.path("isActive").asBoolean(false)) {
+                    activeIds.add(id);
+                }
+            }
+            ObjectNode migrated = nodes.objectNode();
+            migrated.set("incidents", incidents);
+            migrated.set("byService", byService);
+            migrated.set("bySeverity", bySeverity);
+            migrated.set("activeIds", activeIds);
+            return migrated;
+        }
+
+        private static void indexNode(ObjectNode index, JsonNode value, String incidentId) {
+            String key = value.isTextual() ? value.asText().toLowerCase(Locale.ROOT) : "";
+            var bucket = index.has(key) ? (ArrayNode) index.get(key) : index.putArray(key);
+            bucket.add(incidentId);
         }
     }
 
     /**
-     * Add or update an incident in the registry.
-     * If incident already exists (by incidentId), update it.
-     * Otherwise, add it to the list.
+     * Add or update an incident in this shard.
      */
     public Effect<String> updateIncident(IncidentMetrics.IncidentRecord incident) {
         var current = currentState();
@@ -48,32 +298,83 @@ public class IncidentRegistry extends KeyValueEntity<IncidentRegistry.RegistrySt
             current = RegistryState.empty();
         }
 
-        // Create mutable copy of the list
-        List<IncidentMetrics.IncidentRecord> updatedList = new ArrayList<>(current.incidents());
+        return effects()
+            .updateState(current.upsert(incident))
+            .thenReply("Updated incident: " + incident.incidentId());
+    }
 
-        // Remove existing incident if present
-        updatedList.removeIf(i -> i.incidentId().equals(incident.incidentId()));
+    /**
+     * Incidents to add or update in one shard, and the most incidents the shard keeps.
+     */
+    public record Update(List<IncidentMetrics.IncidentRecord> incidents, int maxIncidents) {}
 
-        // Add the new/updated incident
-        updatedList.add(incident);
+    /**
+     * Add or update several incidents of this shard with one state update, evicting the least
+     * recently updated incidents beyond the shard's limit.
+     */
+    public Effect<String> updateIncidents(Update cmd) {
+        var current = currentState();
+        if (current == null) {
+            current = RegistryState.empty();
+        }
 
-        var newState = new RegistryState(updatedList);
+        return effects()
+            .updateState(current.upsertAll(cmd.incidents(), cmd.maxIncidents()))
+            .thenReply("Updated " + cmd.incidents().size() + " incidents");
+    }
+
+    /**
+     * Add incidents migrated from the legacy registry. An incident the shard already holds is
+     * only replaced when the migrated record is newer.
+     */
+    public Effect<String> mergeIncidents(List<IncidentMetrics.IncidentRecord> incidents) {
+        var current = currentState();
+        if (current == null) {
+            current = RegistryState.empty();
+        }
+
+        var merged = new ArrayList<IncidentMetrics.IncidentRecord>();
+        for (var incident : incidents) {
+            var existing = current.incidents().get(incident.incidentId());
+            if (existing == null || isNewer(incident, existing)) {
+                merged.add(incident);
+            }
+        }
+        if (merged.isEmpty()) {
+            return effects().reply("Merged 0 incidents");
+        }
 
         return effects()
-            .updateState(newState)
-            .thenReply("Updated incident: " + incident.incidentId());
+            .updateState(current.upsertAll(merged, Integer.MAX_VALUE))
+            .thenReply("Merged " + merged.size() + " incidents");
     }
 
     /**
-     * Get all incidents.
-     * Simple - just return the list!
+     * Drop the legacy registry once its incidents are in the shards.
+     */
+    public Effect<String> deleteRegistry() {
+        if (currentState() == null) {
+            return effects().reply("Registry is empty");
+        }
+        return effects()
+            .deleteEntity()
+            .thenReply("Deleted registry");
+    }
+
+    private static boolean isNewer(IncidentMetrics.IncidentRecord incident, IncidentMetrics.IncidentRecord existing) {
+        return incident.lastUpdate() != null
+            && (existing.lastUpdate() == null || incident.lastUpdate().isAfter(existing.lastUpdate()));
+    }
+
+    /**
+     * Get all incidents in this shard.
      */
     public ReadOnlyEffect<List<IncidentMetrics.IncidentRecord>> getAllIncidents() {
         var current = currentState();
         if (current == null) {
             return effects().reply(List.of());
         }
-        return effects().reply(current.incidents());
+        return effects().reply(List.copyOf(current.incidents().values()));
     }
 
     /**
@@ -84,12 +385,7 @@ public class IncidentRegistry extends KeyValueEntity<IncidentRegistry.RegistrySt
         if (current == null) {
             return effects().reply(List.of());
         }
-
-        var activeIncidents = current.incidents().stream()
-            .filter(IncidentMetrics.IncidentRecord::isActive)
-            .toList();
-
-        return effects().reply(activeIncidents);
+        return effects().reply(current.lookup(current.activeIds()));
     }
 
     /**
@@ -100,12 +396,7 @@ public class IncidentRegistry extends KeyValueEntity<IncidentRegistry.RegistrySt
         if (current == null) {
             return effects().reply(List.of());
         }
-
-        var filtered = current.incidents().stream()
-            .filter(i -> service.equalsIgnoreCase(i.service()))
-            .toList();
-
-        return effects().reply(filtered);
+        return effects().reply(current.lookup(current.byService().get(RegistryState.indexKey(service))));
     }
 
     /**
@@ -116,16 +407,12 @@ public class IncidentRegistry extends KeyValueEntity<IncidentRegistry.RegistrySt
         if (current == null) {
             return effects().reply(List.of());
         }
-
-        var filtered = current.incidents().stream()
-            .filter(i -> severity.equalsIgnoreCase(i.severity()))
-            .toList();
-
-        return effects().reply(filtered);
+        return effects().reply(current.lookup(current.bySeverity().get(RegistryState.indexKey(severity))));
     }
 
     /**
      * Get critical incidents (P1 or requiring escalation).
+     * Scans only the active index, which stays small compared to the shard.
      */
     public ReadOnlyEffect<List<IncidentMetrics.IncidentRecord>> getCriticalIncidents() {
         var current = currentState();
@@ -133,16 +420,15 @@ public class IncidentRegistry extends KeyValueEntity<IncidentRegistry.RegistrySt
             return effects().reply(List.of());
         }
 
-        var critical = current.incidents().stream()
-            .filter(i -> i.isActive() &&
-                        ("P1".equalsIgnoreCase(i.severity()) || i.requiresEscalation()))
+        var critical = current.lookup(current.activeIds()).stream()
+            .filter(i -> "P1".equalsIgnoreCase(i.severity()) || i.requiresEscalation())
             .toList();
 
         return effects().reply(critical);
     }
 
     /**
-     * Remove an incident from the registry.
+     * Remove an incident from this shard.
      */
     public Effect<String> removeIncident(String incidentId) {
         var current = currentState();
@@ -150,16 +436,12 @@ public class IncidentRegistry extends KeyValueEntity<IncidentRegistry.RegistrySt
             return effects().reply("Registry is empty");
         }
 
-        List<IncidentMetrics.IncidentRecord> updatedList = new ArrayList<>(current.incidents());
-        boolean removed = updatedList.removeIf(i -> i.incidentId().equals(incidentId));
-
-        if (removed) {
-            var newState = new RegistryState(updatedList);
-            return effects()
-                .updateState(newState)
-                .thenReply("Removed incident: " + incidentId);
-        } else {
+        if (!current.incidents().containsKey(incidentId)) {
             return effects().reply("Incident not found: " + incidentId);
         }
+
+        return effects()
+            .updateState(current.remove(incidentId))
+            .thenReply("Removed incident: " + incidentId);
     }
 }
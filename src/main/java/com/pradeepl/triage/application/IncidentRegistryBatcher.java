@@ -0,0 +1,97 @@
+package com.pradeepl.triage.application;
+
+import akka.javasdk.client.ComponentClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IncidentRegistryBatcher micro-batches IncidentRegistry updates.
+ *
+ * Records are collected per shard for the batch window; a later record of the same incident
+ * replaces the pending one, so an incident moving through several steps within a window costs
+ * one upsert. Each window ends with one updateIncidents command per shard that has pending
+ * records, sent concurrently. A failed shard write puts its records back for the next window
+ * unless newer ones have arrived meanwhile.
+ *
+ * The registry is a derived read model: records pending on a node that stops are restored by
+ * the next update of those incidents. Does nothing when the registry is disabled.
+ *
+ * Created once in Bootstrap and injected into IncidentMetricsConsumer.
+ */
+public class IncidentRegistryBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncidentRegistryBatcher.class);
+
+    private final ComponentClient componentClient;
+    private final IncidentRegistrySettings settings;
+
+    // shard ID -> incident ID -> latest record
+    private final Map<String, Map<String, IncidentMetrics.IncidentRecord>> pending = new HashMap<>();
+    private boolean flushScheduled;
+
+    public IncidentRegistryBatcher(ComponentClient componentClient, IncidentRegistrySettings settings) {
+        this.componentClient = componentClient;
+        this.settings = settings;
+    }
+
+    /**
+     * Queue a record for the next registry write of its shard.
+     */
+    public void add(IncidentMetrics.IncidentRecord incident) {
+        if (!settings.enabled()) {
+            return;
+        }
+        synchronized (this) {
+            pending.computeIfAbsent(IncidentRegistry.shardIdFor(incident.incidentId()), shard -> new LinkedHashMap<>())
+                .put(incident.incidentId(), incident);
+            if (flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        CompletableFuture.runAsync(this::flush,
+            CompletableFuture.delayedExecutor(settings.batchWindow().toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    private void flush() {
+        Map<String, Map<String, IncidentMetrics.IncidentRecord>> batch;
+        synchronized (this) {
+            batch = new HashMap<>(pending);
+            pending.clear();
+            flushScheduled = false;
+        }
+
+        batch.forEach((shardId, incidents) -> componentClient
+            .forKeyValueEntity(shardId)
+            .method(IncidentRegistry::updateIncidents)
+            .invokeAsync(new IncidentRegistry.Update(List.copyOf(incidents.values()), settings.maxIncidentsPerShard()))
+            .whenComplete((reply, error) -> {
+                if (error != null) {
+                    logger.warn("Registry shard {} update of {} incidents failed, retrying next window",
+                        shardId, incidents.size(), error);
+                    incidents.values().forEach(this::requeue);
+                } else {
+                    logger.debug("Registry shard {}: {}", shardId, reply);
+                }
+            }));
+    }
+
+    private void requeue(IncidentMetrics.IncidentRecord incident) {
+        synchronized (this) {
+            var shard = pending.computeIfAbsent(IncidentRegistry.shardIdFor(incident.incidentId()), s -> new LinkedHashMap<>());
+            if (shard.putIfAbsent(incident.incidentId(), incident) != null || flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        CompletableFuture.runAsync(this::flush,
+            CompletableFuture.delayedExecutor(settings.batchWindow().toMillis(), TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,75 @@
+package com.pradeepl.triage.application;
+
+import akka.javasdk.client.ComponentClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IncidentRegistryMigration moves the incidents of the unsharded registry entity (ID="global")
+ * into the shards, then deletes it.
+ *
+ * Shards keep whatever they already hold for an incident unless the legacy record is newer,
+ * so running while workflows update the shards, or on several nodes at once, is harmless.
+ * Once the legacy entity is deleted it reads as empty and later runs do nothing. A failed run
+ * is retried after {@link #RETRY_INTERVAL}.
+ *
+ * Started from Bootstrap.onStartup when the registry is enabled.
+ */
+public class IncidentRegistryMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncidentRegistryMigration.class);
+
+    static final Duration RETRY_INTERVAL = Duration.ofMinutes(1);
+
+    private final ComponentClient componentClient;
+
+    public IncidentRegistryMigration(ComponentClient componentClient) {
+        this.componentClient = componentClient;
+    }
+
+    public void run() {
+        componentClient.forKeyValueEntity(IncidentRegistry.LEGACY_ENTITY_ID)
+            .method(IncidentRegistry::getAllIncidents)
+            .invokeAsync()
+            .thenCompose(incidents -> {
+                if (incidents.isEmpty()) {
+                    return CompletableFuture.completedFuture(0);
+                }
+                Map<String, List<IncidentMetrics.IncidentRecord>> byShard = new HashMap<>();
+                for (var incident : incidents) {
+                    byShard.computeIfAbsent(IncidentRegistry.shardIdFor(incident.incidentId()), s -> new ArrayList<>())
+                        .add(incident);
+                }
+                var writes = byShard.entrySet().stream()
+                    .map(shard -> componentClient.forKeyValueEntity(shard.getKey())
+                        .method(IncidentRegistry::mergeIncidents)
+                        .invokeAsync(shard.getValue())
+                        .toCompletableFuture())
+                    .toArray(CompletableFuture[]::new);
+                // Only drop the legacy entity once every shard holds its incidents
+                return CompletableFuture.allOf(writes)
+                    .thenCompose(done -> componentClient.forKeyValueEntity(IncidentRegistry.LEGACY_ENTITY_ID)
+                        .method(IncidentRegistry::deleteRegistry)
+                        .invokeAsync())
+                    .thenApply(deleted -> incidents.size());
+            })
+            .whenComplete((migrated, error) -> {
+                if (error != null) {
+                    logger.warn("Incident registry migration failed, retrying in {}", RETRY_INTERVAL, error);
+                    CompletableFuture.runAsync(this::run,
+                        CompletableFuture.delayedExecutor(RETRY_INTERVAL.toMillis(), TimeUnit.MILLISECONDS));
+                } else if (migrated > 0) {
+                    logger.info("Incident registry migration: moved {} incidents into {} shards",
+                        migrated, IncidentRegistry.SHARD_COUNT);
+                }
+            });
+    }
+}
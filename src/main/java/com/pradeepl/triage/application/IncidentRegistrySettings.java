@@ -0,0 +1,29 @@
+package com.pradeepl.triage.application;
+
+import com.typesafe.config.Config;
+
+import java.time.Duration;
+
+/**
+ * Settings for the sharded IncidentRegistry, read from triage.incident-registry.
+ *
+ * The dashboard reads IncidentMetricsView, so the registry is only maintained when enabled
+ * (for deployments that still read its shards directly). Updates are collected for
+ * batch-window and written with one command per shard (see IncidentRegistryBatcher). Each
+ * shard keeps at most max-incidents-per-shard incidents, evicting the least recently updated.
+ */
+public record IncidentRegistrySettings(
+    boolean enabled,
+    Duration batchWindow,
+    int maxIncidentsPerShard
+) {
+
+    public static IncidentRegistrySettings fromConfig(Config config) {
+        String section = "triage.incident-registry";
+        return new IncidentRegistrySettings(
+            config.hasPath(section + ".enabled") && config.getBoolean(section + ".enabled"),
+            config.hasPath(section + ".batch-window") ? config.getDuration(section + ".batch-window") : Duration.ofMillis(500),
+            config.hasPath(section + ".max-incidents-per-shard") ? config.getInt(section + ".max-incidents-per-shard") : 2000
+        );
+    }
+}
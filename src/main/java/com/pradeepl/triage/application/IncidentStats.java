@@ -0,0 +1,136 @@
+package com.pradeepl.triage.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * IncidentStats holds the running dashboard aggregates.
+ *
+ * Single entity (ID="global") maintained with deltas: every change of an incident removes the
+ * contribution counted before and adds the new one, so reading the stats never touches the
+ * incident history and every write is a constant amount of work.
+ *
+ * Which contribution has been counted is tracked per incident, on its IncidentMetrics record:
+ * IncidentMetrics hands out each delta once (see IncidentMetrics.updateIncident), so a
+ * redelivered workflow event adds nothing here. Incidents recorded before the stats existed
+ * are claimed the same way by IncidentStatsBackfill.
+ */
+@Component(id = "incident-stats")
+public class IncidentStats extends KeyValueEntity<IncidentStats.StatsState> {
+
+    public static final String ENTITY_ID = "global";
+
+    /**
+     * What one incident adds to the aggregates. A finished incident only adds to the total.
+     */
+    public record Contribution(boolean active, String severity, boolean requiresEscalation, int stepProgress) {
+        @JsonCreator
+        public Contribution(
+            @JsonProperty("active") boolean active,
+            @JsonProperty("severity") String severity,
+            @JsonProperty("requiresEscalation") boolean requiresEscalation,
+            @JsonProperty("stepProgress") int stepProgress
+        ) {
+            this.active = active;
+            this.severity = severity;
+            this.requiresEscalation = requiresEscalation;
+            this.stepProgress = stepProgress;
+        }
+
+        static final Contribution FINISHED = new Contribution(false, null, false, 0);
+
+        public static Contribution of(IncidentMetrics.IncidentRecord incident) {
+            if (!incident.isActive()) {
+                return FINISHED;
+            }
+            return new Contribution(true, incident.severity(), incident.requiresEscalation(), incident.stepProgress());
+        }
+
+        private long activeWithSeverity(String severity) {
+            return active && severity.equalsIgnoreCase(this.severity) ? 1 : 0;
+        }
+    }
+
+    /**
+     * A change of one incident: from is null when the incident has never been counted.
+     */
+    public record Delta(String incidentId, Contribution from, Contribution to) {}
+
+    /**
+     * Counters over all incidents; everything except the total only counts active incidents.
+     */
+    public record StatsState(
+        long totalIncidents,
+        long activeIncidents,
+        long p1Count,
+        long p2Count,
+        long escalationCount,
+        long activeProgressSum
+    ) {
+        @JsonCreator
+        public StatsState(
+            @JsonProperty("totalIncidents") long totalIncidents,
+            @JsonProperty("activeIncidents") long activeIncidents,
+            @JsonProperty("p1Count") long p1Count,
+            @JsonProperty("p2Count") long p2Count,
+            @JsonProperty("escalationCount") long escalationCount,
+            @JsonProperty("activeProgressSum") long activeProgressSum
+        ) {
+            this.totalIncidents = totalIncidents;
+            this.activeIncidents = activeIncidents;
+            this.p1Count = p1Count;
+            this.p2Count = p2Count;
+            this.escalationCount = escalationCount;
+            this.activeProgressSum = activeProgressSum;
+        }
+
+        public static StatsState empty() {
+            return new StatsState(0, 0, 0, 0, 0, 0);
+        }
+
+        public double averageProgress() {
+            return activeIncidents == 0 ? 0.0 : (double) activeProgressSum / activeIncidents;
+        }
+
+        /**
+         * Apply a delta: subtract the contribution counted before, add the new one.
+         */
+        public StatsState apply(Delta delta) {
+            var from = delta.from() != null ? delta.from() : Contribution.FINISHED;
+            var to = delta.to();
+            return new StatsState(
+                totalIncidents + (delta.from() == null ? 1 : 0),
+                activeIncidents + (to.active() ? 1 : 0) - (from.active() ? 1 : 0),
+                p1Count + to.activeWithSeverity("P1") - from.activeWithSeverity("P1"),
+                p2Count + to.activeWithSeverity("P2") - from.activeWithSeverity("P2"),
+                escalationCount + (to.active() && to.requiresEscalation() ? 1 : 0)
+                    - (from.active() && from.requiresEscalation() ? 1 : 0),
+                activeProgressSum + to.stepProgress() - from.stepProgress()
+            );
+        }
+    }
+
+    /**
+     * Apply one delta claimed from IncidentMetrics.
+     */
+    public Effect<String> applyDelta(Delta delta) {
+        var current = currentState();
+        if (current == null) {
+            current = StatsState.empty();
+        }
+
+        return effects()
+            .updateState(current.apply(delta))
+            .thenReply("Applied delta: " + delta.incidentId());
+    }
+
+    public ReadOnlyEffect<StatsState> getStats() {
+        var current = currentState();
+        if (current == null) {
+            return effects().reply(StatsState.empty());
+        }
+        return effects().reply(current);
+    }
+}
@@ -0,0 +1,128 @@
+package com.pradeepl.triage.application;
+
+import akka.javasdk.client.ComponentClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IncidentStatsBackfill counts the incidents IncidentStats does not reflect yet: those
+ * recorded before the stats existed, and changes whose stats update failed.
+ *
+ * Walks IncidentMetricsView in incident ID order, page by page. The view only says which
+ * incidents may be pending; each of them is claimed from its IncidentMetrics entity, which
+ * hands out a delta only when the stats really miss it, so a stale row counts nothing twice.
+ *
+ * The view may still be catching up, e.g. on a fresh deploy or during a projection replay,
+ * so one pass is not trusted: passes repeat every {@link #RESCAN_INTERVAL} until one finds
+ * nothing pending and sees as many incidents as the pass before. Running on several nodes at
+ * once is harmless.
+ *
+ * Started from Bootstrap.onStartup.
+ */
+public class IncidentStatsBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncidentStatsBackfill.class);
+
+    private static final int PAGE_SIZE = 500;
+    static final Duration RESCAN_INTERVAL = Duration.ofMinutes(1);
+
+    private final ComponentClient componentClient;
+
+    public IncidentStatsBackfill(ComponentClient componentClient) {
+        this.componentClient = componentClient;
+    }
+
+    public void run() {
+        pass(-1);
+    }
+
+    private record Progress(long incidents, long claimed) {
+        Progress plus(long incidents, long claimed) {
+            return new Progress(this.incidents + incidents, this.claimed + claimed);
+        }
+    }
+
+    private void pass(long previousIncidents) {
+        scan("", new Progress(0, 0)).whenComplete((progress, error) -> {
+            if (error != null) {
+                logger.warn("Incident stats backfill failed, retrying in {}", RESCAN_INTERVAL, error);
+                schedule(previousIncidents);
+            } else if (progress.claimed() == 0 && progress.incidents() == previousIncidents) {
+                logger.info("Incident stats backfill done: all {} incidents counted", progress.incidents());
+            } else {
+                logger.info("Incident stats backfill: counted {} of {} incidents, checking again in {}",
+                    progress.claimed(), progress.incidents(), RESCAN_INTERVAL);
+                schedule(progress.incidents());
+            }
+        });
+    }
+
+    private void schedule(long previousIncidents) {
+        CompletableFuture.runAsync(() -> pass(previousIncidents),
+            CompletableFuture.delayedExecutor(RESCAN_INTERVAL.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    private CompletionStage<Progress> scan(String cursorId, Progress progress) {
+        return componentClient.forView()
+            .method(IncidentMetricsView::getIncidentsById)
+            .invokeAsync(new IncidentMetricsView.IdPage(cursorId, PAGE_SIZE))
+            .thenCompose(page -> {
+                var rows = page.incidents();
+                return claimPending(rows, 0, 0).thenCompose(claimed -> {
+                    var next = progress.plus(rows.size(), claimed);
+                    if (rows.size() < PAGE_SIZE) {
+                        return CompletableFuture.completedFuture(next);
+                    }
+                    return scan(rows.get(rows.size() - 1).incidentId(), next);
+                });
+            });
+    }
+
+    // One incident at a time, to keep the load on the single stats entity low
+    private CompletionStage<Long> claimPending(List<IncidentMetrics.IncidentRecord> rows, int index, long claimed) {
+        if (index == rows.size()) {
+            return CompletableFuture.completedFuture(claimed);
+        }
+        var row = rows.get(index);
+        if (!row.statsPending()) {
+            return claimPending(rows, index + 1, claimed);
+        }
+        return claim(row.incidentId())
+            .thenCompose(counted -> claimPending(rows, index + 1, claimed + (counted ? 1 : 0)));
+    }
+
+    private CompletionStage<Boolean> claim(String incidentId) {
+        return componentClient
+            .forKeyValueEntity(incidentId)
+            .method(IncidentMetrics::claimStats)
+            .invokeAsync()
+            .thenCompose(transition -> {
+                var delta = transition.statsDelta();
+                if (delta == null) {
+                    return CompletableFuture.completedFuture(false);
+                }
+                return componentClient
+                    .forKeyValueEntity(IncidentStats.ENTITY_ID)
+                    .method(IncidentStats::applyDelta)
+                    .invokeAsync(delta)
+                    .handle((reply, error) -> error)
+                    .thenCompose(error -> {
+                        if (error == null) {
+                            return CompletableFuture.completedFuture(true);
+                        }
+                        // Hand the delta back so the next pass claims it again
+                        return componentClient
+                            .forKeyValueEntity(incidentId)
+                            .method(IncidentMetrics::releaseStats)
+                            .invokeAsync(delta)
+                            .thenCompose(released -> CompletableFuture.<Boolean>failedFuture(error));
+                    });
+            });
+    }
+}
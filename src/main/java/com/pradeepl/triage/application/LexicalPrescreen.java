@@ -0,0 +1,88 @@
+package com.pradeepl.triage.application;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * LexicalPrescreen is a cheap, deterministic stand-in for a hallucination evaluation: the share
+ * of an answer's content terms that also occur in its reference text.
+ *
+ * Content terms are lower-cased words of at least four letters that are not stopwords, plus
+ * any token containing a digit (status codes, versions, counts), since invented numbers are a
+ * typical hallucination. A high overlap passes, a very low overlap fails, and anything in
+ * between (or an answer too short to judge) is escalated. Only a pass settles a check
+ * without the LLM evaluator: a low overlap may just be a paraphrase.
+ */
+public final class LexicalPrescreen {
+
+    // Answers with fewer distinct content terms are always escalated
+    private static final int MIN_TERMS = 12;
+
+    private static final Set<String> STOPWORDS = Set.of(
+        "about", "above", "after", "again", "against", "also", "because", "been", "before", "being",
+        "below", "between", "both", "could", "does", "doing", "during", "each", "from", "further",
+        "have", "having", "here", "into", "itself", "just", "like", "more", "most", "must", "only",
+        "other", "over", "same", "should", "some", "such", "than", "that", "their", "them", "then",
+        "there", "these", "they", "this", "those", "through", "under", "until", "very", "were",
+        "what", "when", "where", "which", "while", "will", "with", "would", "your", "none", "null");
+
+    public enum Verdict { PASS, FAIL, ESCALATE }
+
+    public record Result(Verdict verdict, double score, int terms) {
+        public static Result escalate() {
+            return new Result(Verdict.ESCALATE, 0.0, 0);
+        }
+
+        public String explanation() {
+            return String.format("Lexical pre-screen: %.0f%% of %d answer terms found in the reference text (%s)",
+                score * 100, terms, verdict == Verdict.PASS ? "supported" : "unsupported");
+        }
+    }
+
+    private LexicalPrescreen() {}
+
+    public static Result screen(String answer, String reference, double passAbove, double failBelow) {
+        if (answer == null || reference == null) {
+            return Result.escalate();
+        }
+        Set<String> answerTerms = terms(answer);
+        if (answerTerms.size() < MIN_TERMS) {
+            return new Result(Verdict.ESCALATE, 0.0, answerTerms.size());
+        }
+        Set<String> referenceTerms = terms(reference);
+        int supported = 0;
+        for (String term : answerTerms) {
+            if (referenceTerms.contains(term)) {
+                supported++;
+            }
+        }
+        double score = (double) supported / answerTerms.size();
+        Verdict verdict = score >= passAbove ? Verdict.PASS : score < failBelow ? Verdict.FAIL : Verdict.ESCALATE;
+        return new Result(verdict, score, answerTerms.size());
+    }
+
+    static Set<String> terms(String text) {
+        Set<String> terms = new HashSet<>();
+        int i = 0;
+        int n = text.length();
+        while (i < n) {
+            while (i < n && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            boolean digit = false;
+            while (i < n && Character.isLetterOrDigit(text.charAt(i))) {
+                digit |= Character.isDigit(text.charAt(i));
+                i++;
+            }
+            if (i > start) {
+                String token = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (digit || (token.length() >= 4 && !STOPWORDS.contains(token))) {
+                    terms.add(token);
+                }
+            }
+        }
+        return terms;
+    }
+}
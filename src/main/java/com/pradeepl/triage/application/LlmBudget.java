@@ -0,0 +1,113 @@
+package com.pradeepl.triage.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * LlmBudget tracks the LLM requests and tokens handed out across the service in one minute.
+ *
+ * One entity per minute (keyed by "minute-{epochMinute}"), so every window starts empty and old
+ * windows simply stop receiving traffic. Nodes do not ask per call: LlmCallGovernor leases
+ * chunks of the budget and spends them locally, so this entity sees a few commands per node
+ * per minute however many agent calls are made.
+ *
+ * Each lease is limited by the remaining service-wide budget and by the caller's share of it.
+ * Callers with a reserve (evaluators) are only granted budget above that reserve, which is
+ * left for live triage.
+ */
+@Component(id = "llm-budget")
+public class LlmBudget extends KeyValueEntity<LlmBudget.WindowState> {
+
+    public record WindowState(
+        long requests,
+        long tokens,
+        // caller -> requests / tokens leased in this window
+        Map<String, Long> callerRequests,
+        Map<String, Long> callerTokens
+    ) {
+        @JsonCreator
+        public WindowState(
+            @JsonProperty("requests") long requests,
+            @JsonProperty("tokens") long tokens,
+            @JsonProperty("callerRequests") Map<String, Long> callerRequests,
+            @JsonProperty("callerTokens") Map<String, Long> callerTokens
+        ) {
+            this.requests = requests;
+            this.tokens = tokens;
+            this.callerRequests = callerRequests != null ? callerRequests : new HashMap<>();
+            this.callerTokens = callerTokens != null ? callerTokens : new HashMap<>();
+        }
+
+        public static WindowState empty() {
+            return new WindowState(0, 0, new HashMap<>(), new HashMap<>());
+        }
+    }
+
+    // Commands
+
+    /**
+     * Request a chunk of this window's budget. share is the fraction of the budget the caller
+     * may use in total; reserve is the fraction that must stay unleased after the grant.
+     */
+    public record Lease(
+        String caller,
+        long requests,
+        long tokens,
+        long requestsPerMinute,
+        long tokensPerMinute,
+        double share,
+        double reserve
+    ) {}
+
+    /**
+     * What was granted (possibly nothing), and the fraction of the token budget still unleased.
+     */
+    public record Grant(long requests, long tokens, double remaining) {
+        public boolean isEmpty() {
+            return requests == 0 || tokens == 0;
+        }
+    }
+
+    public static String windowId(long epochMinute) {
+        return "minute-" + epochMinute;
+    }
+
+    public Effect<Grant> lease(Lease cmd) {
+        var state = currentState() != null ? currentState() : WindowState.empty();
+
+        long callerRequests = state.callerRequests().getOrDefault(cmd.caller(), 0L);
+        long callerTokens = state.callerTokens().getOrDefault(cmd.caller(), 0L);
+
+        long availableRequests = Math.min(
+            cmd.requestsPerMinute() - state.requests() - (long) Math.ceil(cmd.reserve() * cmd.requestsPerMinute()),
+            (long) (cmd.share() * cmd.requestsPerMinute()) - callerRequests);
+        long availableTokens = Math.min(
+            cmd.tokensPerMinute() - state.tokens() - (long) Math.ceil(cmd.reserve() * cmd.tokensPerMinute()),
+            (long) (cmd.share() * cmd.tokensPerMinute()) - callerTokens);
+
+        long requests = Math.max(0, Math.min(cmd.requests(), availableRequests));
+        long tokens = Math.max(0, Math.min(cmd.tokens(), availableTokens));
+        if (requests == 0 || tokens == 0) {
+            return effects().reply(new Grant(0, 0, remaining(state, cmd)));
+        }
+
+        var perCallerRequests = new HashMap<>(state.callerRequests());
+        perCallerRequests.put(cmd.caller(), callerRequests + requests);
+        var perCallerTokens = new HashMap<>(state.callerTokens());
+        perCallerTokens.put(cmd.caller(), callerTokens + tokens);
+        var updated = new WindowState(state.requests() + requests, state.tokens() + tokens, perCallerRequests, perCallerTokens);
+
+        return effects()
+            .updateState(updated)
+            .thenReply(new Grant(requests, tokens, remaining(updated, cmd)));
+    }
+
+    private static double remaining(WindowState state, Lease cmd) {
+        return cmd.tokensPerMinute() <= 0 ? 0.0 : Math.max(0.0, 1.0 - (double) state.tokens() / cmd.tokensPerMinute());
+    }
+}
@@ -0,0 +1,472 @@
+package com.pradeepl.triage.application;
+
+import akka.javasdk.client.ComponentClient;
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * LlmCallGovernor keeps agent and evaluator calls within the service-wide OpenAI budget,
+ * read from triage.llm-governor.
+ *
+ * Every call first takes a permit: one request and an estimate of its tokens (prompt size
+ * plus the routed max tokens) from a local token bucket per caller, within a bound on
+ * concurrent calls per caller. Buckets are refilled by leasing chunks of the current minute's
+ * requests-per-minute and tokens-per-minute budget from the LlmBudget entity, so the budget
+ * holds across nodes; leased capacity expires with its minute. A caller that cannot get a
+ * permit waits up to its acquire-timeout and then fails. Workflow calls wait long enough for
+ * an exhausted minute to roll over (well inside the step timeout), so running out of budget
+ * delays a step instead of burning its retry and interrupting the workflow; evaluators fail
+ * fast and their event is redelivered. Asynchronous
+ * calls wait without blocking a thread (see {@link #acquireAsync}); leases are requested
+ * asynchronously as well.
+ *
+ * Evaluators yield to live triage: they never take a permit while a workflow call on this
+ * node is waiting, may use at most their share of the budget, and are only granted budget
+ * above the evaluator reserve.
+ *
+ * Created once in Bootstrap and injected into TriageWorkflow and TriageEvaluatorConsumer.
+ */
+public class LlmCallGovernor {
+
+    private static final Logger logger = LoggerFactory.getLogger(LlmCallGovernor.class);
+
+    // Retry interval of a waiting caller while a lease is in flight or other calls hold the budget
+    private static final long POLL_MILLIS = 25;
+    // Back-off after a lease request to LlmBudget failed
+    private static final long LEASE_RETRY_MILLIS = 1000;
+
+    public enum Caller {
+        WORKFLOW("workflow"),
+        EVALUATOR("evaluator");
+
+        private final String id;
+
+        Caller(String id) {
+            this.id = id;
+        }
+
+        public String id() {
+            return id;
+        }
+    }
+
+    /**
+     * Per-caller limits: share of the minute budget, concurrent calls on this node, the
+     * fraction of the budget that must remain for other callers when leasing, and how long a
+     * call waits for a permit.
+     */
+    public record Quota(double share, int maxConcurrent, double reserve, Duration acquireTimeout) {}
+
+    public record CallerStats(
+        long permits,
+        long timeouts,
+        int inFlight,
+        int waiting,
+        long leasedRequests,
+        long leasedTokens,
+        long deniedLeases,
+        double averageWaitMillis,
+        long maxWaitMillis
+    ) {}
+
+    public record Stats(
+        boolean enabled,
+        long requestsPerMinute,
+        long tokensPerMinute,
+        Map<String, CallerStats> callers
+    ) {}
+
+    /**
+     * A granted call slot; closing it frees the concurrency slot. Budget is not returned.
+     */
+    public static final class Permit implements AutoCloseable {
+        private static final Permit UNLIMITED = new Permit(null);
+
+        private final Semaphore concurrency;
+        private boolean closed;
+
+        private Permit(Semaphore concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed && concurrency != null) {
+                concurrency.release();
+            }
+            closed = true;
+        }
+    }
+
+    // Local bucket and counters of one caller
+    private static final class Pool {
+        final Quota quota;
+        final Semaphore concurrency;
+        long requests;
+        long tokens;
+        long expiresAtMillis;
+        // No lease is attempted before this time after the budget was exhausted
+        long exhaustedUntilMillis;
+        boolean leasing;
+        int waiting;
+
+        long permits;
+        long timeouts;
+        long leasedRequests;
+        long leasedTokens;
+        long deniedLeases;
+        long totalWaitMillis;
+        long maxWaitMillis;
+
+        Pool(Quota quota) {
+            this.quota = quota;
+            this.concurrency = new Semaphore(Math.max(1, quota.maxConcurrent()), true);
+        }
+    }
+
+    private final ComponentClient client;
+    private final boolean enabled;
+    private final long requestsPerMinute;
+    private final long tokensPerMinute;
+    private final double leaseFraction;
+    private final Map<Caller, Pool> pools = new EnumMap<>(Caller.class);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    public LlmCallGovernor(ComponentClient client, boolean enabled, long requestsPerMinute, long tokensPerMinute,
+                           double leaseFraction, Map<Caller, Quota> quotas) {
+        this.client = client;
+        this.enabled = enabled;
+        this.requestsPerMinute = requestsPerMinute;
+        this.tokensPerMinute = tokensPerMinute;
+        this.leaseFraction = leaseFraction;
+        for (Caller caller : Caller.values()) {
+            pools.put(caller, new Pool(quotas.get(caller)));
+        }
+    }
+
+    public static LlmCallGovernor fromConfig(ComponentClient client, Config config) {
+        String section = "triage.llm-governor";
+        // Default for callers without their own acquire-timeout
+        Duration acquireTimeout = config.hasPath(section + ".acquire-timeout")
+            ? config.getDuration(section + ".acquire-timeout") : Duration.ofSeconds(5);
+        Map<Caller, Quota> quotas = new EnumMap<>(Caller.class);
+        quotas.put(Caller.WORKFLOW, quota(config, section + ".callers.workflow",
+            new Quota(1.0, 32, 0.0, Duration.ofSeconds(90))));
+        quotas.put(Caller.EVALUATOR, quota(config, section + ".callers.evaluator",
+            new Quota(0.4, 4, 0.3, acquireTimeout)));
+
+        var governor = new LlmCallGovernor(
+            client,
+            !config.hasPath(section + ".enabled") || config.getBoolean(section + ".enabled"),
+            config.hasPath(section + ".requests-per-minute") ? config.getLong(section + ".requests-per-minute") : 500,
+            config.hasPath(section + ".tokens-per-minute") ? config.getLong(section + ".tokens-per-minute") : 200_000,
+            config.hasPath(section + ".lease-fraction") ? config.getDouble(section + ".lease-fraction") : 0.1,
+            quotas);
+        logger.info("LLM governor: enabled={}, {} requests/min, {} tokens/min, quotas {}",
+            governor.enabled, governor.requestsPerMinute, governor.tokensPerMinute, quotas);
+        return governor;
+    }
+
+    private static Quota quota(Config config, String path, Quota defaults) {
+        if (!config.hasPath(path)) {
+            return defaults;
+        }
+        Config c = config.getConfig(path);
+        return new Quota(
+            c.hasPath("share") ? c.getDouble("share") : defaults.share(),
+            c.hasPath("max-concurrent") ? c.getInt("max-concurrent") : defaults.maxConcurrent(),
+            c.hasPath("reserve") ? c.getDouble("reserve") : defaults.reserve(),
+            c.hasPath("acquire-timeout") ? c.getDuration("acquire-timeout") : defaults.acquireTimeout()
+        );
+    }
+
+    /**
+     * Rough token cost of a call: prompt characters / 4 plus the response budget.
+     */
+    public static int estimateTokens(int maxTokens, String... inputs) {
+        long chars = 0;
+        for (String input : inputs) {
+            chars += input != null ? input.length() : 0;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, chars / 4 + maxTokens);
+    }
+
+    /**
+     * Run a blocking call under a permit.
+     */
+    public <T> T call(Caller caller, int tokens, Supplier<T> call) {
+        try (var permit = acquire(caller, tokens)) {
+            return call.get();
+        }
+    }
+
+    /**
+     * Start an asynchronous call once a permit is granted, holding it until the call completes.
+     * Waiting for the permit does not block the calling thread.
+     */
+    public <T> CompletionStage<T> callAsync(Caller caller, int tokens, Supplier<CompletionStage<T>> call) {
+        return acquireAsync(caller, tokens).thenCompose(permit -> {
+            try {
+                return call.get().whenComplete((result, error) -> permit.close());
+            } catch (RuntimeException e) {
+                permit.close();
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Wait for a concurrency slot and budget for one call of the given estimated size, blocking
+     * the calling thread for at most the caller's acquire timeout.
+     *
+     * @throws IllegalStateException if no permit was available within the acquire timeout
+     */
+    public Permit acquire(Caller caller, int tokens) {
+        if (!enabled) {
+            return Permit.UNLIMITED;
+        }
+        Pool pool = pools.get(caller);
+        long cost = cost(pool, tokens);
+        long started = System.currentTimeMillis();
+        long deadline = System.nanoTime() + pool.quota.acquireTimeout().toNanos();
+
+        try {
+            if (!pool.concurrency.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                throw timeout(caller, pool);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for LLM call slot", e);
+        }
+
+        lock.lock();
+        pool.waiting++;
+        try {
+            while (true) {
+                var permit = tryGrant(caller, pool, cost, started);
+                if (permit != null) {
+                    return permit;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw timeout(caller, pool);
+                }
+                // Wake up for new leases, finished calls, or when the exhausted window rolls over
+                changed.awaitNanos(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(retryMillis(pool))));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pool.concurrency.release();
+            throw new IllegalStateException("Interrupted waiting for LLM budget", e);
+        } catch (RuntimeException e) {
+            pool.concurrency.release();
+            throw e;
+        } finally {
+            pool.waiting--;
+            changed.signalAll();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #acquire}: completes with a permit once a slot and budget
+     * are available, or fails with IllegalStateException after the acquire timeout. The wait is
+     * a series of short scheduled retries, so no thread is held while waiting.
+     */
+    public CompletionStage<Permit> acquireAsync(Caller caller, int tokens) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(Permit.UNLIMITED);
+        }
+        Pool pool = pools.get(caller);
+        var result = new CompletableFuture<Permit>();
+        retryAcquire(caller, pool, cost(pool, tokens), System.currentTimeMillis(),
+            System.nanoTime() + pool.quota.acquireTimeout().toNanos(), false, result);
+        return result;
+    }
+
+    private void retryAcquire(Caller caller, Pool pool, long cost, long started, long deadline, boolean holdsSlot,
+                              CompletableFuture<Permit> result) {
+        boolean slot = holdsSlot || pool.concurrency.tryAcquire();
+        Permit permit = null;
+        boolean expired = deadline - System.nanoTime() <= 0;
+        long retryMillis = POLL_MILLIS;
+
+        lock.lock();
+        try {
+            if (slot && !holdsSlot) {
+                pool.waiting++;
+            }
+            if (slot) {
+                permit = tryGrant(caller, pool, cost, started);
+                retryMillis = retryMillis(pool);
+            }
+            if (slot && (permit != null || expired)) {
+                pool.waiting--;
+                changed.signalAll();
+            }
+        } catch (RuntimeException e) {
+            if (slot) {
+                pool.waiting--;
+                pool.concurrency.release();
+            }
+            result.completeExceptionally(e);
+            return;
+        } finally {
+            lock.unlock();
+        }
+
+        if (permit != null) {
+            result.complete(permit);
+        } else if (expired) {
+            if (slot) {
+                pool.concurrency.release();
+            }
+            result.completeExceptionally(timeout(caller, pool));
+        } else {
+            long delayNanos = Math.min(deadline - System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(retryMillis));
+            CompletableFuture.runAsync(() -> retryAcquire(caller, pool, cost, started, deadline, slot, result),
+                CompletableFuture.delayedExecutor(Math.max(0, delayNanos), TimeUnit.NANOSECONDS));
+        }
+    }
+
+    /**
+     * Take budget for one call from the pool if it has enough, starting a lease when it runs
+     * low. Called with the lock held and the caller's concurrency slot taken; null when the
+     * caller has to wait.
+     */
+    private Permit tryGrant(Caller caller, Pool pool, long cost, long started) {
+        long now = System.currentTimeMillis();
+        if (now >= pool.expiresAtMillis) {
+            pool.requests = 0;
+            pool.tokens = 0;
+        }
+        boolean yielding = caller == Caller.EVALUATOR && pools.get(Caller.WORKFLOW).waiting > 0;
+
+        if (!yielding && pool.requests >= 1 && pool.tokens >= cost) {
+            pool.requests--;
+            pool.tokens -= cost;
+            long waited = now - started;
+            pool.permits++;
+            pool.totalWaitMillis += waited;
+            pool.maxWaitMillis = Math.max(pool.maxWaitMillis, waited);
+            return new Permit(pool.concurrency);
+        }
+
+        if (!yielding && !pool.leasing && now >= pool.exhaustedUntilMillis) {
+            lease(caller, pool, cost, now);
+        }
+        return null;
+    }
+
+    // A call larger than the caller may ever lease would wait forever
+    private long cost(Pool pool, int tokens) {
+        return Math.max(1, Math.min(tokens, (long) (pool.quota.share() * tokensPerMinute)));
+    }
+
+    // Until the exhausted window rolls over, otherwise soon; called with the lock held
+    private static long retryMillis(Pool pool) {
+        return Math.min(1000, Math.max(POLL_MILLIS, pool.exhaustedUntilMillis - System.currentTimeMillis()));
+    }
+
+    public Stats stats() {
+        lock.lock();
+        try {
+            Map<String, CallerStats> callers = new LinkedHashMap<>();
+            pools.forEach((caller, pool) -> callers.put(caller.id(), new CallerStats(
+                pool.permits,
+                pool.timeouts,
+                Math.max(1, pool.quota.maxConcurrent()) - pool.concurrency.availablePermits() - pool.waiting,
+                pool.waiting,
+                pool.leasedRequests,
+                pool.leasedTokens,
+                pool.deniedLeases,
+                pool.permits == 0 ? 0.0 : (double) pool.totalWaitMillis / pool.permits,
+                pool.maxWaitMillis
+            )));
+            return new Stats(enabled, requestsPerMinute, tokensPerMinute, callers);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lease a chunk of the current minute's budget into the pool. Called with the lock held; the
+     * entity is asked asynchronously and waiters are signalled when the grant arrives.
+     */
+    private void lease(Caller caller, Pool pool, long cost, long now) {
+        long epochMinute = now / 60_000;
+        long windowEnd = (epochMinute + 1) * 60_000;
+        long requests = Math.max(1, (long) Math.ceil(leaseFraction * requestsPerMinute));
+        long tokens = Math.max(cost - pool.tokens, (long) Math.ceil(leaseFraction * tokensPerMinute));
+
+        pool.leasing = true;
+        client.forKeyValueEntity(LlmBudget.windowId(epochMinute))
+            .method(LlmBudget::lease)
+            .invokeAsync(new LlmBudget.Lease(caller.id(), requests, tokens, requestsPerMinute, tokensPerMinute,
+                pool.quota.share(), pool.quota.reserve()))
+            .whenComplete((grant, error) -> {
+                lock.lock();
+                try {
+                    pool.leasing = false;
+                    if (error != null) {
+                        logger.warn("LLM budget lease for {} failed, retrying in {} ms", caller.id(), LEASE_RETRY_MILLIS, error);
+                        pool.exhaustedUntilMillis = System.currentTimeMillis() + LEASE_RETRY_MILLIS;
+                    } else {
+                        granted(caller, pool, grant, cost, windowEnd);
+                    }
+                    changed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            });
+    }
+
+    private void granted(Caller caller, Pool pool, LlmBudget.Grant grant, long cost, long windowEnd) {
+        if (grant.isEmpty()) {
+            pool.deniedLeases++;
+            pool.exhaustedUntilMillis = windowEnd;
+            logger.debug("LLM budget exhausted for {} until {}", caller.id(), Instant.ofEpochMilli(windowEnd));
+            return;
+        }
+        if (pool.expiresAtMillis != windowEnd) {
+            pool.requests = 0;
+            pool.tokens = 0;
+            pool.expiresAtMillis = windowEnd;
+        }
+        pool.requests += grant.requests();
+        pool.tokens += grant.tokens();
+        pool.leasedRequests += grant.requests();
+        pool.leasedTokens += grant.tokens();
+        // A grant smaller than the call still cannot pay for it; lease more next window
+        if (pool.tokens < cost) {
+            pool.exhaustedUntilMillis = windowEnd;
+        }
+    }
+
+    private IllegalStateException timeout(Caller caller, Pool pool) {
+        lock.lock();
+        try {
+            pool.timeouts++;
+        } finally {
+            lock.unlock();
+        }
+        return new IllegalStateException("No LLM budget for " + caller.id() + " call within "
+            + pool.quota.acquireTimeout().toSeconds() + "s");
+    }
+}
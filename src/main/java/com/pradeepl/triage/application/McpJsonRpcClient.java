@@ -0,0 +1,140 @@
+package com.pradeepl.triage.application;
+
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * McpJsonRpcClient calls tools on the MCP HTTP JSON-RPC bridge.
+ *
+ * Created once in Bootstrap and injected into agents that expose MCP tools. The endpoint is
+ * resolved once at startup (MCP_HTTP_URL system property, then environment variable, then
+ * mcp.http.url), and a single HttpClient is shared so connections are pooled and kept alive
+ * across tool calls (HTTP/2 when the server supports it, HTTP/1.1 keep-alive otherwise).
+ *
+ * Calls are synchronous: function tools return their result to the agent directly, so the
+ * calling thread waits for the response, for at most the request timeout. What the shared
+ * client saves is the per-call config loading, client construction and connection setup.
+ *
+ * Per-call latency and error counters are exposed through {@link #stats()}.
+ */
+public class McpJsonRpcClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpJsonRpcClient.class);
+
+    private static final String DEFAULT_ENDPOINT = "http://localhost:9100/mcp";
+
+    public record Stats(
+        String endpoint,
+        long calls,
+        long errors,
+        double averageLatencyMs,
+        double maxLatencyMs
+    ) {}
+
+    private final URI endpoint;
+    private final Duration requestTimeout;
+    private final HttpClient httpClient;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    public McpJsonRpcClient(URI endpoint, Duration connectTimeout, Duration requestTimeout) {
+        this.endpoint = endpoint;
+        this.requestTimeout = requestTimeout;
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(connectTimeout)
+            .build();
+    }
+
+    public static McpJsonRpcClient fromConfig(Config config) {
+        String configured = config.hasPath("mcp.http.url") ? config.getString("mcp.http.url") : DEFAULT_ENDPOINT;
+        String endpoint = System.getProperty("MCP_HTTP_URL", System.getenv().getOrDefault("MCP_HTTP_URL", configured));
+        Duration connectTimeout = config.hasPath("mcp.http.connect-timeout")
+            ? config.getDuration("mcp.http.connect-timeout") : Duration.ofSeconds(5);
+        Duration requestTimeout = config.hasPath("mcp.http.request-timeout")
+            ? config.getDuration("mcp.http.request-timeout") : Duration.ofSeconds(15);
+
+        logger.info("MCP JSON-RPC endpoint resolved to {}", endpoint);
+        return new McpJsonRpcClient(URI.create(endpoint), connectTimeout, requestTimeout);
+    }
+
+    /**
+     * Invoke a tool and wait for its response. Returns the response body, or an "MCP_ERROR: ..."
+     * string on non-2xx responses and transport failures, which is what the calling LLM tool
+     * expects.
+     */
+    public String callTool(String toolName, String argumentsJson) {
+        // Basic escape for tool name to embed in JSON
+        String safeTool = toolName == null ? "" : toolName.replace("\\", "\\\\").replace("\"", "\\\"");
+        String args = (argumentsJson == null || argumentsJson.isBlank()) ? "{}" : argumentsJson;
+
+        String payload = "{" +
+                "\"jsonrpc\":\"2.0\"," +
+                "\"id\":\"" + UUID.randomUUID() + "\"," +
+                "\"method\":\"call_tool\"," +
+                "\"params\":{" +
+                "\"name\":\"" + safeTool + "\"," +
+                "\"arguments\":" + args +
+                "}}";
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(endpoint)
+                .header("Content-Type", "application/json")
+                .timeout(requestTimeout)
+                .POST(HttpRequest.BodyPublishers.ofString(payload, StandardCharsets.UTF_8))
+                .build();
+
+        long start = System.nanoTime();
+        try {
+            var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            boolean ok = response.statusCode() >= 200 && response.statusCode() < 300;
+            recordCall(System.nanoTime() - start, ok);
+            if (!ok) {
+                return "MCP_ERROR: HTTP " + response.statusCode() + ": " + response.body();
+            }
+            return response.body();
+        } catch (InterruptedException e) {
+            recordCall(System.nanoTime() - start, false);
+            Thread.currentThread().interrupt();
+            return "MCP_ERROR: interrupted";
+        } catch (Exception e) {
+            recordCall(System.nanoTime() - start, false);
+            logger.warn("MCP tool call '{}' failed: {}", toolName, e.toString());
+            return "MCP_ERROR: " + e.getMessage();
+        }
+    }
+
+    public Stats stats() {
+        long count = calls.sum();
+        return new Stats(
+            endpoint.toString(),
+            count,
+            errors.sum(),
+            count == 0 ? 0.0 : totalLatencyNanos.sum() / (double) count / 1_000_000.0,
+            maxLatencyNanos.get() / 1_000_000.0
+        );
+    }
+
+    private void recordCall(long latencyNanos, boolean ok) {
+        calls.increment();
+        if (!ok) {
+            errors.increment();
+        }
+        totalLatencyNanos.add(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+}
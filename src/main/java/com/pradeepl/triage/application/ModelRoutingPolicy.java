@@ -0,0 +1,107 @@
+package com.pradeepl.triage.application;
+
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ModelRoutingPolicy picks the model, temperature and token budget for each agent call,
+ * read from triage.model-routing.
+ *
+ * Every agent has defaults under agents.<agent-id>; severities.<severity>.<agent-id> overrides
+ * individual settings for incidents of that severity, so low-severity incidents can run with
+ * smaller budgets and without optional tool use while P1 keeps the full budget. The classifier
+ * runs before the severity is known and always gets its agent defaults.
+ *
+ * Created once in Bootstrap and injected into TriageWorkflow and the agents.
+ */
+public class ModelRoutingPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelRoutingPolicy.class);
+
+    /**
+     * Model settings for one agent call. tools controls whether the agent may call its
+     * optional function tools; agents whose tools are essential ignore it.
+     */
+    public record Route(String model, double temperature, int maxTokens, boolean tools) {}
+
+    // Used for agents and settings missing from configuration
+    private static final Map<String, Route> DEFAULTS = Map.of(
+        "classifier-agent", new Route("gpt-4o-mini", 0.2, 1500, true),
+        "evidence-agent", new Route("gpt-4o-mini", 0.3, 2000, true),
+        "knowledge-base-agent", new Route("gpt-4o-mini", 0.1, 2000, true),
+        "triage-agent", new Route("gpt-4o-mini", 0.3, 2500, true),
+        "remediation-agent", new Route("gpt-4o-mini", 0.2, 2500, true),
+        "summary-agent", new Route("gpt-4o-mini", 0.3, 2000, true)
+    );
+
+    private static final Route FALLBACK = new Route("gpt-4o-mini", 0.3, 2000, true);
+
+    private final Map<String, Route> agentRoutes;
+    // severity -> agent id -> route
+    private final Map<String, Map<String, Route>> severityRoutes;
+
+    public ModelRoutingPolicy(Map<String, Route> agentRoutes, Map<String, Map<String, Route>> severityRoutes) {
+        this.agentRoutes = agentRoutes;
+        this.severityRoutes = severityRoutes;
+    }
+
+    public static ModelRoutingPolicy fromConfig(Config config) {
+        String section = "triage.model-routing";
+        Map<String, Route> agentRoutes = new HashMap<>(DEFAULTS);
+        if (config.hasPath(section + ".agents")) {
+            Config agents = config.getConfig(section + ".agents");
+            for (String agentId : agents.root().keySet()) {
+                Route base = DEFAULTS.getOrDefault(agentId, FALLBACK);
+                agentRoutes.put(agentId, overlay(base, agents.getConfig(quote(agentId))));
+            }
+        }
+
+        Map<String, Map<String, Route>> severityRoutes = new HashMap<>();
+        if (config.hasPath(section + ".severities")) {
+            Config severities = config.getConfig(section + ".severities");
+            for (String severity : severities.root().keySet()) {
+                Config perAgent = severities.getConfig(quote(severity));
+                Map<String, Route> routes = new HashMap<>();
+                for (String agentId : perAgent.root().keySet()) {
+                    Route base = agentRoutes.getOrDefault(agentId, FALLBACK);
+                    routes.put(agentId, overlay(base, perAgent.getConfig(quote(agentId))));
+                }
+                severityRoutes.put(severity.toUpperCase(Locale.ROOT), routes);
+            }
+        }
+
+        logger.info("Model routing: {} agents, severity overrides for {}", agentRoutes.size(), severityRoutes.keySet());
+        return new ModelRoutingPolicy(agentRoutes, severityRoutes);
+    }
+
+    /**
+     * Route for an agent call. A null or unknown severity gets the agent defaults.
+     */
+    public Route route(String agentId, String severity) {
+        if (severity != null) {
+            var routes = severityRoutes.get(severity.toUpperCase(Locale.ROOT));
+            if (routes != null && routes.containsKey(agentId)) {
+                return routes.get(agentId);
+            }
+        }
+        return agentRoutes.getOrDefault(agentId, FALLBACK);
+    }
+
+    private static Route overlay(Route base, Config c) {
+        return new Route(
+            c.hasPath("model") ? c.getString("model") : base.model(),
+            c.hasPath("temperature") ? c.getDouble("temperature") : base.temperature(),
+            c.hasPath("max-tokens") ? c.getInt("max-tokens") : base.maxTokens(),
+            c.hasPath("tools") ? c.getBoolean("tools") : base.tools()
+        );
+    }
+
+    private static String quote(String key) {
+        return "\"" + key + "\"";
+    }
+}
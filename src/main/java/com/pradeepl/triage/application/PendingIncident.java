@@ -0,0 +1,38 @@
+package com.pradeepl.triage.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+
+/**
+ * PendingIncident holds the text of an incident waiting in the admission queue.
+ *
+ * One entity per queued incident (keyed by its triage ID), so the AdmissionQueue entries stay
+ * small. AdmissionDispatcher stores the text when the incident is queued, reads it back to
+ * start the workflow once a slot is granted, and deletes it afterwards.
+ */
+@Component(id = "pending-incident")
+public class PendingIncident extends KeyValueEntity<String> {
+
+    public Effect<String> put(String incident) {
+        return effects()
+            .updateState(incident)
+            .thenReply("Stored pending incident");
+    }
+
+    /**
+     * The incident text, or an empty string when none is stored.
+     */
+    public ReadOnlyEffect<String> get() {
+        var current = currentState();
+        return effects().reply(current != null ? current : "");
+    }
+
+    public Effect<String> delete() {
+        if (currentState() == null) {
+            return effects().reply("No pending incident");
+        }
+        return effects()
+            .deleteEntity()
+            .thenReply("Deleted pending incident");
+    }
+}
@@ -0,0 +1,47 @@
+package com.pradeepl.triage.application;
+
+import com.pradeepl.triage.domain.PipelineProfile;
+import com.typesafe.config.Config;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-severity pipeline profiles, read from triage.pipelines.<severity>.skip.
+ * Severities without an entry run the full pipeline. Only the optional steps of
+ * PipelineProfile can be skipped; any other name fails startup.
+ */
+public record PipelineSettings(Map<String, List<String>> skippedBySeverity) {
+
+    public static PipelineSettings fromConfig(Config config) {
+        String section = "triage.pipelines";
+        Map<String, List<String>> skipped = new HashMap<>();
+        if (config.hasPath(section)) {
+            Config pipelines = config.getConfig(section);
+            for (String severity : pipelines.root().keySet()) {
+                String path = "\"" + severity + "\".skip";
+                if (pipelines.hasPath(path)) {
+                    List<String> steps = pipelines.getStringList(path);
+                    for (String step : steps) {
+                        if (!PipelineProfile.OPTIONAL_STEPS.contains(step)) {
+                            throw new IllegalStateException("Unknown step '" + step + "' in " + section + "." + severity
+                                + ".skip; only " + PipelineProfile.OPTIONAL_STEPS + " can be skipped");
+                        }
+                    }
+                    skipped.put(severity.toUpperCase(Locale.ROOT), List.copyOf(steps));
+                }
+            }
+        }
+        return new PipelineSettings(Map.copyOf(skipped));
+    }
+
+    public PipelineProfile profileFor(String severity) {
+        if (severity == null) {
+            return PipelineProfile.full();
+        }
+        String key = severity.toUpperCase(Locale.ROOT);
+        return new PipelineProfile(key, skippedBySeverity.getOrDefault(key, List.of()));
+    }
+}
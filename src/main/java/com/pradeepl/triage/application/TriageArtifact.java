@@ -0,0 +1,84 @@
+package com.pradeepl.triage.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.pradeepl.triage.domain.CompressedText;
+
+/**
+ * TriageArtifact stores one agent output, keyed by the SHA-256 of its content.
+ *
+ * Content-addressed: identical outputs (for example the same knowledge base result for every
+ * incident on a service) share one entity, and an artifact never changes once written.
+ * TriageState only holds ArtifactRefs; use ArtifactStore to write and read artifacts.
+ * Large outputs are stored Deflate-compressed (see CompressedText) and inflated on read.
+ *
+ * Each artifact counts the workflow outputs referencing it: storing adds a reference, deleting a
+ * workflow releases its references, and the artifact is deleted when none are left. The count
+ * keeps the state constant-size however many incidents share the content. A step that fails
+ * after storing adds a reference nobody releases, which keeps the artifact rather than losing
+ * content still in use. Artifacts written before references were counted are kept.
+ */
+@Component(id = "triage-artifact")
+public class TriageArtifact extends KeyValueEntity<TriageArtifact.ArtifactState> {
+
+    public record ArtifactState(
+        CompressedText content,
+        Integer references
+    ) {
+        @JsonCreator
+        public ArtifactState(
+            @JsonProperty("content") CompressedText content,
+            @JsonProperty("references") Integer references
+        ) {
+            this.content = content;
+            // null marks an artifact stored before references were counted
+            this.references = references;
+        }
+    }
+
+    /**
+     * Store the content, or add a reference when it is already present.
+     */
+    public Effect<String> put(String content) {
+        var current = currentState();
+        if (current == null) {
+            return effects()
+                .updateState(new ArtifactState(CompressedText.of(content), 1))
+                .thenReply("Stored: " + commandContext().entityId());
+        }
+        if (current.references() == null) {
+            return effects().reply("Exists: " + commandContext().entityId());
+        }
+        return effects()
+            .updateState(new ArtifactState(current.content(), current.references() + 1))
+            .thenReply("Exists: " + commandContext().entityId());
+    }
+
+    /**
+     * Drop one reference, deleting the artifact when it was the last.
+     */
+    public Effect<String> release() {
+        var current = currentState();
+        if (current == null || current.references() == null) {
+            return effects().reply("Not counted: " + commandContext().entityId());
+        }
+        if (current.references() <= 1) {
+            return effects()
+                .deleteEntity()
+                .thenReply("Deleted: " + commandContext().entityId());
+        }
+        return effects()
+            .updateState(new ArtifactState(current.content(), current.references() - 1))
+            .thenReply("Released: " + commandContext().entityId());
+    }
+
+    /**
+     * The stored content, or an empty string for an unknown artifact.
+     */
+    public ReadOnlyEffect<String> get() {
+        var current = currentState();
+        return effects().reply(current == null || current.content() == null ? "" : current.content().text());
+    }
+}
@@ -0,0 +1,54 @@
+package com.pradeepl.triage.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.DeleteHandler;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import com.pradeepl.triage.domain.Conversation;
+import com.pradeepl.triage.domain.TriageState;
+
+import java.util.List;
+
+/**
+ * TriageProgressView tracks the status and conversation of each triage workflow.
+ *
+ * Only the small progress fields are projected (no agent outputs), so live subscribers
+ * can follow a workflow without reading its full state. TriageEndpoint streams updates
+ * from this view as Server-Sent Events.
+ */
+@Component(id = "triage-progress-view")
+public class TriageProgressView extends View {
+
+    public record ProgressRow(
+        String triageId,
+        String status,
+        List<Conversation> conversations
+    ) {}
+
+    @Consume.FromWorkflow(TriageWorkflow.class)
+    public static class TriageProgressUpdater extends TableUpdater<ProgressRow> {
+
+        public Effect<ProgressRow> onUpdate(TriageState state) {
+            if (state == null) {
+                return effects().ignore();
+            }
+            String triageId = updateContext().eventSubject().orElse("unknown");
+            return effects().updateRow(new ProgressRow(triageId, state.status().name(), state.context()));
+        }
+
+        @DeleteHandler
+        public Effect<ProgressRow> onDelete() {
+            return effects().deleteRow();
+        }
+    }
+
+    /**
+     * Current progress of one workflow, followed by every subsequent change.
+     */
+    @Query(value = "SELECT * FROM triage_progress_view WHERE triageId = :triageId", streamUpdates = true)
+    public QueryStreamEffect<ProgressRow> streamProgress(String triageId) {
+        return queryStreamResult();
+    }
+}
@@ -5,12 +5,22 @@ import akka.javasdk.client.ComponentClient;
 import akka.javasdk.annotations.StepName;
 import akka.javasdk.workflow.Workflow;
 import com.pradeepl.triage.application.agents.*;
+import com.pradeepl.triage.domain.AgentUsage;
+import com.pradeepl.triage.domain.Classification;
 import com.pradeepl.triage.domain.Conversation;
+import com.pradeepl.triage.domain.EvidenceSummary;
+import com.pradeepl.triage.domain.LinkedIncident;
+import com.pradeepl.triage.domain.PipelineProfile;
+import com.pradeepl.triage.domain.TriageOutputs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import com.pradeepl.triage.domain.TriageState;
@@ -22,9 +32,22 @@ public class TriageWorkflow extends Workflow<TriageState> {
 
     private static final Logger logger = LoggerFactory.getLogger(TriageWorkflow.class);
     private final ComponentClient componentClient;
-
-    public TriageWorkflow(ComponentClient componentClient) {
+    private final AgentResponseCaches agentResponseCaches;
+    private final ArtifactStore artifacts;
+    private final ModelRoutingPolicy routing;
+    private final PipelineSettings pipelines;
+    private final LlmCallGovernor governor;
+    private final AgentCallMetrics callMetrics;
+
+    public TriageWorkflow(ComponentClient componentClient, AgentResponseCaches agentResponseCaches, ModelRoutingPolicy routing,
+                          PipelineSettings pipelines, LlmCallGovernor governor, AgentCallMetrics callMetrics) {
         this.componentClient = componentClient;
+        this.agentResponseCaches = agentResponseCaches;
+        this.artifacts = new ArtifactStore(componentClient);
+        this.routing = routing;
+        this.pipelines = pipelines;
+        this.governor = governor;
+        this.callMetrics = callMetrics;
     }
 
     public record StartTriage(String incident) {}
@@ -56,6 +79,28 @@ public class TriageWorkflow extends Workflow<TriageState> {
                 .thenReply("started");
     }
 
+    /**
+     * Lightweight status probe, used by alert-storm coalescing to only link to running workflows.
+     */
+    public ReadOnlyEffect<String> getStatus() {
+        return effects().reply(currentState() == null ? "EMPTY" : currentState().status().name());
+    }
+
+    /**
+     * Delete a completed or failed workflow. Its artifacts are released afterwards from the
+     * outputs read before the delete (see ArtifactStore.release); TriageEndpoint does both.
+     */
+    public Effect<String> delete() {
+        var s = currentState();
+        if (s == null) {
+            return effects().error("Workflow not found");
+        }
+        if (s.status() != TriageState.Status.COMPLETED && s.status() != TriageState.Status.FAILED) {
+            return effects().error("Workflow still running: " + s.status());
+        }
+        return effects().delete().thenReply("Deleted");
+    }
+
     public ReadOnlyEffect<List<Conversation>> getConversations() {
         var ctx = currentState() == null ? List.<Conversation>of() : currentState().context();
         return effects().reply(ctx.size() > 1 ? ctx.subList(1, ctx.size()) : ctx);
@@ -99,9 +144,38 @@ public class TriageWorkflow extends Workflow<TriageState> {
             long heapUsedBytes,
             long heapCommittedBytes,
             long heapMaxBytes,
-            String agentMemoryMode
-    ) {}
+            String agentMemoryMode,
+            List<LinkedIncident> linkedIncidents,
+            TriageOutputs outputs,
+            List<String> skippedSteps,
+            int totalSteps,
+            Map<String, AgentUsage> stepUsage,
+            AgentUsage totalUsage
+    ) {
+        public StateView withLinkedIncidents(List<LinkedIncident> linked) {
+            return new StateView(status, incident, classificationJson, evidenceLogs, evidenceMetrics, triageText,
+                    remediationText, summaryText, knowledgeBaseResult, agentSessionId, contextEntries, approxStateChars,
+                    heapUsedBytes, heapCommittedBytes, heapMaxBytes, agentMemoryMode, linked, outputs, skippedSteps, totalSteps,
+                    stepUsage, totalUsage);
+        }
+
+        public ArtifactStore.Texts texts() {
+            return new ArtifactStore.Texts(classificationJson, evidenceLogs, evidenceMetrics, triageText,
+                    remediationText, summaryText, knowledgeBaseResult);
+        }
 
+        public StateView withTexts(ArtifactStore.Texts t) {
+            return new StateView(status, incident, t.classificationJson(), t.evidenceLogs(), t.evidenceMetrics(), t.triageText(),
+                    t.remediationText(), t.summaryText(), t.knowledgeBaseResult(), agentSessionId, contextEntries, approxStateChars,
+                    heapUsedBytes, heapCommittedBytes, heapMaxBytes, agentMemoryMode, linkedIncidents, outputs, skippedSteps, totalSteps,
+                    stepUsage, totalUsage);
+        }
+    }
+
+    /**
+     * State summary with agent outputs as references; inline texts are only set for workflows
+     * stored before outputs were moved to TriageArtifact. TriageEndpoint resolves the references.
+     */
     public ReadOnlyEffect<StateView> getState() {
         var s = currentState();
         if (s == null) {
@@ -112,11 +186,18 @@ public class TriageWorkflow extends Workflow<TriageState> {
                     rt.totalMemory() - rt.freeMemory(),
                     rt.totalMemory(),
                     rt.maxMemory(),
-                    "LIMITED_WINDOW"
+                    "LIMITED_WINDOW",
+                    List.of(),
+                    TriageOutputs.empty(),
+                    List.of(),
+                    PipelineProfile.full().totalSteps(),
+                    Map.of(),
+                    AgentUsage.empty()
             ));
         }
 
-        long approxChars = 0;
+        // Inline outputs count towards the state size; stored ones live in TriageArtifact
+        long approxChars = s.outputs().inlineChars();
         if (s.incident() != null) approxChars += s.incident().length();
         if (s.classificationJson() != null) approxChars += s.classificationJson().length();
         if (s.evidenceLogs() != null) approxChars += s.evidenceLogs().length();
@@ -154,7 +235,13 @@ public class TriageWorkflow extends Workflow<TriageState> {
                 used,
                 committed,
                 max,
-                "LIMITED_WINDOW"
+                "LIMITED_WINDOW",
+                s.linkedIncidents() != null ? s.linkedIncidents() : List.of(),
+                s.outputs(),
+                s.pipeline().skippedSteps(),
+                s.pipeline().totalSteps(),
+                s.stepUsage(),
+                s.totalUsage()
         ));
     }
 
@@ -174,75 +261,166 @@ public class TriageWorkflow extends Workflow<TriageState> {
     @StepName("classify")
     private StepEffect classifyStep() {
         logger.info("🎯 STEP 1/7: CLASSIFICATION - Calling ClassifierAgent with enhanced reasoning");
-        var classificationResult = componentClient
-                .forAgent()
-                .inSession(currentState().workflowId())
-                .method(ClassifierAgent::classify)
-                .invoke(new ClassifierAgent.Request(currentState().incident()));
-
-        String service = AgentUtils.extractServiceFromClassification(classificationResult);
-        String severity = AgentUtils.extractSeverity(classificationResult);
-        double confidence = AgentUtils.extractConfidenceScore(classificationResult, "overall");
+        String incident = currentState().incident();
+        var usage = new AgentCallMetrics.StepUsage();
+        var classificationResult = agentResponseCaches.classifier().getOrCompute(
+                cacheKey("classifier-agent", null, incident),
+                () -> callAgent(usage, "classifier-agent", null, () -> componentClient
+                        .forAgent()
+                        .inSession(currentState().workflowId())
+                        .method(ClassifierAgent::classify)
+                        .invoke(new ClassifierAgent.Request(incident)), incident));
+
+        Classification classification = AgentUtils.parseClassification(classificationResult);
+        String service = classification.service();
+        String severity = classification.severity();
+        double confidence = classification.confidence();
         logger.info("✅ CLASSIFICATION COMPLETE - Service: {}, Severity: {}, Confidence: {}/10", service, severity, confidence);
         logger.debug("ClassifierAgent output: {}", classificationResult.substring(0, Math.min(300, classificationResult.length())) + "...");
         String conversationEntry = String.format("[%s] Classification completed - Service: %s, Severity: %s, Confidence: %.1f",
                 LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_TIME), service, severity, confidence);
 
-        return stepEffects()
-                .updateState(currentState()
-                        .withClassificationJson(classificationResult)
-                        .addConversation(new Conversation("assistant", conversationEntry))
-                        .withStatus(TriageState.Status.CLASSIFIED))
-                .thenTransitionTo(TriageWorkflow::gatherEvidenceStep);
+        PipelineProfile pipeline = pipelines.profileFor(severity);
+        if (!pipeline.skippedSteps().isEmpty()) {
+            logger.info("⏩ {} pipeline skips: {}", severity, pipeline.skippedSteps());
+            conversationEntry += " - Fast path, skipping " + String.join(", ", pipeline.skippedSteps());
+        }
+
+        var updated = currentState()
+                .withClassification(artifacts.store(classificationResult), classification)
+                .withPipeline(pipeline)
+                .withStepUsage("classify", usage.total())
+                .addConversation(new Conversation("assistant", conversationEntry))
+                .withStatus(TriageState.Status.CLASSIFIED);
+
+        // Without evidence there is nothing to run in parallel with the knowledge base lookup;
+        // triage decides for itself whether it runs
+        if (pipeline.skips(PipelineProfile.EVIDENCE)) {
+            return stepEffects().updateState(updated).thenTransitionTo(TriageWorkflow::triageStep);
+        }
+        return stepEffects().updateState(updated).thenTransitionTo(TriageWorkflow::gatherContextStep);
+    }
+
+    /**
+     * Fan-out/fan-in stage: evidence gathering and the knowledge base lookup only depend on
+     * the classification, so both agents are called concurrently and joined here.
+     *
+     * A knowledge base failure fails the step (default recovery, as for query_knowledge_base).
+     * An evidence failure keeps the knowledge base result and hands over to gather_evidence,
+     * which retries evidence on its own and keeps its failover to triage.
+     */
+    @StepName("gather_context")
+    private StepEffect gatherContextStep() {
+        if (currentState().pipeline().skips(PipelineProfile.EVIDENCE)) {
+            return stepEffects().thenTransitionTo(TriageWorkflow::triageStep);
+        }
+        Classification classification = classification();
+        String service = classification.service();
+        String severity = classification.severity();
+        String metricsExpr = severity.equals("P1") ? "errors:rate1m" : "errors:rate5m";
+        String timeRange = severity.equals("P1") ? "30m" : "1h";
+        logger.info("🔍🧠 STEP 2/7: EVIDENCE + KNOWLEDGE BASE (parallel) - service: {} ({})", service, severity);
+
+        String sessionId = currentState().workflowId();
+        var usage = new AgentCallMetrics.StepUsage();
+        var evidenceCall = agentResponseCaches.evidence().getOrComputeAsync(
+                cacheKey("evidence-agent", severity, service, metricsExpr, timeRange),
+                () -> callAgentAsync(usage, "evidence-agent", severity, () -> componentClient
+                        .forAgent()
+                        .inSession(sessionId)
+                        .method(EvidenceAgent::gather)
+                        .invokeAsync(new EvidenceAgent.Request(service, metricsExpr, timeRange, severity))))
+                .toCompletableFuture();
+        var knowledgeBaseCall = agentResponseCaches.knowledgeBase().getOrComputeAsync(
+                cacheKey("knowledge-base-agent", severity, service),
+                () -> callAgentAsync(usage, "knowledge-base-agent", severity, () -> componentClient
+                        .forAgent()
+                        .inSession(sessionId)
+                        .method(KnowledgeBaseAgent::search)
+                        .invokeAsync(new KnowledgeBaseAgent.Request(service, severity))))
+                .toCompletableFuture();
+
+        String knowledgeBaseResult = knowledgeBaseCall.join();
+        var withKnowledgeBase = currentState()
+                .withKnowledgeBase(artifacts.store(knowledgeBaseResult))
+                .addConversation(new Conversation("assistant", "Knowledge base search completed."));
+
+        String evidenceResult;
+        try {
+            evidenceResult = evidenceCall.join();
+        } catch (CompletionException e) {
+            logger.warn("EvidenceAgent failed in parallel stage, retrying evidence on its own: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            return stepEffects()
+                    .updateState(withKnowledgeBase.withStepUsage("gather_context", usage.total()))
+                    .thenTransitionTo(TriageWorkflow::gatherEvidenceStep);
+        }
+
+        var evidence = AgentUtils.parseEvidence(evidenceResult);
+        String logs = evidence.logs();
+        String metrics = evidence.metrics();
+        if (logs == null && metrics == null) logs = evidenceResult;
+
+        return afterEvidence(withKnowledgeBase
+                .withEvidence(artifacts.store(logs), artifacts.store(metrics), evidence.summary())
+                .withStepUsage("gather_context", usage.total())
+                .addConversation(new Conversation("assistant", evidenceConversationEntry(classification, evidence.summary())))
+                .withStatus(TriageState.Status.EVIDENCE_COLLECTED));
     }
 
     @StepName("gather_evidence")
     private StepEffect gatherEvidenceStep() {
-        String service = AgentUtils.extractServiceFromClassification(currentState().classificationJson());
-        String severity = AgentUtils.extractSeverity(currentState().classificationJson());
+        if (currentState().pipeline().skips(PipelineProfile.EVIDENCE)) {
+            return stepEffects().thenTransitionTo(TriageWorkflow::triageStep);
+        }
+        Classification classification = classification();
+        String service = classification.service();
+        String severity = classification.severity();
         String metricsExpr = severity.equals("P1") ? "errors:rate1m" : "errors:rate5m";
         String timeRange = severity.equals("P1") ? "30m" : "1h";
-        logger.info("🔍 STEP 2/7: EVIDENCE GATHERING - Calling EvidenceAgent for service: {} ({})", service, severity);
+        logger.info("🔍 STEP 2/7: EVIDENCE GATHERING (retry) - Calling EvidenceAgent for service: {} ({})", service, severity);
         logger.debug("EvidenceAgent params: metrics={}, timeRange={}", metricsExpr, timeRange);
-        var evidenceResult = componentClient
-                .forAgent()
-                .inSession(currentState().workflowId())
-                .method(EvidenceAgent::gather)
-                .invoke(new EvidenceAgent.Request(service, metricsExpr, timeRange));
-
-        List<String> keyFindings = AgentUtils.extractKeyFindings(evidenceResult);
-        double dataQuality = AgentUtils.extractConfidenceScore(evidenceResult, "data_quality");
-        String[] parts = AgentUtils.extractLogsAndMetrics(evidenceResult);
-        String logs = parts[0];
-        String metrics = parts[1];
+        var usage = new AgentCallMetrics.StepUsage();
+        var evidenceResult = agentResponseCaches.evidence().getOrCompute(
+                cacheKey("evidence-agent", severity, service, metricsExpr, timeRange),
+                () -> callAgent(usage, "evidence-agent", severity, () -> componentClient
+                        .forAgent()
+                        .inSession(currentState().workflowId())
+                        .method(EvidenceAgent::gather)
+                        .invoke(new EvidenceAgent.Request(service, metricsExpr, timeRange, severity))));
+
+        var evidence = AgentUtils.parseEvidence(evidenceResult);
+        String logs = evidence.logs();
+        String metrics = evidence.metrics();
         if (logs == null && metrics == null) logs = evidenceResult;
-        String conversationEntry = String.format("[%s] Evidence analysis completed - %d key findings identified, Data quality: %.1f",
-                LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_TIME), keyFindings.size(), dataQuality);
-        boolean needsEscalation = AgentUtils.requiresImmediateEscalation(currentState().classificationJson(), evidenceResult);
-        if (needsEscalation) conversationEntry += " - ESCALATION RECOMMENDED";
 
-        return stepEffects()
-                .updateState(currentState()
-                        .withEvidence(logs, metrics)
-                        .addConversation(new Conversation("assistant", conversationEntry))
-                        .withStatus(TriageState.Status.EVIDENCE_COLLECTED))
-                .thenTransitionTo(TriageWorkflow::triageStep);
+        return afterEvidence(currentState()
+                .withEvidence(artifacts.store(logs), artifacts.store(metrics), evidence.summary())
+                .withStepUsage("gather_evidence", usage.total())
+                .addConversation(new Conversation("assistant", evidenceConversationEntry(classification, evidence.summary())))
+                .withStatus(TriageState.Status.EVIDENCE_COLLECTED));
     }
 
     @StepName("triage")
     private StepEffect triageStep() {
+        var s = currentState();
+        // Also reached through the evidence failover and the classify fast path
+        if (s.pipeline().skips(PipelineProfile.TRIAGE)) {
+            return afterTriage(s);
+        }
         logger.info("🔬 STEP 3/7: TRIAGE ANALYSIS - Calling TriageAgent for systematic diagnosis");
+        String evidenceLogs = artifacts.load(s.outputs().evidenceLogs(), s.evidenceLogs());
         String enrichedContext = String.format("INCIDENT CONTEXT FOR TRIAGE\n===========================\nOriginal Incident: %s\n\nClassification Results: %s\n\nEvidence Analysis: %s\n\nTimestamp: %s",
-                currentState().incident(),
-                currentState().classificationJson(),
-                currentState().evidenceLogs() != null ? currentState().evidenceLogs() : "No evidence collected",
+                s.incident(),
+                artifacts.load(s.outputs().classification(), s.classificationJson()),
+                evidenceLogs != null ? evidenceLogs : "No evidence collected",
                 LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
         logger.debug("TriageAgent enriched context length: {} characters", enrichedContext.length());
-        var triageResult = componentClient
+        var usage = new AgentCallMetrics.StepUsage();
+        var triageResult = callAgent(usage, "triage-agent", classification().severity(), () -> componentClient
                 .forAgent()
                 .inSession(currentState().workflowId())
                 .method(TriageAgent::triage)
-                .invoke(new TriageAgent.Request(enrichedContext));
+                .invoke(new TriageAgent.Request(enrichedContext, classification().severity())), enrichedContext);
         double confidence = AgentUtils.extractConfidenceScore(triageResult, "confidence");
         logger.info("✅ TRIAGE ANALYSIS COMPLETE - Confidence: {}/10", confidence);
         logger.debug("TriageAgent output length: {} chars, preview: {}",
@@ -251,26 +429,30 @@ public class TriageWorkflow extends Workflow<TriageState> {
         String conversationEntry = String.format("[%s] Triage analysis completed - Analysis confidence: %.1f",
                 LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_TIME), confidence);
 
-        return stepEffects()
-                .updateState(currentState()
-                        .withTriageText(triageResult)
-                        .addConversation(new Conversation("assistant", conversationEntry))
-                        .withStatus(TriageState.Status.TRIAGED))
-                .thenTransitionTo(TriageWorkflow::queryKnowledgeBaseStep);
+        return afterTriage(currentState()
+                .withTriage(artifacts.store(triageResult))
+                .withStepUsage("triage", usage.total())
+                .addConversation(new Conversation("assistant", conversationEntry))
+                .withStatus(TriageState.Status.TRIAGED));
     }
 
     @StepName("query_knowledge_base")
     private StepEffect queryKnowledgeBaseStep() {
         logger.info("🧠 STEP 4/7: KNOWLEDGE BASE SEARCH - Calling KnowledgeBaseAgent");
-        String service = AgentUtils.extractServiceFromClassification(currentState().classificationJson());
-        var knowledgeBaseResult = componentClient
-                .forAgent()
-                .inSession(currentState().workflowId())
-                .method(KnowledgeBaseAgent::search)
-                .invoke(service);
+        String service = classification().service();
+        String severity = classification().severity();
+        var usage = new AgentCallMetrics.StepUsage();
+        var knowledgeBaseResult = agentResponseCaches.knowledgeBase().getOrCompute(
+                cacheKey("knowledge-base-agent", severity, service),
+                () -> callAgent(usage, "knowledge-base-agent", severity, () -> componentClient
+                        .forAgent()
+                        .inSession(currentState().workflowId())
+                        .method(KnowledgeBaseAgent::search)
+                        .invoke(new KnowledgeBaseAgent.Request(service, severity))));
         return stepEffects()
                 .updateState(currentState()
-                        .withKnowledgeBaseResult(knowledgeBaseResult)
+                        .withKnowledgeBase(artifacts.store(knowledgeBaseResult))
+                        .withStepUsage("query_knowledge_base", usage.total())
                         .addConversation(new Conversation("assistant", "Knowledge base search completed."))
                         .withStatus(TriageState.Status.KNOWLEDGE_BASE_SEARCHED))
                 .thenTransitionTo(TriageWorkflow::remediateStep);
@@ -279,20 +461,24 @@ public class TriageWorkflow extends Workflow<TriageState> {
     @StepName("remediate")
     private StepEffect remediateStep() {
         logger.info("🛠️ STEP 5/7: REMEDIATION PLANNING - Calling RemediationAgent with risk assessment");
-        String evidenceJson = toEvidenceJson(currentState());
+        var texts = artifacts.resolve(currentState());
+        String evidenceJson = toEvidenceJson(texts.evidenceLogs(), texts.evidenceMetrics());
         logger.debug("RemediationAgent inputs - Incident: {}, Evidence: {}",
                 currentState().incident() != null ? currentState().incident().substring(0, Math.min(100, currentState().incident().length())) + "..." : "null",
                 evidenceJson.length() > 2 ? "provided" : "empty");
-        var remediationResult = componentClient
+        var usage = new AgentCallMetrics.StepUsage();
+        var remediationResult = callAgent(usage, "remediation-agent", classification().severity(), () -> componentClient
                 .forAgent()
                 .inSession(currentState().workflowId())
                 .method(RemediationAgent::remediate)
                 .invoke(new RemediationAgent.Request(
                         currentState().incident(),
-                        currentState().classificationJson(),
+                        texts.classificationJson(),
                         evidenceJson,
-                        currentState().triageText(),
-                        currentState().knowledgeBaseResult()));
+                        texts.triageText(),
+                        texts.knowledgeBaseResult(),
+                        classification().severity())),
+                currentState().incident(), texts.classificationJson(), evidenceJson, texts.triageText(), texts.knowledgeBaseResult());
         boolean isHighRisk = remediationResult != null && remediationResult.toLowerCase().contains("high");
         logger.info("✅ REMEDIATION PLANNING COMPLETE - Risk Level: {}", isHighRisk ? "HIGH" : "STANDARD");
         logger.debug("RemediationAgent output: {}", remediationResult != null ? remediationResult.substring(0, Math.min(300, remediationResult.length())) + "..." : "null");
@@ -300,33 +486,48 @@ public class TriageWorkflow extends Workflow<TriageState> {
                 LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_TIME));
         if (isHighRisk) conversationEntry += " - HIGH RISK ACTIONS IDENTIFIED";
 
-        return stepEffects()
-                .updateState(currentState()
-                        .withRemediationText(remediationResult)
-                        .addConversation(new Conversation("assistant", conversationEntry))
-                        .withStatus(TriageState.Status.REMEDIATION_PROPOSED))
-                .thenTransitionTo(TriageWorkflow::summarizeStep);
+        var updated = currentState()
+                .withRemediation(artifacts.store(remediationResult))
+                .withStepUsage("remediate", usage.total())
+                .addConversation(new Conversation("assistant", conversationEntry))
+                .withStatus(TriageState.Status.REMEDIATION_PROPOSED);
+        if (updated.pipeline().skips(PipelineProfile.SUMMARY)) {
+            return stepEffects().updateState(updated).thenTransitionTo(TriageWorkflow::finalizeStep);
+        }
+        return stepEffects().updateState(updated).thenTransitionTo(TriageWorkflow::summarizeStep);
     }
 
     @StepName("summarize")
     private StepEffect summarizeStep() {
+        var s = currentState();
+        // Also reached through the remediate failover, which does not know about the profile
+        if (s.pipeline().skips(PipelineProfile.SUMMARY)) {
+            return stepEffects().thenTransitionTo(TriageWorkflow::finalizeStep);
+        }
         logger.info("📊 STEP 6/7: SUMMARY GENERATION - Calling SummaryAgent for multi-audience communication");
-        var summaryResult = componentClient
+        String classificationJson = artifacts.load(s.outputs().classification(), s.classificationJson());
+        String triageText = artifacts.load(s.outputs().triage(), s.triageText());
+        String remediationText = artifacts.load(s.outputs().remediation(), s.remediationText());
+        var usage = new AgentCallMetrics.StepUsage();
+        var summaryResult = callAgent(usage, "summary-agent", classification().severity(), () -> componentClient
                 .forAgent()
                 .inSession(currentState().workflowId())
                 .method(SummaryAgent::summarize)
                 .invoke(new SummaryAgent.Request(
-                        currentState().incident(),
-                        currentState().classificationJson(),
-                        currentState().triageText(),
-                        currentState().remediationText()));
+                        s.incident(),
+                        classificationJson,
+                        triageText,
+                        remediationText,
+                        classification().severity())),
+                s.incident(), classificationJson, triageText, remediationText);
         logger.info("✅ SUMMARY GENERATION COMPLETE - Multi-audience summaries ready");
         logger.debug("SummaryAgent output: {}", summaryResult != null ? summaryResult.substring(0, Math.min(300, summaryResult.length())) + "..." : "null");
         String conversationEntry = String.format("[%s] Multi-audience summaries completed - Ready for stakeholder communication",
                 LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_TIME));
         return stepEffects()
                 .updateState(currentState()
-                        .withSummaryText(summaryResult)
+                        .withSummary(artifacts.store(summaryResult))
+                        .withStepUsage("summarize", usage.total())
                         .addConversation(new Conversation("assistant", conversationEntry))
                         .withStatus(TriageState.Status.SUMMARY_READY))
                 .thenTransitionTo(TriageWorkflow::finalizeStep);
@@ -335,15 +536,23 @@ public class TriageWorkflow extends Workflow<TriageState> {
     @StepName("finalize")
     private StepEffect finalizeStep() {
         logger.info("🎯 STEP 7/7: FINALIZATION - Completing triage workflow");
-        String service = AgentUtils.extractServiceFromClassification(currentState().classificationJson());
-        String severity = AgentUtils.extractSeverity(currentState().classificationJson());
+        Classification classification = classification();
+        String service = classification.service();
+        String severity = classification.severity();
         logger.info("🏁 TRIAGE WORKFLOW COMPLETED SUCCESSFULLY");
         logger.info("📋 FINAL STATUS - Service: {}, Severity: {}, Status: READY FOR ACTION", service, severity);
+        // Duplicates coalesced into this workflow while it was running
+        List<LinkedIncident> linked = componentClient
+                .forKeyValueEntity(commandContext().workflowId())
+                .method(IncidentLinks::getLinks)
+                .invoke();
         String finalEntry = String.format(
                 "[%s] Incident triage workflow completed successfully. Service: %s, Severity: %s, Status: READY FOR ACTION",
                 LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_TIME), service, severity);
+        if (!linked.isEmpty()) finalEntry += String.format(" - %d linked duplicate incident(s)", linked.size());
         return stepEffects()
                 .updateState(currentState()
+                        .withLinkedIncidents(linked)
                         .withStatus(TriageState.Status.COMPLETED)
                         .addConversation(new Conversation("system", finalEntry)))
                 .thenEnd();
@@ -355,7 +564,9 @@ public class TriageWorkflow extends Workflow<TriageState> {
         String note = String.format("[%s] Workflow interrupted due to error",
                 LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_TIME));
         return stepEffects()
-                .updateState(currentState().addConversation(new Conversation("system", note)))
+                .updateState(currentState()
+                        .withStatus(TriageState.Status.FAILED)
+                        .addConversation(new Conversation("system", note)))
                 .thenEnd();
     }
 
@@ -368,9 +579,73 @@ public class TriageWorkflow extends Workflow<TriageState> {
     // the supported Workflow effect methods. Memory/session visibility is
     // exposed via getState(); agent session reuse happens in all steps.
     
-    private static String toEvidenceJson(TriageState s) {
-        String logs = s.evidenceLogs();
-        String metrics = s.evidenceMetrics();
+    /**
+     * Continue after evidence with triage, which checks itself whether the pipeline skips it.
+     */
+    private StepEffect afterEvidence(TriageState updated) {
+        return stepEffects().updateState(updated).thenTransitionTo(TriageWorkflow::triageStep);
+    }
+
+    /**
+     * Continue after triage (run or skipped): the knowledge base lookup if it has not run yet,
+     * then remediation. The knowledge base is normally looked up in gather_context; skipped
+     * evidence, and workflows already past that point before it existed, need the sequential lookup.
+     */
+    private StepEffect afterTriage(TriageState updated) {
+        if (!updated.hasKnowledgeBaseResult()) {
+            return stepEffects().updateState(updated).thenTransitionTo(TriageWorkflow::queryKnowledgeBaseStep);
+        }
+        return stepEffects().updateState(updated).thenTransitionTo(TriageWorkflow::remediateStep);
+    }
+
+    /**
+     * Run an agent call under the LLM call governor, sized by the agent's routed token budget
+     * plus its prompt inputs, and record its wall time, tokens and tool calls into the step usage.
+     */
+    private <T> T callAgent(AgentCallMetrics.StepUsage usage, String agentId, String severity, Supplier<T> call, String... inputs) {
+        int promptTokens = LlmCallGovernor.estimateTokens(0, inputs);
+        int tokens = promptTokens + routing.route(agentId, severity).maxTokens();
+        String sessionId = currentState().workflowId();
+        return governor.call(LlmCallGovernor.Caller.WORKFLOW, tokens,
+                () -> callMetrics.record("workflow", agentId, sessionId, promptTokens, usage, call));
+    }
+
+    private <T> CompletionStage<T> callAgentAsync(AgentCallMetrics.StepUsage usage, String agentId, String severity,
+                                                  Supplier<CompletionStage<T>> call, String... inputs) {
+        int promptTokens = LlmCallGovernor.estimateTokens(0, inputs);
+        int tokens = promptTokens + routing.route(agentId, severity).maxTokens();
+        String sessionId = currentState().workflowId();
+        return governor.callAsync(LlmCallGovernor.Caller.WORKFLOW, tokens,
+                () -> callMetrics.recordAsync("workflow", agentId, sessionId, promptTokens, usage, call));
+    }
+
+    /**
+     * Response cache key for an agent call, including the model settings it is routed to.
+     */
+    private String cacheKey(String agentId, String severity, String... inputs) {
+        var route = routing.route(agentId, severity);
+        String[] parts = new String[inputs.length + 1];
+        parts[0] = "max-tokens=" + route.maxTokens();
+        System.arraycopy(inputs, 0, parts, 1, inputs.length);
+        return AgentResponseCache.key(agentId, route.model(), route.temperature(), parts);
+    }
+
+    /**
+     * Classification parsed in the classify step; workflows classified before it was stored are parsed here.
+     */
+    private Classification classification() {
+        var parsed = currentState().classification();
+        return parsed != null ? parsed : AgentUtils.parseClassification(currentState().classificationJson());
+    }
+
+    private static String evidenceConversationEntry(Classification classification, EvidenceSummary evidence) {
+        String conversationEntry = String.format("[%s] Evidence analysis completed - %d key findings identified, Data quality: %.1f",
+                LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_TIME), evidence.keyFindings().size(), evidence.dataQuality());
+        if (AgentUtils.requiresImmediateEscalation(classification, evidence)) conversationEntry += " - ESCALATION RECOMMENDED";
+        return conversationEntry;
+    }
+
+    private static String toEvidenceJson(String logs, String metrics) {
         if (logs == null && metrics == null) return "{}";
         String lj = logs == null ? "null" : '"' + logs.replace("\"", "\\\"") + '"';
         String mj = metrics == null ? "null" : '"' + metrics.replace("\"", "\\\"") + '"';
@@ -5,6 +5,7 @@ import akka.javasdk.agent.MemoryProvider;
 import akka.javasdk.agent.ModelProvider;
 import akka.javasdk.agent.RemoteMcpTools;
 import akka.javasdk.annotations.Component;
+import com.pradeepl.triage.application.ModelRoutingPolicy;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -68,6 +69,12 @@ public class ClassifierAgent extends Agent {
         }
         """;
 
+    private final ModelRoutingPolicy routing;
+
+    public ClassifierAgent(ModelRoutingPolicy routing) {
+        this.routing = routing;
+    }
+
     public record Request(String incident) {}
     
    
@@ -95,13 +102,15 @@ public class ClassifierAgent extends Agent {
         logger.info("🎯 ClassifierAgent.classify() STARTING - Incident length: {} chars", req.incident().length());
         logger.debug("ClassifierAgent prompt: {}", contextualPrompt.substring(0, Math.min(200, contextualPrompt.length())) + "...");
         
+        // Severity is not known yet, so the classifier always runs with its defaults
+        var route = routing.route("classifier-agent", null);
         return effects()
                 .model(
                         ModelProvider.openAi()
                                 .withApiKey(System.getenv("OPENAI_API_KEY"))
-                                .withModelName("gpt-4o-mini")
-                                .withTemperature(0.2)
-                                .withMaxTokens(1500)
+                                .withModelName(route.model())
+                                .withTemperature(route.temperature())
+                                .withMaxTokens(route.maxTokens())
                 )
                 .memory(MemoryProvider.limitedWindow())
                 .mcpTools(
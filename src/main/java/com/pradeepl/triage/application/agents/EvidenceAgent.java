@@ -1,6 +1,7 @@
 package com.pradeepl.triage.application.agents;
 
 import akka.javasdk.annotations.Component;
+import com.pradeepl.triage.application.ModelRoutingPolicy;
 import akka.javasdk.agent.Agent;
 import akka.javasdk.agent.MemoryProvider;
 import akka.javasdk.agent.ModelProvider;
@@ -15,7 +16,7 @@ import org.slf4j.LoggerFactory;
 public class EvidenceAgent extends Agent {
 
     private static final Logger logger = LoggerFactory.getLogger(EvidenceAgent.class);
-    
+
     private static final String SYSTEM = """
         You are an expert evidence collection and analysis agent for incident response.
         
@@ -65,7 +66,13 @@ public class EvidenceAgent extends Agent {
         }
         """;
 
-    public record Request(String service, String metricsExpr, String range) {}
+    private final ModelRoutingPolicy routing;
+
+    public EvidenceAgent(ModelRoutingPolicy routing) {
+        this.routing = routing;
+    }
+
+    public record Request(String service, String metricsExpr, String range, String severity) {}
 
     public Effect<String> gather(Request req) {
         logger.info("🔍 EvidenceAgent.gather() STARTING - Service: {}, Metrics: {}, Range: {}",
@@ -93,13 +100,14 @@ public class EvidenceAgent extends Agent {
         logger.debug("EvidenceAgent prompt length: {} chars", contextualPrompt.length());
         logger.info("🔍 Using native MCP tools from evidence-mcp-server (port 9200)");
 
+        var route = routing.route("evidence-agent", req.severity());
         return effects()
                 .model(
                         ModelProvider.openAi()
                                 .withApiKey(System.getenv("OPENAI_API_KEY"))
-                                .withModelName("gpt-4o-mini")
-                                .withTemperature(0.3)
-                                .withMaxTokens(2000)
+                                .withModelName(route.model())
+                                .withTemperature(route.temperature())
+                                .withMaxTokens(route.maxTokens())
                 )
                 .memory(MemoryProvider.limitedWindow())
                 .mcpTools(
@@ -5,6 +5,7 @@ import akka.javasdk.agent.ModelProvider;
 import akka.javasdk.agent.MemoryProvider;
 import akka.javasdk.agent.RemoteMcpResources;
 import akka.javasdk.annotations.Component;
+import com.pradeepl.triage.application.ModelRoutingPolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,7 +13,7 @@ import org.slf4j.LoggerFactory;
 public class KnowledgeBaseAgent extends Agent {
 
     private static final Logger logger = LoggerFactory.getLogger(KnowledgeBaseAgent.class);
-    
+
     private static final String SYSTEM = """
         You are a knowledge base retrieval assistant with access to service runbooks via MCP resources.
 
@@ -37,17 +38,27 @@ public class KnowledgeBaseAgent extends Agent {
         Always access the MCP resources before responding.
         """;
 
-    public Effect<String> search(String query) {
+    public record Request(String query, String severity) {}
+
+    private final ModelRoutingPolicy routing;
+
+    public KnowledgeBaseAgent(ModelRoutingPolicy routing) {
+        this.routing = routing;
+    }
+
+    public Effect<String> search(Request req) {
+        String query = req.query();
         logger.info("🧠 KnowledgeBaseAgent.search() - invoking model with MCP resources for query: {}", query);
         logger.info("🔗 Using MCP resources from knowledge-base-mcp-server (port 9300)");
 
+        var route = routing.route("knowledge-base-agent", req.severity());
         return effects()
                 .model(
                         ModelProvider.openAi()
                                 .withApiKey(System.getenv("OPENAI_API_KEY"))
-                                .withModelName("gpt-4o-mini")
-                                .withTemperature(0.1)
-                                .withMaxTokens(2000)
+                                .withModelName(route.model())
+                                .withTemperature(route.temperature())
+                                .withMaxTokens(route.maxTokens())
                 )
                 .memory(MemoryProvider.limitedWindow())
                 .mcpResources(
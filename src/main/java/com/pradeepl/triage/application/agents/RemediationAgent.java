@@ -4,6 +4,8 @@ import akka.javasdk.agent.Agent;
 import akka.javasdk.agent.MemoryProvider;
 import akka.javasdk.agent.ModelProvider;
 import akka.javasdk.annotations.Component;
+import com.pradeepl.triage.application.AgentCallMetrics;
+import com.pradeepl.triage.application.ModelRoutingPolicy;
 import akka.javasdk.annotations.FunctionTool;
 import akka.javasdk.annotations.Description;
 
@@ -95,7 +97,15 @@ public class RemediationAgent extends Agent {
         }
         """;
 
-    public record Request(String incident, String classificationJson, String evidenceJson, String triageText, String knowledgeBaseResult) {}
+    private final ModelRoutingPolicy routing;
+    private final AgentCallMetrics callMetrics;
+
+    public RemediationAgent(ModelRoutingPolicy routing, AgentCallMetrics callMetrics) {
+        this.routing = routing;
+        this.callMetrics = callMetrics;
+    }
+
+    public record Request(String incident, String classificationJson, String evidenceJson, String triageText, String knowledgeBaseResult, String severity) {}
     
     private static final Set<String> HIGH_RISK_KEYWORDS = Set.of(
         "database", "payment", "auth", "user-data", "financial", "security",
@@ -128,16 +138,21 @@ public class RemediationAgent extends Agent {
             req.knowledgeBaseResult() != null ? req.knowledgeBaseResult() : "Not provided"
         );
 
-        return effects()
+        var route = routing.route("remediation-agent", req.severity());
+        var effect = effects()
                 .model(
                         ModelProvider.openAi()
                                 .withApiKey(System.getenv("OPENAI_API_KEY"))
-                                .withModelName("gpt-4o-mini")
-                                .withTemperature(0.2)
-                                .withMaxTokens(2500)
+                                .withModelName(route.model())
+                                .withTemperature(route.temperature())
+                                .withMaxTokens(route.maxTokens())
                 )
-                .memory(MemoryProvider.limitedWindow())
-                .tools(this)
+                .memory(MemoryProvider.limitedWindow());
+        // Low-severity routes can skip the optional tools to save round-trips
+        if (route.tools()) {
+            effect = effect.tools(this);
+        }
+        return effect
                 .systemMessage(SYSTEM)
                 .userMessage(contextualPrompt)
                 .thenReply();
@@ -148,6 +163,7 @@ public class RemediationAgent extends Agent {
             @Description("Description of the proposed remediation action") String action,
             @Description("Systems or components that would be affected") String affectedSystems
     ) {
+        callMetrics.toolCall(context().sessionId(), "remediation-agent");
         List<String> riskFactors = new ArrayList<>();
         String riskLevel = "LOW";
         
@@ -211,6 +227,7 @@ public class RemediationAgent extends Agent {
             @Description("The remediation action that needs rollback planning") String action,
             @Description("Current state before the action") String currentState
     ) {
+        callMetrics.toolCall(context().sessionId(), "remediation-agent");
         List<String> rollbackSteps = new ArrayList<>();
         String complexity = "MEDIUM";
         
@@ -266,6 +283,7 @@ public class RemediationAgent extends Agent {
             @Description("List of required roles or teams for the remediation") String requiredRoles,
             @Description("Estimated duration of the remediation effort") String estimatedDuration
     ) {
+        callMetrics.toolCall(context().sessionId(), "remediation-agent");
         List<String> availability = new ArrayList<>();
         List<String> concerns = new ArrayList<>();
         
@@ -4,6 +4,8 @@ import akka.javasdk.agent.Agent;
 import akka.javasdk.agent.MemoryProvider;
 import akka.javasdk.agent.ModelProvider;
 import akka.javasdk.annotations.Component;
+import com.pradeepl.triage.application.AgentCallMetrics;
+import com.pradeepl.triage.application.ModelRoutingPolicy;
 import akka.javasdk.annotations.FunctionTool;
 import akka.javasdk.annotations.Description;
 
@@ -81,7 +83,15 @@ public class SummaryAgent extends Agent {
         }
         """;
 
-    public record Request(String incident, String classificationJson, String triageText, String remediationText) {}
+    private final ModelRoutingPolicy routing;
+    private final AgentCallMetrics callMetrics;
+
+    public SummaryAgent(ModelRoutingPolicy routing, AgentCallMetrics callMetrics) {
+        this.routing = routing;
+        this.callMetrics = callMetrics;
+    }
+
+    public record Request(String incident, String classificationJson, String triageText, String remediationText, String severity) {}
     
     public enum AudienceType {
         EXECUTIVE, TECHNICAL, CUSTOMER_SUPPORT, PUBLIC, INTERNAL_ALL
@@ -141,16 +151,21 @@ public class SummaryAgent extends Agent {
             publicToneGuidance
         );
 
-        return effects()
+        var route = routing.route("summary-agent", req.severity());
+        var effect = effects()
                 .model(
                         ModelProvider.openAi()
                                 .withApiKey(System.getenv("OPENAI_API_KEY"))
-                                .withModelName("gpt-4o-mini")
-                                .withTemperature(0.3)
-                                .withMaxTokens(2000)
+                                .withModelName(route.model())
+                                .withTemperature(route.temperature())
+                                .withMaxTokens(route.maxTokens())
                 )
-                .memory(MemoryProvider.limitedWindow())
-                .tools(this)
+                .memory(MemoryProvider.limitedWindow());
+        // Low-severity routes can skip the optional tools to save round-trips
+        if (route.tools()) {
+            effect = effect.tools(this);
+        }
+        return effect
                 .systemMessage(SYSTEM)
                 .userMessage(contextualPrompt)
                 .thenReply();
@@ -161,6 +176,7 @@ public class SummaryAgent extends Agent {
             @Description("Incident severity and description") String incidentDetails,
             @Description("Business impact description") String businessImpact
     ) {
+        callMetrics.toolCall(context().sessionId(), "summary-agent");
         List<String> urgencyFactors = new ArrayList<>();
         String urgencyLevel = "MEDIUM";
         List<String> recommendedChannels = new ArrayList<>();
@@ -234,6 +250,7 @@ public class SummaryAgent extends Agent {
             @Description("Target audience type: EXECUTIVE, TECHNICAL, CUSTOMER_SUPPORT, PUBLIC") String audienceType,
             @Description("Core message content to adapt") String coreMessage
     ) {
+        callMetrics.toolCall(context().sessionId(), "summary-agent");
         String adaptedMessage = "";
         
         try {
@@ -296,6 +313,7 @@ public class SummaryAgent extends Agent {
             @Description("Evidence and investigation details") String evidenceInfo,
             @Description("Remediation actions and timelines") String remediationInfo
     ) {
+        callMetrics.toolCall(context().sessionId(), "summary-agent");
         List<String> timelineEvents = new ArrayList<>();
         
         // Try to extract timeline information from the provided context
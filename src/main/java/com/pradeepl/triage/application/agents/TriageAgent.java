@@ -6,13 +6,10 @@ import akka.javasdk.agent.ModelProvider;
 import akka.javasdk.annotations.Component;
 import akka.javasdk.annotations.FunctionTool;
 import akka.javasdk.annotations.Description;
+import com.pradeepl.triage.application.AgentCallMetrics;
+import com.pradeepl.triage.application.McpJsonRpcClient;
+import com.pradeepl.triage.application.ModelRoutingPolicy;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -104,7 +101,17 @@ public class TriageAgent extends Agent {
         }
         """;
 
-    public record Request(String incident) {}
+    private final McpJsonRpcClient mcpClient;
+    private final ModelRoutingPolicy routing;
+    private final AgentCallMetrics callMetrics;
+
+    public TriageAgent(McpJsonRpcClient mcpClient, ModelRoutingPolicy routing, AgentCallMetrics callMetrics) {
+        this.mcpClient = mcpClient;
+        this.routing = routing;
+        this.callMetrics = callMetrics;
+    }
+
+    public record Request(String incident, String severity) {}
 
     public Effect<String> triage(Request request) {
         logger.info("🔬 TriageAgent.triage() - Starting OpenAI call for systematic diagnosis");
@@ -124,16 +131,21 @@ public class TriageAgent extends Agent {
         
         logger.debug("TriageAgent sending prompt to OpenAI (length: {} chars)", contextualPrompt.length());
         
-        return effects()
+        var route = routing.route("triage-agent", request.severity());
+        var effect = effects()
             .model(
                 ModelProvider.openAi()
                     .withApiKey(System.getenv("OPENAI_API_KEY"))
-                    .withModelName("gpt-4o-mini")
-                    .withTemperature(0.3)
-                    .withMaxTokens(2500)
+                    .withModelName(route.model())
+                    .withTemperature(route.temperature())
+                    .withMaxTokens(route.maxTokens())
             )
-            .memory(MemoryProvider.limitedWindow())
-            .tools(this)
+            .memory(MemoryProvider.limitedWindow());
+        // Low-severity routes can skip the optional tools to save round-trips
+        if (route.tools()) {
+            effect = effect.tools(this);
+        }
+        return effect
             .systemMessage(SYSTEM)
             .userMessage(contextualPrompt)
             .thenReply();
@@ -144,54 +156,8 @@ public class TriageAgent extends Agent {
             @Description("Tool name to invoke on the MCP server") String toolName,
             @Description("JSON string of arguments for the tool call") String argumentsJson
     ) {
-        String endpoint;
-        try {
-            var cfg = com.typesafe.config.ConfigFactory.load();
-            endpoint = System.getProperty("MCP_HTTP_URL",
-                    System.getenv().getOrDefault("MCP_HTTP_URL",
-                            cfg.hasPath("mcp.http.url") ? cfg.getString("mcp.http.url") : "http://localhost:9100/mcp"));
-        } catch (Throwable t) {
-            endpoint = System.getProperty("MCP_HTTP_URL",
-                    System.getenv().getOrDefault("MCP_HTTP_URL", "http://localhost:9100/mcp"));
-        }
-        String id = java.util.UUID.randomUUID().toString();
-
-        // Basic escape for tool name to embed in JSON
-        String safeTool = toolName == null ? "" : toolName.replace("\\", "\\\\").replace("\"", "\\\"");
-        String args = (argumentsJson == null || argumentsJson.isBlank()) ? "{}" : argumentsJson;
-
-        String payload = "{" +
-                "\"jsonrpc\":\"2.0\"," +
-                "\"id\":\"" + id + "\"," +
-                "\"method\":\"call_tool\"," +
-                "\"params\":{" +
-                "\"name\":\"" + safeTool + "\"," +
-                "\"arguments\":" + args +
-                "}}";
-
-        try {
-            HttpClient client = HttpClient.newBuilder()
-                    .connectTimeout(Duration.ofSeconds(5))
-                    .build();
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(endpoint))
-                    .header("Content-Type", "application/json")
-                    .timeout(Duration.ofSeconds(15))
-                    .POST(HttpRequest.BodyPublishers.ofString(payload, StandardCharsets.UTF_8))
-                    .build();
-
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
-            int status = response.statusCode();
-            String body = response.body();
-            if (status >= 200 && status < 300) {
-                return body;
-            } else {
-                return "MCP_ERROR: HTTP " + status + ": " + body;
-            }
-        } catch (Exception e) {
-            return "MCP_ERROR: " + e.getMessage();
-        }
+        callMetrics.toolCall(context().sessionId(), "triage-agent");
+        return mcpClient.callTool(toolName, argumentsJson);
     }
     
     @FunctionTool(name = "assess_impact", description = "Assess business and technical impact of the incident")
@@ -199,6 +165,7 @@ public class TriageAgent extends Agent {
             @Description("Description of affected systems or services") String affectedSystems,
             @Description("Estimated number or percentage of affected users") String userImpact
     ) {
+        callMetrics.toolCall(context().sessionId(), "triage-agent");
         List<String> impactFactors = new ArrayList<>();
         
         // Analyze system criticality
@@ -246,6 +213,7 @@ public class TriageAgent extends Agent {
             @Description("Incident symptoms and error patterns") String symptoms,
             @Description("Timing information about when issues started") String timing
     ) {
+        callMetrics.toolCall(context().sessionId(), "triage-agent");
         List<String> patterns = new ArrayList<>();
         List<String> recommendations = new ArrayList<>();
         
@@ -0,0 +1,44 @@
+package com.pradeepl.triage.application.consumers;
+
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import com.pradeepl.triage.application.AdmissionDispatcher;
+import com.pradeepl.triage.application.AdmissionSettings;
+import com.pradeepl.triage.application.TriageWorkflow;
+import com.pradeepl.triage.domain.TriageState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * AdmissionReleaseConsumer frees a workflow's admission slot once it completes or fails,
+ * which starts the next queued incidents in priority order.
+ */
+@Consume.FromWorkflow(TriageWorkflow.class)
+@akka.javasdk.annotations.Component(id="admission-release-consumer")
+public class AdmissionReleaseConsumer extends Consumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionReleaseConsumer.class);
+
+    private final AdmissionSettings settings;
+    private final AdmissionDispatcher dispatcher;
+
+    public AdmissionReleaseConsumer(ComponentClient componentClient, AdmissionSettings settings) {
+        this.settings = settings;
+        this.dispatcher = new AdmissionDispatcher(componentClient, settings);
+    }
+
+    public Effect onStateChanged(TriageState state) {
+        if (!settings.enabled() || state == null) {
+            return effects().done();
+        }
+        if (state.status() != TriageState.Status.COMPLETED && state.status() != TriageState.Status.FAILED) {
+            return effects().done();
+        }
+
+        String workflowId = messageContext().metadata().asCloudEvent().subject().orElse("unknown");
+        logger.debug("Releasing admission slot of {}", workflowId);
+        dispatcher.release(workflowId);
+        return effects().done();
+    }
+}
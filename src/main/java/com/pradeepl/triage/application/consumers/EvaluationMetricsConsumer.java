@@ -13,9 +13,9 @@ import org.slf4j.LoggerFactory;
  * aggregates them into a queryable metrics dashboard.
  *
  * Flow:
- * 1. TriageEvaluatorConsumer stores individual evaluation results in EvaluationResultsEntity
+ * 1. TriageEvaluatorConsumer stores all evaluation results of a workflow in EvaluationResultsEntity
  * 2. This consumer listens to those changes
- * 3. When all 5 evaluations are complete (isComplete = true), it creates an aggregated record
+ * 3. When the evaluations are complete (isComplete = true), it creates an aggregated record
  * 4. Aggregated record stored in EvaluationMetrics for dashboard queries
  *
  * This allows:
@@ -49,29 +49,7 @@ public class EvaluationMetricsConsumer extends Consumer {
 
         logger.info("📊 Creating evaluation metrics record for completed workflow: {}", state.workflowId());
 
-        // Calculate average confidence (simple average for now)
-        double toxicityConfidence = 0.85; // Default if no scores available
-        double hallucinationConfidence = 0.85; // Default if no scores available
-
-        // Combine explanations
-        String toxicityExplanation = buildToxicityExplanation(state);
-        String hallucinationExplanation = buildHallucinationExplanation(state);
-
-        // Create aggregated evaluation record
-        var evaluationRecord = new EvaluationMetrics.EvaluationRecord(
-            state.workflowId(),
-            state.summaryToxicity() != null && state.summaryToxicity().passed(),
-            state.remediationToxicity() != null && state.remediationToxicity().passed(),
-            state.evidenceHallucination() != null && state.evidenceHallucination().passed(),
-            state.triageHallucination() != null && state.triageHallucination().passed(),
-            state.summaryHallucination() != null && state.summaryHallucination().passed(),
-            toxicityConfidence,
-            hallucinationConfidence,
-            toxicityExplanation,
-            hallucinationExplanation,
-            state.evaluatedAt(),
-            "COMPLETED"
-        );
+        var evaluationRecord = EvaluationMetrics.EvaluationRecord.from(state);
 
         // Update metrics entity
         componentClient
@@ -83,36 +61,4 @@ public class EvaluationMetricsConsumer extends Consumer {
 
         return effects().done();
     }
-
-    private String buildToxicityExplanation(EvaluationResultsEntity.State state) {
-        StringBuilder sb = new StringBuilder();
-
-        if (state.summaryToxicity() != null) {
-            sb.append("Summary: ").append(state.summaryToxicity().explanation()).append("\n");
-        }
-
-        if (state.remediationToxicity() != null) {
-            sb.append("Remediation: ").append(state.remediationToxicity().explanation()).append("\n");
-        }
-
-        return sb.length() > 0 ? sb.toString() : "No toxicity evaluations completed";
-    }
-
-    private String buildHallucinationExplanation(EvaluationResultsEntity.State state) {
-        StringBuilder sb = new StringBuilder();
-
-        if (state.evidenceHallucination() != null) {
-            sb.append("Evidence: ").append(state.evidenceHallucination().explanation()).append("\n");
-        }
-
-        if (state.triageHallucination() != null) {
-            sb.append("Triage: ").append(state.triageHallucination().explanation()).append("\n");
-        }
-
-        if (state.summaryHallucination() != null) {
-            sb.append("Summary: ").append(state.summaryHallucination().explanation()).append("\n");
-        }
-
-        return sb.length() > 0 ? sb.toString() : "No hallucination evaluations completed";
-    }
 }
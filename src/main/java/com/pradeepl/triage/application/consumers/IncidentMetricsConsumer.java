@@ -1,22 +1,36 @@
 package com.pradeepl.triage.application.consumers;
 
+import akka.Done;
 import akka.javasdk.annotations.Consume;
 import akka.javasdk.client.ComponentClient;
 import akka.javasdk.consumer.Consumer;
+import com.pradeepl.triage.application.AgentUtils;
 import com.pradeepl.triage.application.IncidentMetrics;
-import com.pradeepl.triage.application.IncidentRegistry;
+import com.pradeepl.triage.application.IncidentRegistryBatcher;
+import com.pradeepl.triage.application.IncidentStats;
 import com.pradeepl.triage.application.TriageWorkflow;
+import com.pradeepl.triage.domain.Classification;
 import com.pradeepl.triage.domain.TriageState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 /**
  * IncidentMetricsConsumer updates the incident metrics store as workflows progress.
  *
  * Listens to TriageWorkflow state changes and maintains a queryable
  * incident dashboard.
+ *
+ * Workflow state changes that do not change what the dashboard shows are not stored
+ * (IncidentMetrics compares the content) and do not reach the IncidentRegistry; IncidentStats
+ * only receives the deltas IncidentMetrics hands out. Registry updates are queued without
+ * blocking and micro-batched per shard by IncidentRegistryBatcher, so they are written
+ * concurrently with the stats update; they are only made when triage.incident-registry is
+ * enabled, since the dashboard reads IncidentMetricsView. All writes are asynchronous: the
+ * consumer hands its result back without holding a thread while they complete.
  */
 @Consume.FromWorkflow(TriageWorkflow.class)
 @akka.javasdk.annotations.Component(id="incident-metrics-consumer")
@@ -26,9 +40,11 @@ public class IncidentMetricsConsumer extends Consumer {
     private static final String METRICS_ENTITY_ID = "global-metrics";
 
     private final ComponentClient componentClient;
+    private final IncidentRegistryBatcher registryBatcher;
 
-    public IncidentMetricsConsumer(ComponentClient componentClient) {
+    public IncidentMetricsConsumer(ComponentClient componentClient, IncidentRegistryBatcher registryBatcher) {
         this.componentClient = componentClient;
+        this.registryBatcher = registryBatcher;
     }
 
     public Effect onStateChanged(TriageState state) {
@@ -41,86 +57,91 @@ public class IncidentMetricsConsumer extends Consumer {
         
         logger.debug("Updating incident metrics for: {}", workflowId);
 
-        // Extract incident details
-        String service = extractService(state.classificationJson());
-        String severity = extractSeverity(state.classificationJson());
+        // Incident details from the classification parsed by the workflow
+        Classification classification = state.classification() != null
+            ? state.classification()
+            : AgentUtils.parseClassification(state.classificationJson());
+        String service = classification.service();
+        String severity = classification.severity();
         double confidence = 0.85; // Default
         boolean escalation = requiresEscalation(severity);
-        int progress = calculateProgress(state.status());
+        // Counted over the steps of this incident's pipeline profile
+        int progress = state.pipeline().progress(state.status());
+        int totalSteps = state.pipeline().totalSteps();
         String title = extractTitle(state.incident());
         String team = determineTeam(service, severity);
-        boolean isActive = state.status() != TriageState.Status.COMPLETED;
+        boolean isActive = state.status() != TriageState.Status.COMPLETED
+            && state.status() != TriageState.Status.FAILED;
 
+        // IncidentMetrics keeps the start time of the first record
+        Instant now = Instant.now();
         var incidentRecord = new IncidentMetrics.IncidentRecord(
             workflowId,
             state.status().name(),
             service,
             severity,
             title,
-            Instant.now(),
-            Instant.now(),
+            now,
+            now,
             confidence,
             escalation,
             progress,
+            totalSteps,
             team,
-            isActive
+            isActive,
+            null
         );
 
-        // Update individual metrics entity (keep for backward compatibility)
-        componentClient
+        // Update individual metrics entity; its reply carries the change the stats have not counted.
+        // The stats update needs that reply, so the writes are chained without blocking the consumer.
+        var written = componentClient
             .forKeyValueEntity(workflowId)
             .method(IncidentMetrics::updateIncident)
-            .invoke(incidentRecord);
-
-        // Update central incident registry (for dashboard)
-        componentClient
-            .forKeyValueEntity("global")
-            .method(IncidentRegistry::updateIncident)
-            .invoke(incidentRecord);
-
-        logger.info("Updated metrics: incident={}, service={}, severity={}, progress={}/7",
-                   workflowId, service, severity, progress);
-
-        return effects().done();
-    }
-
-    private String extractService(String classificationJson) {
-        if (classificationJson == null || classificationJson.isBlank()) {
-            return "unknown";
-        }
-        if (classificationJson.contains("payment")) return "payment-service";
-        if (classificationJson.contains("auth")) return "auth-service";
-        if (classificationJson.contains("database")) return "database-service";
-        return "platform-service";
+            .invokeAsync(incidentRecord)
+            .thenCompose(transition -> {
+                if (transition.contentChanged()) {
+                    // Queue the registry update (batched per shard) while the aggregates are adjusted
+                    registryBatcher.add(transition.current());
+                    logger.info("Updated metrics: incident={}, service={}, severity={}, progress={}/{}",
+                               workflowId, service, severity, progress, totalSteps);
+                } else {
+                    logger.debug("Incident {} unchanged, skipping dashboard updates", workflowId);
+                }
+                return applyStats(workflowId, transition.statsDelta());
+            });
+
+        return effects().asyncDone(written);
     }
 
-    private String extractSeverity(String classificationJson) {
-        if (classificationJson == null || classificationJson.isBlank()) {
-            return "P3";
+    /**
+     * Move the incident between dashboard aggregate buckets; a redelivered event claims no delta.
+     * When the stats write fails the delta is handed back, so the redelivered event claims it again.
+     */
+    private CompletionStage<Done> applyStats(String workflowId, IncidentStats.Delta delta) {
+        if (delta == null) {
+            return CompletableFuture.completedFuture(Done.getInstance());
         }
-        if (classificationJson.contains("critical") || classificationJson.contains("P1")) return "P1";
-        if (classificationJson.contains("high") || classificationJson.contains("P2")) return "P2";
-        if (classificationJson.contains("P4")) return "P4";
-        return "P3";
+        return componentClient
+            .forKeyValueEntity(IncidentStats.ENTITY_ID)
+            .method(IncidentStats::applyDelta)
+            .invokeAsync(delta)
+            .handle((reply, error) -> error)
+            .thenCompose(error -> {
+                if (error == null) {
+                    return CompletableFuture.completedFuture(Done.getInstance());
+                }
+                return componentClient
+                    .forKeyValueEntity(workflowId)
+                    .method(IncidentMetrics::releaseStats)
+                    .invokeAsync(delta)
+                    .thenCompose(released -> CompletableFuture.<Done>failedFuture(error));
+            });
     }
 
     private boolean requiresEscalation(String severity) {
         return "P1".equals(severity);
     }
 
-    private int calculateProgress(TriageState.Status status) {
-        return switch (status) {
-            case INITIATED -> 0;
-            case PREPARED -> 1;
-            case CLASSIFIED -> 2;
-            case EVIDENCE_COLLECTED -> 3;
-            case TRIAGED -> 4;
-            case KNOWLEDGE_BASE_SEARCHED -> 5;
-            case REMEDIATION_PROPOSED -> 6;
-            case SUMMARY_READY, COMPLETED -> 7;
-        };
-    }
-
     private String extractTitle(String incident) {
         if (incident == null || incident.isBlank()) {
             return "Unknown incident";
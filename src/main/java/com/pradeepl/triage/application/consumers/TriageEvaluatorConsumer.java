@@ -5,11 +5,24 @@ import akka.javasdk.agent.evaluator.HallucinationEvaluator;
 import akka.javasdk.agent.evaluator.ToxicityEvaluator;
 import akka.javasdk.client.ComponentClient;
 import akka.javasdk.consumer.Consumer;
+import com.pradeepl.triage.application.AgentCallMetrics;
+import com.pradeepl.triage.application.ArtifactStore;
+import com.pradeepl.triage.application.EvaluationReservoir;
+import com.pradeepl.triage.application.EvaluationSampling;
+import com.pradeepl.triage.application.LexicalPrescreen;
+import com.pradeepl.triage.application.LlmCallGovernor;
 import com.pradeepl.triage.application.TriageWorkflow;
+import com.pradeepl.triage.domain.Classification;
+import com.pradeepl.triage.domain.EvaluationResultsEntity;
 import com.pradeepl.triage.domain.TriageState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
 /**
  * TriageEvaluatorConsumer listens to TriageWorkflow state changes and
  * evaluates outputs for toxicity and hallucinations.
@@ -26,12 +39,13 @@ import org.slf4j.LoggerFactory;
  *
  * Flow:
  * 1. Workflow completes
- * 2. This consumer triggers 5 evaluations (synchronous within consumer)
- * 3. Each evaluation stores results in EvaluationResultsEntity (keyed by workflow ID)
- * 4. EvaluationMetricsConsumer aggregates results into metrics dashboard
+ * 2. EvaluationSampling decides whether it is evaluated (severity, percentage, hourly reservoir)
+ * 3. This consumer runs up to 5 evaluations concurrently; with the pre-screen enabled, triage
+ *    and summary hallucination checks that LexicalPrescreen clearly passes skip the LLM
+ * 4. All results are stored in EvaluationResultsEntity (keyed by workflow ID) with one command
+ * 5. EvaluationMetricsConsumer aggregates results into metrics dashboard
  *
- * NOTE: In production, consider disabling this consumer to avoid LLM costs.
- * Use it in test/staging environments or integration tests only.
+ * NOTE: In production, enable sampling (triage.evaluation.sampling) to bound LLM costs.
  */
 @Consume.FromWorkflow(TriageWorkflow.class)
 @akka.javasdk.annotations.Component(id = "triage-evaluator-consumer")
@@ -39,10 +53,22 @@ public class TriageEvaluatorConsumer extends Consumer {
 
     private static final Logger logger = LoggerFactory.getLogger(TriageEvaluatorConsumer.class);
 
+    // Response budget assumed per evaluation when sizing the LLM governor permit
+    private static final int EVALUATION_RESPONSE_TOKENS = 800;
+
     private final ComponentClient componentClient;
+    private final ArtifactStore artifacts;
+    private final LlmCallGovernor governor;
+    private final AgentCallMetrics callMetrics;
+    private final EvaluationSampling sampling;
 
-    public TriageEvaluatorConsumer(ComponentClient componentClient) {
+    public TriageEvaluatorConsumer(ComponentClient componentClient, LlmCallGovernor governor, AgentCallMetrics callMetrics,
+                                   EvaluationSampling sampling) {
         this.componentClient = componentClient;
+        this.artifacts = new ArtifactStore(componentClient);
+        this.governor = governor;
+        this.callMetrics = callMetrics;
+        this.sampling = sampling;
     }
 
     /**
@@ -64,159 +90,172 @@ public class TriageEvaluatorConsumer extends Consumer {
             return effects().done();
         }
 
-        logger.info("✨ Workflow COMPLETED - Running async evaluations for workflow: {}", state.workflowId());
+        var reason = sample(state);
+        sampling.recordDecision(reason);
+        if (reason == EvaluationSampling.Reason.SKIPPED) {
+            logger.debug("Workflow {} not sampled for evaluation", state.workflowId());
+            return effects().done();
+        }
+
+        logger.info("✨ Workflow COMPLETED - Running async evaluations for workflow: {} (sampled: {})",
+                    state.workflowId(), reason);
 
         // Use the same session ID as the workflow for agent calls
         String sessionId = state.workflowId();
 
-        // === TOXICITY EVALUATIONS ===
+        // Agent outputs are stored as artifacts; only fetched once the workflow has completed
+        var texts = artifacts.resolve(state);
+        var usage = new AgentCallMetrics.StepUsage();
+
+        // The five evaluations are independent: run them concurrently and record them together
+        var summaryToxicity = evaluateToxicity(sessionId, usage, "summary", texts.summaryText());
+        var remediationToxicity = evaluateToxicity(sessionId, usage, "remediation", texts.remediationText());
+        // Evidence against the incident
+        var evidenceHallucination = evaluateHallucination(sessionId, usage, "evidence",
+            state.incident(), state.incident(), texts.evidenceLogs());
+        // Triage analysis against incident + evidence + classification
+        var triageHallucination = prescreenedHallucination(sessionId, usage, "triage",
+            state.incident(), buildTriageReference(state, texts), texts.triageText());
+        // Summary against all workflow outputs
+        var summaryHallucination = prescreenedHallucination(sessionId, usage, "summary",
+            state.incident(), buildFullReference(state, texts), texts.summaryText());
+
+        // One state update (and one event for EvaluationMetricsConsumer) with every result
+        componentClient
+            .forKeyValueEntity(state.workflowId())
+            .method(EvaluationResultsEntity::recordAll)
+            .invoke(new EvaluationResultsEntity.RecordAll(
+                summaryToxicity.join(),
+                remediationToxicity.join(),
+                evidenceHallucination.join(),
+                triageHallucination.join(),
+                summaryHallucination.join()));
+
+        var total = usage.total();
+        logger.info("🚀 All evaluations complete for workflow: {} - {} calls, {} ms, ~{} prompt / ~{} completion tokens",
+                    state.workflowId(), total.calls(), total.wallMillis(), total.promptTokens(), total.completionTokens());
 
-        // 1. Evaluate summary for toxicity
-        if (state.summaryText() != null && !state.summaryText().isBlank()) {
-            logger.info("🛡️  Evaluating summary for toxicity...");
-            var result = componentClient
-                .forAgent()
-                .inSession(sessionId)
-                .method(ToxicityEvaluator::evaluate)
-                .invoke(state.summaryText());
-
-            logger.info("✅ Summary toxicity evaluation complete - passed: {}", result.passed());
-            var toxResult = new com.pradeepl.triage.domain.EvaluationResultsEntity.ToxicityResult(
-                result.passed(),
-                result.explanation()
-            );
-            componentClient
-                .forKeyValueEntity(state.workflowId())
-                .method(com.pradeepl.triage.domain.EvaluationResultsEntity::recordSummaryToxicity)
-                .invoke(new com.pradeepl.triage.domain.EvaluationResultsEntity.RecordSummaryToxicity(toxResult));
-        }
+        return effects().done();
+    }
 
-        // 2. Evaluate remediation for toxicity
-        if (state.remediationText() != null && !state.remediationText().isBlank()) {
-            logger.info("🛡️  Evaluating remediation for toxicity...");
-            var result = componentClient
-                .forAgent()
-                .inSession(sessionId)
-                .method(ToxicityEvaluator::evaluate)
-                .invoke(state.remediationText());
-
-            logger.info("✅ Remediation toxicity evaluation complete - passed: {}", result.passed());
-            var toxResult = new com.pradeepl.triage.domain.EvaluationResultsEntity.ToxicityResult(
-                result.passed(),
-                result.explanation()
-            );
-            componentClient
-                .forKeyValueEntity(state.workflowId())
-                .method(com.pradeepl.triage.domain.EvaluationResultsEntity::recordRemediationToxicity)
-                .invoke(new com.pradeepl.triage.domain.EvaluationResultsEntity.RecordRemediationToxicity(toxResult));
+    /**
+     * Decide whether this workflow is evaluated. The reservoir is only asked when neither the
+     * severity nor the percentage sample has already decided.
+     */
+    private EvaluationSampling.Reason sample(TriageState state) {
+        Classification classification = state.classification() != null ? state.classification() : Classification.unknown();
+        var reason = sampling.preDecide(state.workflowId(), classification.severity());
+        if (reason != null) {
+            return reason;
         }
+        // The hour of the completion event, so a redelivered event is offered to the same reservoir
+        Instant completedAt = messageContext().metadata().asCloudEvent().time()
+            .map(time -> time.toInstant())
+            .orElseGet(Instant::now);
+        long epochHour = completedAt.getEpochSecond() / 3600;
+        boolean taken = componentClient
+            .forKeyValueEntity(EvaluationReservoir.reservoirId(classification.service(), epochHour))
+            .method(EvaluationReservoir::offer)
+            .invoke(new EvaluationReservoir.Offer(state.workflowId(), sampling.reservoirPerServiceHour()));
+        return taken ? EvaluationSampling.Reason.RESERVOIR : EvaluationSampling.Reason.SKIPPED;
+    }
 
-        // === HALLUCINATION EVALUATIONS ===
-
-        // 3. Evaluate evidence for hallucination (against incident)
-        if (state.evidenceLogs() != null && !state.evidenceLogs().isBlank()) {
-            logger.info("🔍 Evaluating evidence for hallucinations...");
-            var request = new HallucinationEvaluator.EvaluationRequest(
-                state.incident(),      // query
-                state.incident(),      // reference text
-                state.evidenceLogs()   // answer to evaluate
-            );
-            var result = componentClient
-                .forAgent()
-                .inSession(sessionId)
-                .method(HallucinationEvaluator::evaluate)
-                .invoke(request);
-
-            logger.info("✅ Evidence hallucination evaluation complete - passed: {}", result.passed());
-            var halResult = new com.pradeepl.triage.domain.EvaluationResultsEntity.HallucinationResult(
-                result.passed(),
-                result.explanation()
-            );
-            componentClient
-                .forKeyValueEntity(state.workflowId())
-                .method(com.pradeepl.triage.domain.EvaluationResultsEntity::recordEvidenceHallucination)
-                .invoke(new com.pradeepl.triage.domain.EvaluationResultsEntity.RecordEvidenceHallucination(halResult));
+    /**
+     * Hallucination evaluation that is settled by the lexical pre-screen when its overlap score
+     * is clearly high. A low overlap is not recorded as a failure: paraphrased answers score
+     * low too, so it goes to the LLM evaluator like an ambiguous score.
+     */
+    private CompletableFuture<EvaluationResultsEntity.HallucinationResult> prescreenedHallucination(
+            String sessionId, AgentCallMetrics.StepUsage usage, String output, String query, String reference, String answer) {
+        if (answer == null || answer.isBlank()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        var screen = sampling.prescreen(answer, reference);
+        if (screen.verdict() != LexicalPrescreen.Verdict.PASS) {
+            return evaluateHallucination(sessionId, usage, output, query, reference, answer);
         }
+        logger.info("✅ {} hallucination pre-screen - passed (overlap {})", output, String.format("%.2f", screen.score()));
+        return CompletableFuture.completedFuture(new EvaluationResultsEntity.HallucinationResult(true, screen.explanation()));
+    }
 
-        // 4. Evaluate triage analysis for hallucination (against evidence + incident)
-        if (state.triageText() != null && !state.triageText().isBlank()) {
-            logger.info("🔍 Evaluating triage analysis for hallucinations...");
-            String referenceText = buildTriageReference(state);
-            var request = new HallucinationEvaluator.EvaluationRequest(
-                state.incident(),      // query
-                referenceText,         // reference text (incident + evidence + classification)
-                state.triageText()     // answer to evaluate
-            );
-            var result = componentClient
+    /**
+     * Start a toxicity evaluation of an output; completes with null when there is no output.
+     */
+    private CompletableFuture<EvaluationResultsEntity.ToxicityResult> evaluateToxicity(
+            String sessionId, AgentCallMetrics.StepUsage usage, String output, String text) {
+        if (text == null || text.isBlank()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        logger.info("🛡️  Evaluating {} for toxicity...", output);
+        return evaluateAsync("toxicity-evaluator", sessionId, usage, () -> componentClient
                 .forAgent()
                 .inSession(sessionId)
-                .method(HallucinationEvaluator::evaluate)
-                .invoke(request);
-
-            logger.info("✅ Triage hallucination evaluation complete - passed: {}", result.passed());
-            var halResult = new com.pradeepl.triage.domain.EvaluationResultsEntity.HallucinationResult(
-                result.passed(),
-                result.explanation()
-            );
-            componentClient
-                .forKeyValueEntity(state.workflowId())
-                .method(com.pradeepl.triage.domain.EvaluationResultsEntity::recordTriageHallucination)
-                .invoke(new com.pradeepl.triage.domain.EvaluationResultsEntity.RecordTriageHallucination(halResult));
-        }
+                .method(ToxicityEvaluator::evaluate)
+                .invokeAsync(text), text)
+            .thenApply(result -> {
+                logger.info("✅ {} toxicity evaluation complete - passed: {}", output, result.passed());
+                return new EvaluationResultsEntity.ToxicityResult(result.passed(), result.explanation());
+            })
+            .toCompletableFuture();
+    }
 
-        // 5. Evaluate summary for hallucination (against all workflow outputs)
-        if (state.summaryText() != null && !state.summaryText().isBlank()) {
-            logger.info("🔍 Evaluating summary for hallucinations...");
-            String referenceText = buildFullReference(state);
-            var request = new HallucinationEvaluator.EvaluationRequest(
-                state.incident(),      // query
-                referenceText,         // reference text (all workflow outputs)
-                state.summaryText()    // answer to evaluate
-            );
-            var result = componentClient
+    /**
+     * Start a hallucination evaluation of an output against a reference; completes with null
+     * when there is no output.
+     */
+    private CompletableFuture<EvaluationResultsEntity.HallucinationResult> evaluateHallucination(
+            String sessionId, AgentCallMetrics.StepUsage usage, String output, String query, String reference, String answer) {
+        if (answer == null || answer.isBlank()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        logger.info("🔍 Evaluating {} for hallucinations...", output);
+        var request = new HallucinationEvaluator.EvaluationRequest(query, reference, answer);
+        return evaluateAsync("hallucination-evaluator", sessionId, usage, () -> componentClient
                 .forAgent()
                 .inSession(sessionId)
                 .method(HallucinationEvaluator::evaluate)
-                .invoke(request);
-
-            logger.info("✅ Summary hallucination evaluation complete - passed: {}", result.passed());
-            var halResult = new com.pradeepl.triage.domain.EvaluationResultsEntity.HallucinationResult(
-                result.passed(),
-                result.explanation()
-            );
-            componentClient
-                .forKeyValueEntity(state.workflowId())
-                .method(com.pradeepl.triage.domain.EvaluationResultsEntity::recordSummaryHallucination)
-                .invoke(new com.pradeepl.triage.domain.EvaluationResultsEntity.RecordSummaryHallucination(halResult));
-        }
-
-        logger.info("🚀 All evaluations complete for workflow: {}", state.workflowId());
+                .invokeAsync(request), query, reference, answer)
+            .thenApply(result -> {
+                logger.info("✅ {} hallucination evaluation complete - passed: {}", output, result.passed());
+                return new EvaluationResultsEntity.HallucinationResult(result.passed(), result.explanation());
+            })
+            .toCompletableFuture();
+    }
 
-        return effects().done();
+    /**
+     * Start an evaluator call under the LLM call governor and record it in the agent call metrics.
+     * Evaluations yield to live triage, so taking the permit may wait; when no budget frees up in
+     * time the exception fails this message and it is redelivered later.
+     */
+    private <T> CompletionStage<T> evaluateAsync(String evaluatorId, String sessionId, AgentCallMetrics.StepUsage usage,
+                                                 Supplier<CompletionStage<T>> call, String... inputs) {
+        int promptTokens = LlmCallGovernor.estimateTokens(0, inputs);
+        return governor.callAsync(LlmCallGovernor.Caller.EVALUATOR, promptTokens + EVALUATION_RESPONSE_TOKENS,
+            () -> callMetrics.recordAsync("evaluator", evaluatorId, sessionId, promptTokens, usage, call));
     }
 
     /**
      * Build reference text for triage evaluation (incident + evidence + classification).
      */
-    private String buildTriageReference(TriageState state) {
+    private String buildTriageReference(TriageState state, ArtifactStore.Texts texts) {
         StringBuilder ref = new StringBuilder();
 
         ref.append("=== INCIDENT ===\n");
         ref.append(state.incident()).append("\n\n");
 
-        if (state.classificationJson() != null && !state.classificationJson().isBlank()) {
+        if (texts.classificationJson() != null && !texts.classificationJson().isBlank()) {
             ref.append("=== CLASSIFICATION ===\n");
-            ref.append(state.classificationJson()).append("\n\n");
+            ref.append(texts.classificationJson()).append("\n\n");
         }
 
-        if (state.evidenceLogs() != null && !state.evidenceLogs().isBlank()) {
+        if (texts.evidenceLogs() != null && !texts.evidenceLogs().isBlank()) {
             ref.append("=== EVIDENCE (LOGS) ===\n");
-            ref.append(state.evidenceLogs()).append("\n\n");
+            ref.append(texts.evidenceLogs()).append("\n\n");
         }
 
-        if (state.evidenceMetrics() != null && !state.evidenceMetrics().isBlank()) {
+        if (texts.evidenceMetrics() != null && !texts.evidenceMetrics().isBlank()) {
             ref.append("=== EVIDENCE (METRICS) ===\n");
-            ref.append(state.evidenceMetrics()).append("\n\n");
+            ref.append(texts.evidenceMetrics()).append("\n\n");
         }
 
         return ref.toString();
@@ -225,24 +264,24 @@ public class TriageEvaluatorConsumer extends Consumer {
     /**
      * Build full reference text for summary evaluation (all workflow outputs).
      */
-    private String buildFullReference(TriageState state) {
+    private String buildFullReference(TriageState state, ArtifactStore.Texts texts) {
         StringBuilder ref = new StringBuilder();
 
-        ref.append(buildTriageReference(state));
+        ref.append(buildTriageReference(state, texts));
 
-        if (state.triageText() != null && !state.triageText().isBlank()) {
+        if (texts.triageText() != null && !texts.triageText().isBlank()) {
             ref.append("=== TRIAGE ANALYSIS ===\n");
-            ref.append(state.triageText()).append("\n\n");
+            ref.append(texts.triageText()).append("\n\n");
         }
 
-        if (state.knowledgeBaseResult() != null && !state.knowledgeBaseResult().isBlank()) {
+        if (texts.knowledgeBaseResult() != null && !texts.knowledgeBaseResult().isBlank()) {
             ref.append("=== KNOWLEDGE BASE ===\n");
-            ref.append(state.knowledgeBaseResult()).append("\n\n");
+            ref.append(texts.knowledgeBaseResult()).append("\n\n");
         }
 
-        if (state.remediationText() != null && !state.remediationText().isBlank()) {
+        if (texts.remediationText() != null && !texts.remediationText().isBlank()) {
             ref.append("=== REMEDIATION ===\n");
-            ref.append(state.remediationText()).append("\n\n");
+            ref.append(texts.remediationText()).append("\n\n");
         }
 
         return ref.toString();
@@ -0,0 +1,28 @@
+package com.pradeepl.triage.domain;
+
+/**
+ * Cost and latency of one or more agent calls. Token counts are estimated from character
+ * counts (about 4 characters per token), since agent replies do not carry model usage.
+ */
+public record AgentUsage(
+    int calls,
+    long wallMillis,
+    long promptTokens,
+    long completionTokens,
+    int toolCalls
+) {
+
+    public static AgentUsage empty() {
+        return new AgentUsage(0, 0, 0, 0, 0);
+    }
+
+    public AgentUsage plus(AgentUsage other) {
+        return new AgentUsage(
+            calls + other.calls,
+            wallMillis + other.wallMillis,
+            promptTokens + other.promptTokens,
+            completionTokens + other.completionTokens,
+            toolCalls + other.toolCalls
+        );
+    }
+}
@@ -0,0 +1,43 @@
+package com.pradeepl.triage.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Reference to an agent output: the SHA-256 of the content and its length in characters.
+ *
+ * Outputs up to {@link #INLINE_MAX_BYTES} carry their text and are not stored separately;
+ * larger ones live in the TriageArtifact entity whose ID is the hash (text is null).
+ */
+public record ArtifactRef(String hash, int length, String text) {
+
+    // UTF-8 bytes up to which the text is kept in the reference; below the compression
+    // threshold a separate entity costs more than it saves
+    public static final int INLINE_MAX_BYTES = CompressedText.THRESHOLD_BYTES;
+
+    /**
+     * Reference for the given content, or null when there is no content.
+     */
+    public static ArtifactRef of(String content) {
+        if (content == null) {
+            return null;
+        }
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String hash = HexFormat.of().formatHex(digest.digest(bytes));
+            return new ArtifactRef(hash, content.length(), bytes.length <= INLINE_MAX_BYTES ? content : null);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Whether the text is held by this reference rather than a TriageArtifact entity.
+     */
+    public boolean inline() {
+        return text != null;
+    }
+}
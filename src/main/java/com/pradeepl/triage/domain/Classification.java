@@ -0,0 +1,12 @@
+package com.pradeepl.triage.domain;
+
+/**
+ * Typed fields of a ClassifierAgent response, parsed once when the classify step completes.
+ * Confidence is the classifier's overall score on its 1-10 scale (0 when absent).
+ */
+public record Classification(String service, String severity, double confidence) {
+
+    public static Classification unknown() {
+        return new Classification("unknown", "P3", 0.0);
+    }
+}
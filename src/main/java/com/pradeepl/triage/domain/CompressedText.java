@@ -0,0 +1,152 @@
+package com.pradeepl.triage.domain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * CompressedText is a persisted text value that is Deflate-compressed above a size threshold.
+ *
+ * Small texts (and texts that do not shrink) are stored and serialized as a plain JSON string,
+ * so existing state with string values reads back unchanged. Larger texts are serialized as
+ * {"deflate": base64, "bytes": n} and inflated on {@link #text()}.
+ *
+ * Node-local counters of what was written are exposed through {@link #stats()}.
+ */
+public final class CompressedText {
+
+    // UTF-8 bytes above which a text is compressed
+    public static final int THRESHOLD_BYTES = 1024;
+
+    public record Stats(
+        long values,
+        long compressedValues,
+        long originalBytes,
+        long storedBytes,
+        double compressionRatio
+    ) {}
+
+    private static final LongAdder values = new LongAdder();
+    private static final LongAdder compressedValues = new LongAdder();
+    private static final LongAdder originalBytes = new LongAdder();
+    private static final LongAdder storedBytes = new LongAdder();
+
+    private final String plain;
+    private final byte[] deflated;
+    private final int length;
+
+    private CompressedText(String plain, byte[] deflated, int length) {
+        this.plain = plain;
+        this.deflated = deflated;
+        this.length = length;
+    }
+
+    /**
+     * Wrap the text, compressing it when it is above the threshold. Returns null for null.
+     */
+    public static CompressedText of(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        values.increment();
+        originalBytes.add(bytes.length);
+
+        if (bytes.length > THRESHOLD_BYTES) {
+            byte[] compressed = deflate(bytes);
+            if (compressed.length < bytes.length) {
+                compressedValues.increment();
+                storedBytes.add(compressed.length);
+                return new CompressedText(null, compressed, bytes.length);
+            }
+        }
+        storedBytes.add(bytes.length);
+        return new CompressedText(text, null, bytes.length);
+    }
+
+    /**
+     * The original text, inflated if needed.
+     */
+    public String text() {
+        return plain != null ? plain : new String(inflate(deflated, length), StandardCharsets.UTF_8);
+    }
+
+    public boolean isCompressed() {
+        return deflated != null;
+    }
+
+    public static Stats stats() {
+        long original = originalBytes.sum();
+        long stored = storedBytes.sum();
+        return new Stats(values.sum(), compressedValues.sum(), original, stored, stored == 0 ? 1.0 : (double) original / stored);
+    }
+
+    @JsonValue
+    public Object toJson() {
+        if (plain != null) {
+            return plain;
+        }
+        return Map.of("deflate", Base64.getEncoder().encodeToString(deflated), "bytes", length);
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static CompressedText fromJson(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        if (node.isTextual()) {
+            String text = node.asText();
+            return new CompressedText(text, null, text.length());
+        }
+        return new CompressedText(null, Base64.getDecoder().decode(node.path("deflate").asText()), node.path("bytes").asInt());
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input, int length) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            byte[] output = new byte[length];
+            int offset = 0;
+            while (offset < length && !inflater.finished()) {
+                int n = inflater.inflate(output, offset, length - offset);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += n;
+            }
+            if (offset != length) {
+                throw new IllegalStateException("Compressed text is truncated: " + offset + " of " + length + " bytes");
+            }
+            return output;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Compressed text is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
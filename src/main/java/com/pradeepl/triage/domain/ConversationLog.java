@@ -0,0 +1,129 @@
+package com.pradeepl.triage.domain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ConversationLog is the immutable, append-only conversation history of a triage workflow.
+ *
+ * It is a persistent vector: a 32-way trie of full leaf blocks plus a tail block holding the
+ * most recent entries. {@link #append} copies at most the tail and one path of the trie, so
+ * appends are O(1) amortised and every older version stays valid and shares its blocks with
+ * the newer ones. Lookups are O(log32 n), which is at most two levels for any realistic log.
+ *
+ * Serialized as a plain JSON array of conversations, the same shape as the List it replaces,
+ * so existing workflow state reads back unchanged.
+ */
+public final class ConversationLog extends AbstractList<Conversation> {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final Object[] EMPTY_NODE = new Object[0];
+    private static final ConversationLog EMPTY = new ConversationLog(0, BITS, EMPTY_NODE, EMPTY_NODE);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    private ConversationLog(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    public static ConversationLog empty() {
+        return EMPTY;
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static ConversationLog of(List<Conversation> conversations) {
+        if (conversations == null) {
+            return EMPTY;
+        }
+        if (conversations instanceof ConversationLog log) {
+            return log;
+        }
+        ConversationLog log = EMPTY;
+        for (Conversation c : conversations) {
+            log = log.append(c);
+        }
+        return log;
+    }
+
+    /**
+     * Return a new log with the conversation appended; this log is left unchanged.
+     */
+    public ConversationLog append(Conversation conversation) {
+        int tailSize = size - tailOffset();
+        if (tailSize < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tailSize + 1);
+            newTail[tailSize] = conversation;
+            return new ConversationLog(size + 1, shift, root, newTail);
+        }
+
+        // Tail is full: push it into the trie and start a new tail
+        Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            newRoot = new Object[] { root, newPath(shift, tail) };
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail);
+        }
+        return new ConversationLog(size + 1, newShift, newRoot, new Object[] { conversation });
+    }
+
+    @Override
+    public Conversation get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        return (Conversation) leafFor(index)[index & MASK];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private int tailOffset() {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] leafFor(int index) {
+        if (index >= tailOffset()) {
+            return tail;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+        int subIndex = ((size - 1) >>> level) & MASK;
+        Object[] result = Arrays.copyOf(parent, subIndex + 1);
+        Object[] toInsert;
+        if (level == BITS) {
+            toInsert = tailNode;
+        } else if (subIndex < parent.length) {
+            toInsert = pushTail(level - BITS, (Object[]) parent[subIndex], tailNode);
+        } else {
+            toInsert = newPath(level - BITS, tailNode);
+        }
+        result[subIndex] = toInsert;
+        return result;
+    }
+
+    private static Object[] newPath(int level, Object[] node) {
+        return level == 0 ? node : new Object[] { newPath(level - BITS, node) };
+    }
+}
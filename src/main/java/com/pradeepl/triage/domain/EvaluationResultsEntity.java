@@ -14,7 +14,11 @@ import java.time.LocalDateTime;
  * - Toxicity evaluations (summary, remediation)
  * - Hallucination evaluations (evidence, triage, summary)
  *
- * Updated by TriageEvaluatorConsumer as evaluations complete.
+ * Explanations are stored as CompressedText, so long evaluator explanations are persisted
+ * Deflate-compressed; short ones keep their plain string form.
+ *
+ * Written by TriageEvaluatorConsumer with a single recordAll once all evaluations of a workflow
+ * are done.
  * Read by EvaluationMetricsConsumer to aggregate into metrics dashboard.
  */
 @Component(id = "evaluation-results-entity")
@@ -64,16 +68,24 @@ public class EvaluationResultsEntity extends KeyValueEntity<EvaluationResultsEnt
      */
     public record ToxicityResult(
         boolean passed,
-        String explanation
+        CompressedText explanation
     ) {
         @JsonCreator
         public ToxicityResult(
             @JsonProperty("passed") boolean passed,
-            @JsonProperty("explanation") String explanation
+            @JsonProperty("explanation") CompressedText explanation
         ) {
             this.passed = passed;
             this.explanation = explanation;
         }
+
+        public ToxicityResult(boolean passed, String explanation) {
+            this(passed, CompressedText.of(explanation));
+        }
+
+        public String explanationText() {
+            return explanation != null ? explanation.text() : null;
+        }
     }
 
     /**
@@ -81,136 +93,55 @@ public class EvaluationResultsEntity extends KeyValueEntity<EvaluationResultsEnt
      */
     public record HallucinationResult(
         boolean passed,
-        String explanation
+        CompressedText explanation
     ) {
         @JsonCreator
         public HallucinationResult(
             @JsonProperty("passed") boolean passed,
-            @JsonProperty("explanation") String explanation
+            @JsonProperty("explanation") CompressedText explanation
         ) {
             this.passed = passed;
             this.explanation = explanation;
         }
-    }
-
-    // Commands
-
-    public record RecordSummaryToxicity(ToxicityResult result) {}
-    public record RecordRemediationToxicity(ToxicityResult result) {}
-    public record RecordEvidenceHallucination(HallucinationResult result) {}
-    public record RecordTriageHallucination(HallucinationResult result) {}
-    public record RecordSummaryHallucination(HallucinationResult result) {}
-
-    // Command handlers
 
-    public Effect<String> recordSummaryToxicity(RecordSummaryToxicity cmd) {
-        var state = currentState();
-        if (state == null) {
-            state = State.empty(commandContext().entityId());
+        public HallucinationResult(boolean passed, String explanation) {
+            this(passed, CompressedText.of(explanation));
         }
 
-        var newState = new State(
-            state.workflowId(),
-            cmd.result(),
-            state.remediationToxicity(),
-            state.evidenceHallucination(),
-            state.triageHallucination(),
-            state.summaryHallucination(),
-            LocalDateTime.now(),
-            checkComplete(cmd.result(), state.remediationToxicity(), state.evidenceHallucination(),
-                         state.triageHallucination(), state.summaryHallucination())
-        );
-
-        return effects()
-            .updateState(newState)
-            .thenReply("Recorded");
-    }
-
-    public Effect<String> recordRemediationToxicity(RecordRemediationToxicity cmd) {
-        var state = currentState();
-        if (state == null) {
-            state = State.empty(commandContext().entityId());
-        }
-
-        var newState = new State(
-            state.workflowId(),
-            state.summaryToxicity(),
-            cmd.result(),
-            state.evidenceHallucination(),
-            state.triageHallucination(),
-            state.summaryHallucination(),
-            LocalDateTime.now(),
-            checkComplete(state.summaryToxicity(), cmd.result(), state.evidenceHallucination(),
-                         state.triageHallucination(), state.summaryHallucination())
-        );
-
-        return effects()
-            .updateState(newState)
-            .thenReply("Recorded");
-    }
-
-    public Effect<String> recordEvidenceHallucination(RecordEvidenceHallucination cmd) {
-        var state = currentState();
-        if (state == null) {
-            state = State.empty(commandContext().entityId());
+        public String explanationText() {
+            return explanation != null ? explanation.text() : null;
         }
-
-        var newState = new State(
-            state.workflowId(),
-            state.summaryToxicity(),
-            state.remediationToxicity(),
-            cmd.result(),
-            state.triageHallucination(),
-            state.summaryHallucination(),
-            LocalDateTime.now(),
-            checkComplete(state.summaryToxicity(), state.remediationToxicity(), cmd.result(),
-                         state.triageHallucination(), state.summaryHallucination())
-        );
-
-        return effects()
-            .updateState(newState)
-            .thenReply("Recorded");
     }
 
-    public Effect<String> recordTriageHallucination(RecordTriageHallucination cmd) {
-        var state = currentState();
-        if (state == null) {
-            state = State.empty(commandContext().entityId());
-        }
-
-        var newState = new State(
-            state.workflowId(),
-            state.summaryToxicity(),
-            state.remediationToxicity(),
-            state.evidenceHallucination(),
-            cmd.result(),
-            state.summaryHallucination(),
-            LocalDateTime.now(),
-            checkComplete(state.summaryToxicity(), state.remediationToxicity(), state.evidenceHallucination(),
-                         cmd.result(), state.summaryHallucination())
-        );
+    // Commands
 
-        return effects()
-            .updateState(newState)
-            .thenReply("Recorded");
-    }
+    /**
+     * Every evaluation of a workflow at once. Null results are evaluations that did not apply
+     * (the output was empty); the results are complete either way.
+     */
+    public record RecordAll(
+        ToxicityResult summaryToxicity,
+        ToxicityResult remediationToxicity,
+        HallucinationResult evidenceHallucination,
+        HallucinationResult triageHallucination,
+        HallucinationResult summaryHallucination
+    ) {}
 
-    public Effect<String> recordSummaryHallucination(RecordSummaryHallucination cmd) {
-        var state = currentState();
-        if (state == null) {
-            state = State.empty(commandContext().entityId());
-        }
+    // Command handlers
 
+    /**
+     * Set all results and mark the evaluation complete in one state update.
+     */
+    public Effect<String> recordAll(RecordAll cmd) {
         var newState = new State(
-            state.workflowId(),
-            state.summaryToxicity(),
-            state.remediationToxicity(),
-            state.evidenceHallucination(),
-            state.triageHallucination(),
-            cmd.result(),
+            commandContext().entityId(),
+            cmd.summaryToxicity(),
+            cmd.remediationToxicity(),
+            cmd.evidenceHallucination(),
+            cmd.triageHallucination(),
+            cmd.summaryHallucination(),
             LocalDateTime.now(),
-            checkComplete(state.summaryToxicity(), state.remediationToxicity(), state.evidenceHallucination(),
-                         state.triageHallucination(), cmd.result())
+            true
         );
 
         return effects()
@@ -236,17 +167,4 @@ public class EvaluationResultsEntity extends KeyValueEntity<EvaluationResultsEnt
         }
         return effects().reply(state);
     }
-
-    /**
-     * Check if all 5 evaluations are complete.
-     */
-    private boolean checkComplete(ToxicityResult summaryTox, ToxicityResult remediationTox,
-                                  HallucinationResult evidenceHal, HallucinationResult triageHal,
-                                  HallucinationResult summaryHal) {
-        return summaryTox != null &&
-               remediationTox != null &&
-               evidenceHal != null &&
-               triageHal != null &&
-               summaryHal != null;
-    }
 }
@@ -0,0 +1,9 @@
+package com.pradeepl.triage.domain;
+
+import java.util.List;
+
+/**
+ * Typed fields of an EvidenceAgent response, parsed once when evidence is collected.
+ * highRiskSignals is set when the evidence mentions security, breach, data loss or payment impact.
+ */
+public record EvidenceSummary(List<String> keyFindings, double dataQuality, boolean highRiskSignals) {}
@@ -0,0 +1,8 @@
+package com.pradeepl.triage.domain;
+
+import java.time.Instant;
+
+/**
+ * A near-duplicate incident that was attached to a running triage workflow instead of starting its own.
+ */
+public record LinkedIncident(String triageId, String title, int distance, Instant linkedAt) {}
@@ -0,0 +1,65 @@
+package com.pradeepl.triage.domain;
+
+import java.util.List;
+
+/**
+ * Optional triage steps skipped for an incident, chosen from its severity after classification.
+ *
+ * Classification, the knowledge base lookup, remediation and finalization always run; the
+ * evidence, triage and summary steps can be skipped. Progress is counted over the steps that
+ * actually run, so a shortened pipeline still reaches totalSteps() when it completes.
+ */
+public record PipelineProfile(String severity, List<String> skippedSteps) {
+
+    public static final String EVIDENCE = "evidence";
+    public static final String TRIAGE = "triage";
+    public static final String SUMMARY = "summary";
+    public static final List<String> OPTIONAL_STEPS = List.of(EVIDENCE, TRIAGE, SUMMARY);
+
+    // Progress milestones of the full pipeline, in order, with the optional step each one belongs to
+    private static final List<TriageState.Status> MILESTONES = List.of(
+        TriageState.Status.PREPARED,
+        TriageState.Status.CLASSIFIED,
+        TriageState.Status.EVIDENCE_COLLECTED,
+        TriageState.Status.TRIAGED,
+        TriageState.Status.KNOWLEDGE_BASE_SEARCHED,
+        TriageState.Status.REMEDIATION_PROPOSED,
+        TriageState.Status.SUMMARY_READY
+    );
+
+    public PipelineProfile {
+        skippedSteps = skippedSteps != null ? List.copyOf(skippedSteps) : List.of();
+    }
+
+    public static PipelineProfile full() {
+        return new PipelineProfile(null, List.of());
+    }
+
+    public boolean skips(String step) {
+        return skippedSteps.contains(step);
+    }
+
+    public int totalSteps() {
+        return (int) MILESTONES.stream().filter(this::runs).count();
+    }
+
+    /**
+     * Number of steps done once the workflow has reached the given status.
+     */
+    public int progress(TriageState.Status status) {
+        return switch (status) {
+            case INITIATED -> 0;
+            case COMPLETED, FAILED -> totalSteps();
+            default -> (int) MILESTONES.subList(0, MILESTONES.indexOf(status) + 1).stream().filter(this::runs).count();
+        };
+    }
+
+    private boolean runs(TriageState.Status milestone) {
+        return switch (milestone) {
+            case EVIDENCE_COLLECTED -> !skips(EVIDENCE);
+            case TRIAGED -> !skips(TRIAGE);
+            case SUMMARY_READY -> !skips(SUMMARY);
+            default -> true;
+        };
+    }
+}
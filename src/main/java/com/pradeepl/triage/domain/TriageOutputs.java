@@ -0,0 +1,68 @@
+package com.pradeepl.triage.domain;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * References to the agent outputs of one triage workflow. Large outputs live in TriageArtifact
+ * entities, so TriageState stays small no matter how verbose the agents are; small ones are
+ * held by their reference (see ArtifactRef).
+ */
+public record TriageOutputs(
+        ArtifactRef classification,
+        ArtifactRef evidenceLogs,
+        ArtifactRef evidenceMetrics,
+        ArtifactRef triage,
+        ArtifactRef remediation,
+        ArtifactRef summary,
+        ArtifactRef knowledgeBase
+) {
+
+    public static TriageOutputs empty() {
+        return new TriageOutputs(null, null, null, null, null, null, null);
+    }
+
+    public TriageOutputs withClassification(ArtifactRef ref) {
+        return new TriageOutputs(ref, evidenceLogs, evidenceMetrics, triage, remediation, summary, knowledgeBase);
+    }
+
+    public TriageOutputs withEvidence(ArtifactRef logs, ArtifactRef metrics) {
+        return new TriageOutputs(classification, logs, metrics, triage, remediation, summary, knowledgeBase);
+    }
+
+    public TriageOutputs withTriage(ArtifactRef ref) {
+        return new TriageOutputs(classification, evidenceLogs, evidenceMetrics, ref, remediation, summary, knowledgeBase);
+    }
+
+    public TriageOutputs withRemediation(ArtifactRef ref) {
+        return new TriageOutputs(classification, evidenceLogs, evidenceMetrics, triage, ref, summary, knowledgeBase);
+    }
+
+    public TriageOutputs withSummary(ArtifactRef ref) {
+        return new TriageOutputs(classification, evidenceLogs, evidenceMetrics, triage, remediation, ref, knowledgeBase);
+    }
+
+    public TriageOutputs withKnowledgeBase(ArtifactRef ref) {
+        return new TriageOutputs(classification, evidenceLogs, evidenceMetrics, triage, remediation, summary, ref);
+    }
+
+    /**
+     * References whose text lives in a TriageArtifact entity.
+     */
+    public List<ArtifactRef> storedRefs() {
+        return all().filter(ref -> !ref.inline()).toList();
+    }
+
+    /**
+     * Characters of the outputs held inline, which count towards the state size.
+     */
+    public long inlineChars() {
+        return all().filter(ArtifactRef::inline).mapToLong(ArtifactRef::length).sum();
+    }
+
+    private Stream<ArtifactRef> all() {
+        return Stream.of(classification, evidenceLogs, evidenceMetrics, triage, remediation, summary, knowledgeBase)
+                .filter(Objects::nonNull);
+    }
+}
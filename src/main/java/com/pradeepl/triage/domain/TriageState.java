@@ -1,11 +1,21 @@
 package com.pradeepl.triage.domain;
 
-import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-
+import java.util.Map;
+
+/**
+ * State of one triage workflow.
+ *
+ * Agent outputs are referenced from {@code outputs} (small ones held by the reference, larger ones
+ * stored in TriageArtifact entities); the text fields (classificationJson ... knowledgeBaseResult)
+ * are only set on workflows stored before outputs were moved out, and are read through ArtifactStore.
+ *
+ * stepUsage holds the agent call totals of each completed step, keyed by step name.
+ */
 public record TriageState(
         String workflowId,
-        List<Conversation> context,
+        ConversationLog context,
         Status status,
         String incident,
         String classificationJson,
@@ -15,10 +25,24 @@ public record TriageState(
         String remediationText,
         String summaryText,
         String knowledgeBaseResult,
-        EvaluationResults evaluationResults
+        EvaluationResults evaluationResults,
+        List<LinkedIncident> linkedIncidents,
+        Classification classification,
+        EvidenceSummary evidenceSummary,
+        TriageOutputs outputs,
+        PipelineProfile pipeline,
+        Map<String, AgentUsage> stepUsage
 ) {
 
-    public enum Status { INITIATED, PREPARED, CLASSIFIED, EVIDENCE_COLLECTED, TRIAGED, KNOWLEDGE_BASE_SEARCHED, REMEDIATION_PROPOSED, SUMMARY_READY, COMPLETED }
+    public TriageState {
+        // Workflows stored before outputs were referenced have no outputs field
+        if (outputs == null) outputs = TriageOutputs.empty();
+        // Until classified (and for workflows stored before profiles existed) the full pipeline runs
+        if (pipeline == null) pipeline = PipelineProfile.full();
+        if (stepUsage == null) stepUsage = Map.of();
+    }
+
+    public enum Status { INITIATED, PREPARED, CLASSIFIED, EVIDENCE_COLLECTED, TRIAGED, KNOWLEDGE_BASE_SEARCHED, REMEDIATION_PROPOSED, SUMMARY_READY, COMPLETED, FAILED }
 
     public static Builder builder() {
         return new Builder();
@@ -32,10 +56,12 @@ public record TriageState(
         return new Builder(this);
     }
 
+    /**
+     * Append to the conversation log. The log is persistent, so this shares all earlier
+     * entries with the previous state instead of copying them.
+     */
     public TriageState addConversation(Conversation c) {
-        List<Conversation> list = new ArrayList<>(context);
-        list.add(c);
-        return toBuilder().context(list).build();
+        return toBuilder().context(context.append(c)).build();
     }
 
     public TriageState withStatus(Status s) {
@@ -46,37 +72,69 @@ public record TriageState(
         return toBuilder().incident(i).build();
     }
 
-    public TriageState withClassificationJson(String json) {
-        return toBuilder().classificationJson(json).build();
+    public TriageState withClassification(ArtifactRef ref, Classification parsed) {
+        return toBuilder().outputs(outputs.withClassification(ref)).classification(parsed).build();
+    }
+
+    public TriageState withEvidence(ArtifactRef logs, ArtifactRef metrics, EvidenceSummary summary) {
+        return toBuilder().outputs(outputs.withEvidence(logs, metrics)).evidenceSummary(summary).build();
     }
 
-    public TriageState withEvidence(String logs, String metrics) {
-        return toBuilder().evidenceLogs(logs).evidenceMetrics(metrics).build();
+    public TriageState withTriage(ArtifactRef ref) {
+        return toBuilder().outputs(outputs.withTriage(ref)).build();
     }
 
-    public TriageState withTriageText(String txt) {
-        return toBuilder().triageText(txt).build();
+    public TriageState withRemediation(ArtifactRef ref) {
+        return toBuilder().outputs(outputs.withRemediation(ref)).build();
     }
 
-    public TriageState withRemediationText(String txt) {
-        return toBuilder().remediationText(txt).build();
+    public TriageState withSummary(ArtifactRef ref) {
+        return toBuilder().outputs(outputs.withSummary(ref)).build();
     }
 
-    public TriageState withSummaryText(String txt) {
-        return toBuilder().summaryText(txt).build();
+    public TriageState withKnowledgeBase(ArtifactRef ref) {
+        return toBuilder().outputs(outputs.withKnowledgeBase(ref)).build();
     }
 
-    public TriageState withKnowledgeBaseResult(String result) {
-        return toBuilder().knowledgeBaseResult(result).build();
+    public TriageState withPipeline(PipelineProfile profile) {
+        return toBuilder().pipeline(profile).build();
+    }
+
+    /**
+     * Add the agent calls of a step to its usage; a step reached again (e.g. the evidence
+     * retry) accumulates.
+     */
+    public TriageState withStepUsage(String step, AgentUsage usage) {
+        if (usage.calls() == 0) {
+            return this;
+        }
+        var updated = new LinkedHashMap<>(stepUsage);
+        updated.merge(step, usage, AgentUsage::plus);
+        return toBuilder().stepUsage(updated).build();
+    }
+
+    /**
+     * Usage of all agent calls made by this workflow so far.
+     */
+    public AgentUsage totalUsage() {
+        return stepUsage.values().stream().reduce(AgentUsage.empty(), AgentUsage::plus);
+    }
+
+    public boolean hasKnowledgeBaseResult() {
+        return outputs.knowledgeBase() != null || knowledgeBaseResult != null;
     }
 
     public TriageState withEvaluationResults(EvaluationResults results) {
         return toBuilder().evaluationResults(results).build();
     }
 
+    public TriageState withLinkedIncidents(List<LinkedIncident> linked) {
+        return toBuilder().linkedIncidents(linked).build();
+    }
+
     public static class Builder {
         private String workflowId;
-        private List<Conversation> context = new ArrayList<>();
+        private ConversationLog context = ConversationLog.empty();
         private Status status;
         private String incident;
         private String classificationJson;
@@ -87,6 +145,12 @@ public record TriageState(
         private String summaryText;
         private String knowledgeBaseResult;
         private EvaluationResults evaluationResults;
+        private List<LinkedIncident> linkedIncidents = List.of();
+        private Classification classification;
+        private EvidenceSummary evidenceSummary;
+        private TriageOutputs outputs = TriageOutputs.empty();
+        private PipelineProfile pipeline;
+        private Map<String, AgentUsage> stepUsage = Map.of();
 
         public Builder() {}
 
@@ -103,6 +167,12 @@ public record TriageState(
             this.summaryText = state.summaryText;
             this.knowledgeBaseResult = state.knowledgeBaseResult;
             this.evaluationResults = state.evaluationResults;
+            this.linkedIncidents = state.linkedIncidents;
+            this.classification = state.classification;
+            this.evidenceSummary = state.evidenceSummary;
+            this.outputs = state.outputs;
+            this.pipeline = state.pipeline;
+            this.stepUsage = state.stepUsage;
         }
 
         public Builder workflowId(String workflowId) {
@@ -111,7 +181,7 @@ public record TriageState(
         }
 
         public Builder context(List<Conversation> context) {
-            this.context = context;
+            this.context = ConversationLog.of(context);
             return this;
         }
 
@@ -165,10 +235,40 @@ public record TriageState(
             return this;
         }
 
+        public Builder linkedIncidents(List<LinkedIncident> linkedIncidents) {
+            this.linkedIncidents = linkedIncidents;
+            return this;
+        }
+
+        public Builder classification(Classification classification) {
+            this.classification = classification;
+            return this;
+        }
+
+        public Builder evidenceSummary(EvidenceSummary evidenceSummary) {
+            this.evidenceSummary = evidenceSummary;
+            return this;
+        }
+
+        public Builder outputs(TriageOutputs outputs) {
+            this.outputs = outputs;
+            return this;
+        }
+
+        public Builder pipeline(PipelineProfile pipeline) {
+            this.pipeline = pipeline;
+            return this;
+        }
+
+        public Builder stepUsage(Map<String, AgentUsage> stepUsage) {
+            this.stepUsage = stepUsage;
+            return this;
+        }
+
         public TriageState build() {
             return new TriageState(
                 workflowId,
-                context,
+                context != null ? context : ConversationLog.empty(),
                 status,
                 incident,
                 classificationJson,
@@ -178,7 +278,13 @@ public record TriageState(
                 remediationText,
                 summaryText,
                 knowledgeBaseResult,
-                evaluationResults != null ? evaluationResults : EvaluationResults.empty()
+                evaluationResults != null ? evaluationResults : EvaluationResults.empty(),
+                linkedIncidents != null ? linkedIncidents : List.of(),
+                classification,
+                evidenceSummary,
+                outputs,
+                pipeline,
+                stepUsage
             );
         }
     }
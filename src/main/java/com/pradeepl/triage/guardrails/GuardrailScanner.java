@@ -0,0 +1,393 @@
+package com.pradeepl.triage.guardrails;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * GuardrailScanner finds every guardrail pattern in a text with a single pass over it.
+ *
+ * The pass feeds the lower-cased text through an Aho-Corasick automaton of literal anchors
+ * (profanity words, injection phrases, secret prefixes, "@") and, at the same time, collects
+ * spans of digits and colons where numeric PII can occur. Regexes are then only run as a
+ * verification step on small regions around each anchor or span, with transparent bounds
+ * so word boundaries still see the surrounding text.
+ *
+ * All hits are returned tagged by category and ordered by rule priority within each
+ * category; each TextGuardrail reports the first hit of its own category. Results are
+ * memoized by content hash (see GuardrailVerdictCache), so the guardrails sharing a text
+ * only scan it once.
+ *
+ * Created once in Bootstrap with the node's verdict cache and scan listener, and injected
+ * into the guardrails and MetricsEndpoint.
+ */
+public final class GuardrailScanner {
+
+    public enum Category { PII, DATA_LEAKAGE, PROFANITY, PROMPT_INJECTION }
+
+    public record Hit(Category category, String rule, int start, int end) {}
+
+    public record ScanResult(List<Hit> hits) {
+
+        public static final ScanResult EMPTY = new ScanResult(List.of());
+
+        /**
+         * Highest-priority hit of the category, if any.
+         */
+        public Optional<Hit> first(Category category) {
+            return hits.stream().filter(h -> h.category() == category).findFirst();
+        }
+
+        public List<Hit> hits(Category category) {
+            return hits.stream().filter(h -> h.category() == category).toList();
+        }
+    }
+
+    // Rule names, shared with the guardrails that turn hits into messages
+    public static final String EMAIL = "email";
+    public static final String PHONE = "phone";
+    public static final String CREDIT_CARD = "credit-card";
+    public static final String SSN = "ssn";
+    public static final String IPV4 = "ipv4";
+    public static final String IPV6 = "ipv6";
+    public static final String PASSPORT = "passport";
+    public static final String DRIVERS_LICENSE = "drivers-license";
+    public static final String AWS_ACCESS_KEY = "aws-access-key";
+    public static final String PRIVATE_KEY = "private-key";
+    public static final String API_KEY = "api-key";
+    public static final String DB_CONNECTION = "db-connection";
+    public static final String JWT = "jwt";
+    public static final String PASSWORD = "password";
+    public static final String PROFANITY = "profanity";
+    public static final String SYSTEM_OVERRIDE = "system-override";
+
+    public static final List<String> PROFANITY_WORDS = List.of(
+        "damn", "hell", "crap", "shit", "fuck", "ass", "bitch", "bastard"
+    );
+
+    public static final List<String> INJECTION_PHRASES = List.of(
+        "ignore previous instructions",
+        "ignore all previous",
+        "disregard previous",
+        "forget previous",
+        "you are now",
+        "new instructions:",
+        "override instructions",
+        "act as if",
+        "pretend you are"
+    );
+
+    // Numeric spans closer than this are merged; matches are searched this far around a span
+    private static final int SPAN_GAP = 8;
+
+    // Texts at least this long are cached per blank-line-separated segment instead of as a whole
+    private static final int SEGMENT_MIN_LENGTH = 1024;
+    // Segments shorter than this are cheaper to rescan than to hash
+    private static final int SEGMENT_MIN_CACHED = 64;
+    // Characters rescanned on each side of a segment boundary
+    private static final int SEAM_WINDOW = 64;
+
+    /**
+     * Receives the duration of each guardrail scan, with the guardrail's configured name and
+     * the check it ran (e.g. "pii").
+     */
+    public interface ScanListener {
+        void scanned(String guardrail, String check, long nanos);
+    }
+
+    /**
+     * A rule: verified with a regex over a region around its anchor, or a hit by itself when verifier is null.
+     * windowBefore/windowAfter extend the region beyond the anchor.
+     */
+    private record Rule(Category category, String name, int priority, Pattern verifier, int windowBefore, int windowAfter) {}
+
+    private static final Map<String, Rule> RULES_BY_NAME = new HashMap<>();
+    private static final Map<String, List<Rule>> RULES_BY_ANCHOR = new HashMap<>();
+    private static final List<Rule> NUMERIC_RULES = new ArrayList<>();
+
+    static {
+        // PII, in the order PiiGuardrail used to check them
+        anchored(rule(Category.PII, EMAIL, 0,
+            "\\b[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z|a-z]{2,}\\b", 0, 64, 256), "@");
+        numeric(rule(Category.PII, PHONE, 1,
+            "\\b(?:\\+?1[-.]?)?\\(?([0-9]{3})\\)?[-.]?([0-9]{3})[-.]?([0-9]{4})\\b", 0, 0, 0));
+        numeric(rule(Category.PII, CREDIT_CARD, 2, "\\b\\d{4}[-\\s]?\\d{4,5}[-\\s]?\\d{4}\\b", 0, 0, 0));
+        numeric(rule(Category.PII, SSN, 3, "\\b\\d{3}-\\d{2}-\\d{4}\\b", 0, 0, 0));
+        numeric(rule(Category.PII, IPV4, 4, "\\b(?:[0-9]{1,3}\\.){3}[0-9]{1,3}\\b", 0, 0, 0));
+        numeric(rule(Category.PII, IPV6, 5, "\\b(?:[0-9a-fA-F]{1,4}:){7}[0-9a-fA-F]{1,4}\\b", 0, 0, 0));
+        numeric(rule(Category.PII, PASSPORT, 6, "\\b[A-Z]{1,2}[0-9]{6,9}\\b", 0, 0, 0));
+        numeric(rule(Category.PII, DRIVERS_LICENSE, 7, "\\b[A-Z]{1,2}[0-9]{5,8}\\b", 0, 0, 0));
+
+        // Data leakage, in the order DataLeakageGuardrail used to check them
+        anchored(rule(Category.DATA_LEAKAGE, AWS_ACCESS_KEY, 0, "\\b(AKIA[0-9A-Z]{16})\\b", 0, 1, 20), "akia");
+        anchored(rule(Category.DATA_LEAKAGE, PRIVATE_KEY, 1, "-----BEGIN (RSA |EC )?PRIVATE KEY-----", 0, 0, 40),
+            "-----begin ");
+        anchored(rule(Category.DATA_LEAKAGE, API_KEY, 2,
+            "(?i)(api[_-]?key|apikey|access[_-]?token)\\s*[:=]\\s*['\"]?([a-zA-Z0-9_\\-]{20,})['\"]?", 0, 0, 512),
+            "api_key", "api-key", "apikey", "access_token", "access-token", "accesstoken");
+        anchored(rule(Category.DATA_LEAKAGE, DB_CONNECTION, 3, "(?i)(jdbc|mongodb|mysql|postgresql|postgres)://[^\\s]+", 0, 0, 16),
+            "jdbc://", "mongodb://", "mysql://", "postgresql://", "postgres://");
+        anchored(rule(Category.DATA_LEAKAGE, JWT, 4, "\\beyJ[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]+\\b", 0, 0, 8192),
+            "eyj");
+        anchored(rule(Category.DATA_LEAKAGE, PASSWORD, 5,
+            "(?i)(password|passwd|pwd)\\s*[:=]\\s*['\"]?([^\\s'\"]{6,})['\"]?", 0, 0, 512),
+            "password", "passwd", "pwd");
+
+        // Profanity: whole words only
+        Rule profanity = rule(Category.PROFANITY, PROFANITY, 0,
+            "(?i)\\b(" + String.join("|", PROFANITY_WORDS) + ")\\b", 0, 0, 0);
+        anchored(profanity, PROFANITY_WORDS.toArray(String[]::new));
+
+        // Prompt injection: literal phrases anywhere, "system:" only at the start of a line
+        for (int i = 0; i < INJECTION_PHRASES.size(); i++) {
+            String phrase = INJECTION_PHRASES.get(i);
+            anchored(new Rule(Category.PROMPT_INJECTION, phrase, i, null, 0, 0), phrase);
+        }
+        anchored(rule(Category.PROMPT_INJECTION, SYSTEM_OVERRIDE, INJECTION_PHRASES.size(),
+            "(?im)^[ \\t]*system:", 0, 256, 0), "system:");
+    }
+
+    private static final AhoCorasick ANCHORS = new AhoCorasick(RULES_BY_ANCHOR.keySet());
+
+    private static final Comparator<Hit> HIT_ORDER = Comparator
+        .comparing(Hit::category)
+        .thenComparingInt(h -> RULES_BY_NAME.get(h.rule()).priority())
+        .thenComparingInt(Hit::start);
+
+    private final GuardrailVerdictCache cache;
+    private final ScanListener scanListener;
+
+    public GuardrailScanner(GuardrailVerdictCache cache, ScanListener scanListener) {
+        this.cache = cache;
+        this.scanListener = scanListener;
+    }
+
+    /**
+     * Scan the text and return every verified hit.
+     *
+     * Results are memoized in the verdict cache. Long texts are split after blank lines and
+     * each segment is cached on its own, so a segment repeated across prompts (typically the
+     * incident text) is only scanned once; a small window around each split point is rescanned
+     * for matches that straddle it.
+     */
+    public ScanResult scan(String text) {
+        if (text == null || text.isEmpty()) {
+            return ScanResult.EMPTY;
+        }
+        if (text.length() < SEGMENT_MIN_LENGTH) {
+            return cache.getOrScan(text, GuardrailScanner::scanText);
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        int from = 0;
+        int blankLine;
+        while ((blankLine = text.indexOf("\n\n", from)) >= 0) {
+            int boundary = blankLine + 2;
+            addSegmentHits(text, from, boundary, hits);
+            for (Hit hit : scanRange(text, Math.max(0, boundary - SEAM_WINDOW), Math.min(text.length(), boundary + SEAM_WINDOW))) {
+                if (hit.start() < boundary && hit.end() > boundary) {
+                    hits.add(hit);
+                }
+            }
+            from = boundary;
+        }
+        addSegmentHits(text, from, text.length(), hits);
+
+        return toResult(hits);
+    }
+
+    /**
+     * Scan on behalf of the named guardrail, reporting the scan time to the ScanListener.
+     */
+    public ScanResult scan(String text, String guardrail, String check) {
+        long started = System.nanoTime();
+        try {
+            return scan(text);
+        } finally {
+            scanListener.scanned(guardrail, check, System.nanoTime() - started);
+        }
+    }
+
+    public GuardrailVerdictCache.Stats cacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Uncached scan of a whole text.
+     */
+    static ScanResult scanText(String text) {
+        return toResult(scanRange(text, 0, text.length()));
+    }
+
+    private void addSegmentHits(String text, int from, int to, List<Hit> hits) {
+        if (from >= to) {
+            return;
+        }
+        String segment = text.substring(from, to);
+        var result = segment.length() < SEGMENT_MIN_CACHED ? scanText(segment) : cache.getOrScan(segment, GuardrailScanner::scanText);
+        for (Hit hit : result.hits()) {
+            hits.add(new Hit(hit.category(), hit.rule(), hit.start() + from, hit.end() + from));
+        }
+    }
+
+    private static ScanResult toResult(List<Hit> hits) {
+        if (hits.isEmpty()) {
+            return ScanResult.EMPTY;
+        }
+        // Overlapping verification regions can report the same match more than once
+        hits.sort(HIT_ORDER);
+        return new ScanResult(List.copyOf(new LinkedHashSet<>(hits)));
+    }
+
+    /**
+     * Single pass over text[from, to). Verification regions are clamped to the same range but
+     * use transparent bounds, so matches are only reported where they also match in the full text.
+     */
+    private static List<Hit> scanRange(String text, int from, int to) {
+        List<Hit> hits = new ArrayList<>();
+        List<int[]> numericSpans = new ArrayList<>();
+        int spanStart = -1;
+        int spanEnd = -1;
+
+        int state = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+
+            state = ANCHORS.next(state, Character.toLowerCase(c));
+            for (String anchor : ANCHORS.outputs(state)) {
+                int start = i - anchor.length() + 1;
+                for (Rule rule : RULES_BY_ANCHOR.get(anchor)) {
+                    verify(text, rule, start, i + 1, from, to, hits);
+                }
+            }
+
+            if (Character.isDigit(c) || c == ':') {
+                if (spanStart >= 0 && i - spanEnd <= SPAN_GAP) {
+                    spanEnd = i;
+                } else {
+                    if (spanStart >= 0) numericSpans.add(new int[] { spanStart, spanEnd + 1 });
+                    spanStart = i;
+                    spanEnd = i;
+                }
+            }
+        }
+        if (spanStart >= 0) numericSpans.add(new int[] { spanStart, spanEnd + 1 });
+
+        for (int[] span : numericSpans) {
+            for (Rule rule : NUMERIC_RULES) {
+                verify(text, rule, span[0] - SPAN_GAP, span[1] + SPAN_GAP, from, to, hits);
+            }
+        }
+        return hits;
+    }
+
+    private static void verify(String text, Rule rule, int start, int end, int lowerBound, int upperBound, List<Hit> hits) {
+        if (rule.verifier() == null) {
+            hits.add(new Hit(rule.category(), rule.name(), start, end));
+            return;
+        }
+
+        Matcher matcher = rule.verifier().matcher(text);
+        matcher.useTransparentBounds(true);
+        matcher.useAnchoringBounds(false);
+        matcher.region(Math.max(lowerBound, start - rule.windowBefore()), Math.min(upperBound, end + rule.windowAfter()));
+        while (matcher.find()) {
+            hits.add(new Hit(rule.category(), rule.name(), matcher.start(), matcher.end()));
+        }
+    }
+
+    private static Rule rule(Category category, String name, int priority, String regex,
+                             int flags, int windowBefore, int windowAfter) {
+        return new Rule(category, name, priority, Pattern.compile(regex, flags), windowBefore, windowAfter);
+    }
+
+    private static void anchored(Rule rule, String... anchors) {
+        RULES_BY_NAME.put(rule.name(), rule);
+        for (String anchor : anchors) {
+            RULES_BY_ANCHOR.computeIfAbsent(anchor, a -> new ArrayList<>()).add(rule);
+        }
+    }
+
+    private static void numeric(Rule rule) {
+        RULES_BY_NAME.put(rule.name(), rule);
+        NUMERIC_RULES.add(rule);
+    }
+
+    /**
+     * Aho-Corasick automaton over lower-case literal anchors.
+     */
+    private static final class AhoCorasick {
+
+        private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+        private final List<Integer> failure = new ArrayList<>();
+        private final List<List<String>> outputs = new ArrayList<>();
+
+        AhoCorasick(Iterable<String> keywords) {
+            newState();
+            for (String keyword : keywords) {
+                int state = 0;
+                for (char c : keyword.toCharArray()) {
+                    Integer next = transitions.get(state).get(c);
+                    if (next == null) {
+                        next = newState();
+                        transitions.get(state).put(c, next);
+                    }
+                    state = next;
+                }
+                outputs.get(state).add(keyword);
+            }
+
+            // Breadth-first failure links; outputs of the failure state are inherited
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int child : transitions.get(0).values()) {
+                failure.set(child, 0);
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                for (Map.Entry<Character, Integer> edge : transitions.get(state).entrySet()) {
+                    int child = edge.getValue();
+                    int fallback = failure.get(state);
+                    while (fallback != 0 && !transitions.get(fallback).containsKey(edge.getKey())) {
+                        fallback = failure.get(fallback);
+                    }
+                    Integer target = transitions.get(fallback).get(edge.getKey());
+                    failure.set(child, target != null && target != child ? target : 0);
+                    outputs.get(child).addAll(outputs.get(failure.get(child)));
+                    queue.add(child);
+                }
+            }
+        }
+
+        int next(int state, char c) {
+            while (true) {
+                Integer target = transitions.get(state).get(c);
+                if (target != null) {
+                    return target;
+                }
+                if (state == 0) {
+                    return 0;
+                }
+                state = failure.get(state);
+            }
+        }
+
+        List<String> outputs(int state) {
+            return outputs.get(state);
+        }
+
+        private int newState() {
+            transitions.add(new HashMap<>());
+            failure.add(0);
+            outputs.add(new ArrayList<>());
+            return transitions.size() - 1;
+        }
+    }
+}
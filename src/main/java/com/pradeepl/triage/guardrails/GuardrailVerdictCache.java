@@ -0,0 +1,103 @@
+package com.pradeepl.triage.guardrails;
+
+import com.typesafe.config.Config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * GuardrailVerdictCache memoizes GuardrailScanner results by content hash.
+ *
+ * Keys are SHA-256 digests of the scanned text, so identical segments share one entry no
+ * matter which guardrail, agent or direction (request/response) sees them, and no text is
+ * retained. The cache is bounded by entry count with LRU eviction; hit/miss counters are
+ * exposed through {@link #stats()}.
+ *
+ * The cache is node-local and shared by all guardrail instances on the node.
+ */
+public class GuardrailVerdictCache {
+
+    public record Stats(
+        long hits,
+        long misses,
+        long evictions,
+        int size,
+        int maxEntries,
+        double hitRatio
+    ) {}
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final LinkedHashMap<String, GuardrailScanner.ScanResult> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public GuardrailVerdictCache(boolean enabled, int maxEntries) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, GuardrailScanner.ScanResult> eldest) {
+                if (size() > GuardrailVerdictCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static GuardrailVerdictCache fromConfig(Config config) {
+        String section = "triage.guardrail-cache";
+        boolean enabled = !config.hasPath(section + ".enabled") || config.getBoolean(section + ".enabled");
+        int maxEntries = config.hasPath(section + ".max-entries") ? config.getInt(section + ".max-entries") : 4096;
+        return new GuardrailVerdictCache(enabled, maxEntries);
+    }
+
+    /**
+     * Return the cached scan of this text, scanning it on a miss.
+     * The scan runs outside the lock; concurrent misses on the same text may both scan.
+     */
+    public GuardrailScanner.ScanResult getOrScan(String text, Function<String, GuardrailScanner.ScanResult> scanner) {
+        if (!enabled) {
+            return scanner.apply(text);
+        }
+
+        String key = contentHash(text);
+        synchronized (this) {
+            var cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+
+        var result = scanner.apply(text);
+        synchronized (this) {
+            entries.put(key, result);
+        }
+        return result;
+    }
+
+    public synchronized Stats stats() {
+        long total = hits + misses;
+        return new Stats(hits, misses, evictions, entries.size(), maxEntries, total == 0 ? 0.0 : (double) hits / total);
+    }
+
+    private static String contentHash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -5,30 +5,22 @@ import akka.javasdk.agent.TextGuardrail;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
-import java.util.regex.Pattern;
-
 /**
  * ProfanityGuardrail detects and blocks offensive language and profanity
  * in agent inputs and outputs.
+ *
+ * The word list lives in the shared single-pass GuardrailScanner.
  */
 public class ProfanityGuardrail implements TextGuardrail {
 
     private static final Logger logger = LoggerFactory.getLogger(ProfanityGuardrail.class);
 
-    private static final List<String> PROFANITY_WORDS = List.of(
-        "damn", "hell", "crap", "shit", "fuck", "ass", "bitch", "bastard"
-    );
-
-    private static final Pattern PROFANITY_PATTERN = Pattern.compile(
-        "\\b(" + String.join("|", PROFANITY_WORDS) + ")\\b",
-        Pattern.CASE_INSENSITIVE
-    );
-
     private final GuardrailContext context;
+    private final GuardrailScanner scanner;
 
-    public ProfanityGuardrail(GuardrailContext context) {
+    public ProfanityGuardrail(GuardrailContext context, GuardrailScanner scanner) {
         this.context = context;
+        this.scanner = scanner;
         logger.info("🛡️ ProfanityGuardrail INITIALIZED: {}", context.name());
     }
 
@@ -38,7 +30,7 @@ public class ProfanityGuardrail implements TextGuardrail {
             return Result.OK;
         }
 
-        if (PROFANITY_PATTERN.matcher(text).find()) {
+        if (scanner.scan(text, context.name(), "profanity").first(GuardrailScanner.Category.PROFANITY).isPresent()) {
             logger.warn("🚨 Profanity detected in text");
             return new Result(false, "Offensive language detected in text");
         }
@@ -5,8 +5,6 @@ import akka.javasdk.agent.TextGuardrail;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
-
 /**
  * PromptInjectionGuardrail detects and blocks prompt injection attacks
  * in agent inputs.
@@ -15,27 +13,19 @@ import java.util.List;
  * - "Ignore previous instructions"
  * - "You are now..."
  * - System prompt overrides
+ *
+ * The phrase list lives in the shared single-pass GuardrailScanner.
  */
 public class PromptInjectionGuardrail implements TextGuardrail {
 
     private static final Logger logger = LoggerFactory.getLogger(PromptInjectionGuardrail.class);
 
-    private static final List<String> INJECTION_PATTERNS = List.of(
-        "ignore previous instructions",
-        "ignore all previous",
-        "disregard previous",
-        "forget previous",
-        "you are now",
-        "new instructions:",
-        "override instructions",
-        "act as if",
-        "pretend you are"
-    );
-
     private final GuardrailContext context;
+    private final GuardrailScanner scanner;
 
-    public PromptInjectionGuardrail(GuardrailContext context) {
+    public PromptInjectionGuardrail(GuardrailContext context, GuardrailScanner scanner) {
         this.context = context;
+        this.scanner = scanner;
         logger.info("PromptInjectionGuardrail initialized: {}", context.name());
     }
 
@@ -45,21 +35,18 @@ public class PromptInjectionGuardrail implements TextGuardrail {
             return Result.OK;
         }
 
-        String lowerText = text.toLowerCase();
-
-        for (String pattern : INJECTION_PATTERNS) {
-            if (lowerText.contains(pattern)) {
-                logger.warn("Prompt injection detected: pattern '{}' found", pattern);
-                return new Result(false, "Potential prompt injection detected: " + pattern);
-            }
+        var hit = scanner.scan(text, context.name(), "prompt-injection").first(GuardrailScanner.Category.PROMPT_INJECTION);
+        if (hit.isEmpty()) {
+            return Result.OK;
         }
 
         // Check for system: only at start of line (more specific)
-        if (lowerText.matches("(?m)^\\s*system:\\s*.*")) {
+        if (GuardrailScanner.SYSTEM_OVERRIDE.equals(hit.get().rule())) {
             logger.warn("Prompt injection detected: system override attempt");
             return new Result(false, "Potential prompt injection detected: system override");
         }
 
-        return Result.OK;
+        logger.warn("Prompt injection detected: pattern '{}' found", hit.get().rule());
+        return new Result(false, "Potential prompt injection detected: " + hit.get().rule());
     }
 }
@@ -1,6 +1,9 @@
         let currentTriageId = null;
         let startTime = null;
         let pollingInterval = null;
+        let eventSource = null;
+        // Steps in this incident's pipeline; low-severity profiles skip some steps
+        let totalSteps = 7;
 
         // Demo scenarios
         const scenarios = {
@@ -243,6 +246,7 @@ Monitoring:
             document.getElementById('currentSeverity').textContent = '-';
             document.getElementById('completedSteps').textContent = '0/7';
             document.getElementById('totalTime').textContent = '0s';
+            totalSteps = 7;
             document.getElementById('conversationTimeline').style.display = 'none';
             startTime = null;
             currentTriageId = null;
@@ -285,8 +289,17 @@ Monitoring:
                 });
 
                 if (response.ok) {
-                    // Start polling for updates
-                    startPolling();
+                    const result = await response.json().catch(() => null);
+                    if (result && result.status === 'coalesced') {
+                        // Near-duplicate of a running incident: follow the primary workflow instead
+                        console.log(`Incident ${triageId} linked to running workflow ${result.primaryTriageId}`);
+                        currentTriageId = result.primaryTriageId;
+                    } else if (result && result.status === 'queued') {
+                        // Severity pool is full: the workflow starts once a slot frees up
+                        console.log(`Incident ${triageId} queued as ${result.severity} (position ${result.position})`);
+                    }
+                    // Follow live progress (falls back to polling if the stream is unavailable)
+                    startEventStream();
                 } else if (response.status === 400) {
                     // Handle guardrail violations and other errors
                     const errorData = await response.json();
@@ -296,6 +309,11 @@ Monitoring:
                         showError('Failed to start workflow: ' + (errorData.message || response.statusText));
                     }
                     resetUI();
+                } else if (response.status === 503) {
+                    // Admission queue is full and low-severity incidents are being shed
+                    const errorData = await response.json().catch(() => ({}));
+                    showError('Failed to start workflow: ' + (errorData.message || response.statusText));
+                    resetUI();
                 } else {
                     throw new Error(`HTTP ${response.status}: ${response.statusText}`);
                 }
@@ -315,6 +333,10 @@ Monitoring:
                 clearInterval(pollingInterval);
                 pollingInterval = null;
             }
+            if (eventSource) {
+                eventSource.close();
+                eventSource = null;
+            }
         }
 
         // Reset agent cards
@@ -342,6 +364,53 @@ Monitoring:
         let consecutiveErrors = 0;
         let lastProgressTime = Date.now();
 
+        // Follow progress over Server-Sent Events. Each event only carries the new conversation
+        // entries and status; the detailed state is fetched once per status change.
+        function startEventStream() {
+            if (!window.EventSource) {
+                startPolling();
+                return;
+            }
+
+            const conversations = [];
+            let receivedEvents = 0;
+            eventSource = new EventSource(`/triage/${currentTriageId}/events`);
+
+            eventSource.onmessage = (message) => {
+                receivedEvents++;
+                const event = JSON.parse(message.data);
+                conversations.length = event.offset;
+                conversations.push(...event.conversations);
+                updateFromConversations(conversations);
+
+                if (event.statusChanged) {
+                    updateDetailedState();
+                }
+                if (event.status === 'COMPLETED' || event.status === 'FAILED') {
+                    // completeWorkflow() may already have closed the stream via resetUI()
+                    if (eventSource) {
+                        eventSource.close();
+                        eventSource = null;
+                    }
+                    if (event.status === 'FAILED') {
+                        showError('Workflow failed. See the conversation timeline for details.');
+                        resetUI();
+                    }
+                }
+            };
+
+            eventSource.onerror = () => {
+                if (!eventSource) return;
+                // The browser reconnects on its own after a dropped stream; fall back only if it never opened
+                if (receivedEvents === 0 || eventSource.readyState === EventSource.CLOSED) {
+                    console.warn('Progress stream unavailable, falling back to polling');
+                    eventSource.close();
+                    eventSource = null;
+                    startPolling();
+                }
+            };
+        }
+
         // Start polling for updates
         function startPolling() {
             pollingInterval = setInterval(async () => {
@@ -493,6 +562,13 @@ Monitoring:
         function updateFromState(state) {
             const incident = document.getElementById('incident').value;
 
+            if (state.totalSteps) {
+                totalSteps = state.totalSteps;
+            }
+            (state.skippedSteps || []).forEach(step => {
+                updateAgentStatus(step, 'collapsed', 'Skipped for this severity');
+            });
+
             // Update classifier
             if (state.classificationJson) {
                 document.getElementById('classifier-input').textContent = 
@@ -673,7 +749,7 @@ Monitoring:
 
             // Count completed steps
             const completedSteps = document.querySelectorAll('.step.completed').length;
-            document.getElementById('completedSteps').textContent = `${completedSteps}/7`;
+            document.getElementById('completedSteps').textContent = `${Math.min(completedSteps, totalSteps)}/${totalSteps}`;
         }
 
         // Update conversation timeline
@@ -881,7 +957,7 @@ Monitoring:
                 }
 
                 // Load incidents
-                const incidentsResp = await fetch('/dashboard/incidents');
+                const incidentsResp = await fetch('/dashboard/incidents?limit=50&fields=incidentId,service,severity,status,isActive,stepProgress,totalSteps,assignedTeam,startTime');
                 console.log('Incidents response status:', incidentsResp.status);
                 if (incidentsResp.ok) {
                     const data = await incidentsResp.json();
@@ -947,7 +1023,7 @@ Monitoring:
                     <td>${incident.service}</td>
                     <td><span class="badge ${incident.severity.toLowerCase()}">${incident.severity}</span></td>
                     <td><span class="badge ${incident.isActive ? 'active' : 'completed'}">${incident.status}</span></td>
-                    <td>${incident.stepProgress}/7</td>
+                    <td>${incident.stepProgress}/${incident.totalSteps || 7}</td>
                     <td>${incident.assignedTeam}</td>
                     <td>${formatDateTime(incident.startTime)}</td>
                 </tr>
@@ -1074,4 +1150,7 @@ Monitoring:
             if (pollingInterval) {
                 clearInterval(pollingInterval);
             }
+            if (eventSource) {
+                eventSource.close();
+            }
         });
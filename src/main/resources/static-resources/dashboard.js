@@ -24,7 +24,7 @@ async function loadIncidentDashboard() {
         }
 
         // Load incidents
-        const incidentsResp = await fetch('/dashboard/incidents');
+        const incidentsResp = await fetch('/dashboard/incidents?limit=50&fields=incidentId,service,severity,status,isActive,stepProgress,totalSteps,assignedTeam,startTime');
         console.log('Incidents response status:', incidentsResp.status);
         if (incidentsResp.ok) {
             const data = await incidentsResp.json();
@@ -92,7 +92,7 @@ function renderIncidentsTable(incidents) {
             <td>${incident.service}</td>
             <td><span class="badge ${incident.severity.toLowerCase()}">${incident.severity}</span></td>
             <td><span class="badge ${incident.isActive ? 'active' : 'completed'}">${incident.status}</span></td>
-            <td>${incident.stepProgress}/7</td>
+            <td>${incident.stepProgress}/${incident.totalSteps || 7}</td>
             <td>${incident.assignedTeam}</td>
             <td>${formatDateTime(incident.startTime)}</td>
         </tr>
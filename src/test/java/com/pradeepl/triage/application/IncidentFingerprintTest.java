@@ -0,0 +1,71 @@
+package com.pradeepl.triage.application;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hamming distance between SimHash fingerprints of near-duplicate incidents: volatile tokens
+ * and formatting do not count at all, a small edit moves the fingerprint by a few bits, and
+ * an unrelated incident lands about half the bits away.
+ */
+public class IncidentFingerprintTest {
+
+    private static final int SHINGLE_SIZE = 3;
+
+    private static final String INCIDENT =
+        "Payment service returning 503 errors for checkout requests since 2024-05-01T14:25:00Z. "
+            + "Error rate 12% on pod payment-api, request id 3f2a9c1e-1b2c-4d5e-8f90-123456789abc. "
+            + "Users report failed card authorizations and timeouts from the gateway. "
+            + "Retries are exhausted after 3 attempts and the queue depth is 4500 messages. "
+            + "The on-call engineer saw connection pool exhaustion in the database client logs.";
+
+    @Test
+    public void ignoresTimestampsIdsAndNumbers() {
+        String repeat = INCIDENT
+            .replace("2024-05-01T14:25:00Z", "2024-05-01T14:31:07Z")
+            .replace("12%", "17%")
+            .replace("3f2a9c1e-1b2c-4d5e-8f90-123456789abc", "9e8d7c6b-0a1b-4c2d-9e3f-abcdefabcdef")
+            .replace("4500", "5120");
+
+        assertThat(distance(INCIDENT, repeat)).isZero();
+    }
+
+    @Test
+    public void ignoresCaseAndWhitespace() {
+        String reformatted = INCIDENT.toUpperCase().replace(" ", "  \n ");
+
+        assertThat(distance(INCIDENT, reformatted)).isZero();
+    }
+
+    @Test
+    public void keepsSmallEditsClose() {
+        assertThat(distance(INCIDENT, INCIDENT.replace("timeouts", "latency"))).isLessThanOrEqualTo(10);
+        assertThat(distance(INCIDENT, INCIDENT.replace("Users report", "Customers report"))).isLessThanOrEqualTo(10);
+        assertThat(distance(INCIDENT, INCIDENT + " Escalated to the payments team.")).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    public void keepsUnrelatedIncidentsApart() {
+        String unrelated = "Search indexing job stalled: Elasticsearch cluster yellow, two replica shards "
+            + "unassigned after node restart, and query latency above two seconds for catalog pages.";
+
+        assertThat(distance(INCIDENT, unrelated)).isGreaterThan(24);
+    }
+
+    @Test
+    public void countsDifferingBits() {
+        assertThat(IncidentFingerprint.distance(0L, 0L)).isZero();
+        assertThat(IncidentFingerprint.distance(0L, -1L)).isEqualTo(64);
+        assertThat(IncidentFingerprint.distance(0b1011L, 0b0110L)).isEqualTo(3);
+        assertThat(IncidentFingerprint.simHash("  \n ", SHINGLE_SIZE)).isZero();
+    }
+
+    private static int distance(String a, String b) {
+        int distance = IncidentFingerprint.distance(
+            IncidentFingerprint.simHash(a, SHINGLE_SIZE), IncidentFingerprint.simHash(b, SHINGLE_SIZE));
+        assertThat(distance).isEqualTo(IncidentFingerprint.distance(
+            IncidentFingerprint.simHash(b, SHINGLE_SIZE), IncidentFingerprint.simHash(a, SHINGLE_SIZE)));
+        return distance;
+    }
+}
@@ -0,0 +1,77 @@
+package com.pradeepl.triage.domain;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CompressedText at its size threshold: texts up to THRESHOLD_BYTES UTF-8 bytes stay plain,
+ * larger ones are compressed, and both read back unchanged from their JSON form.
+ */
+public class CompressedTextTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void keepsATextAtTheThresholdPlain() throws Exception {
+        String text = "a".repeat(CompressedText.THRESHOLD_BYTES);
+
+        var value = CompressedText.of(text);
+
+        assertThat(value.isCompressed()).isFalse();
+        // Plain values serialize as a JSON string, like the String fields they replaced
+        assertThat(mapper.writeValueAsString(value)).isEqualTo(mapper.writeValueAsString(text));
+        assertRoundTrip(value, text);
+    }
+
+    @Test
+    public void compressesATextOneByteAboveTheThreshold() throws Exception {
+        String text = "a".repeat(CompressedText.THRESHOLD_BYTES + 1);
+
+        var value = CompressedText.of(text);
+
+        assertThat(value.isCompressed()).isTrue();
+        assertRoundTrip(value, text);
+    }
+
+    @Test
+    public void measuresTheThresholdInUtf8Bytes() throws Exception {
+        // Two bytes per character: at the threshold in bytes with half as many characters
+        String atThreshold = "\u00e9".repeat(CompressedText.THRESHOLD_BYTES / 2);
+        String aboveThreshold = atThreshold + "a";
+
+        var plain = CompressedText.of(atThreshold);
+        var compressed = CompressedText.of(aboveThreshold);
+
+        assertThat(plain.isCompressed()).isFalse();
+        assertThat(compressed.isCompressed()).isTrue();
+        assertRoundTrip(plain, atThreshold);
+        assertRoundTrip(compressed, aboveThreshold);
+    }
+
+    @Test
+    public void readsBackLegacyStringValues() throws Exception {
+        String text = "x".repeat(CompressedText.THRESHOLD_BYTES * 4);
+
+        var value = mapper.readValue(mapper.writeValueAsString(text), CompressedText.class);
+
+        assertThat(value.isCompressed()).isFalse();
+        assertThat(value.text()).isEqualTo(text);
+    }
+
+    @Test
+    public void passesNullThrough() throws Exception {
+        assertThat(CompressedText.of(null)).isNull();
+        assertThat(mapper.readValue("null", CompressedText.class)).isNull();
+    }
+
+    private void assertRoundTrip(CompressedText value, String text) throws Exception {
+        assertThat(value.text()).isEqualTo(text);
+
+        var read = mapper.readValue(mapper.writeValueAsString(value), CompressedText.class);
+
+        assertThat(read.isCompressed()).isEqualTo(value.isCompressed());
+        assertThat(read.text()).isEqualTo(text);
+    }
+}
@@ -0,0 +1,111 @@
+package com.pradeepl.triage.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * ConversationLog around its block boundaries: a full tail (32 entries) being pushed into the
+ * trie, the root growing a level (after 1056 entries), and versions branching off at each of
+ * these points without affecting one another.
+ */
+public class ConversationLogTest {
+
+    private static final Set<Integer> BOUNDARY_SIZES = Set.of(
+        0, 1, 31, 32, 33, 63, 64, 65, 1023, 1024, 1025, 1055, 1056, 1057, 1088, 1089, 2048, 2049);
+
+    @Test
+    public void keepsEveryEntryAcrossTailAndRootBoundaries() {
+        var log = ConversationLog.empty();
+        var expected = new ArrayList<Conversation>();
+        for (int n = 0; n <= 2049; n++) {
+            if (BOUNDARY_SIZES.contains(n)) {
+                assertThat(log).as("size %d", n).hasSize(n).containsExactlyElementsOf(expected);
+            }
+            log = log.append(entry(n));
+            expected.add(entry(n));
+        }
+    }
+
+    @Test
+    public void branchesFromAPartialTail() {
+        var base = build(5);
+
+        var left = base.append(entry(-1));
+        var right = base.append(entry(-2));
+
+        assertThat(base).containsExactlyElementsOf(entries(5));
+        assertThat(left).hasSize(6).endsWith(entry(-1));
+        assertThat(right).hasSize(6).endsWith(entry(-2));
+    }
+
+    @Test
+    public void branchesFromAFullTail() {
+        var base = build(32);
+
+        var left = base.append(entry(-1));
+        var right = base.append(entry(-2));
+        // Keep growing one branch past the next block; the other must not see it
+        for (int i = 0; i < 40; i++) {
+            left = left.append(entry(1000 + i));
+        }
+
+        assertThat(base).containsExactlyElementsOf(entries(32));
+        assertThat(right).hasSize(33).startsWith(entries(32).toArray(Conversation[]::new)).endsWith(entry(-2));
+        assertThat(left).hasSize(73);
+        assertThat(left.get(32)).isEqualTo(entry(-1));
+        assertThat(left.get(72)).isEqualTo(entry(1039));
+    }
+
+    @Test
+    public void branchesWhereTheRootGrowsALevel() {
+        var base = build(1056);
+
+        var left = base.append(entry(-1));
+        var right = base.append(entry(-2));
+
+        assertThat(base).containsExactlyElementsOf(entries(1056));
+        assertThat(left).hasSize(1057).endsWith(entry(-1));
+        assertThat(right).hasSize(1057).endsWith(entry(-2));
+        assertThat(left.subList(0, 1056)).isEqualTo(right.subList(0, 1056));
+    }
+
+    @Test
+    public void rejectsIndexesOutsideTheLog() {
+        var log = build(33);
+
+        assertThatThrownBy(() -> log.get(33)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> log.get(-1)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> ConversationLog.empty().get(0)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void buildsFromAList() {
+        assertThat(ConversationLog.of(entries(100))).containsExactlyElementsOf(entries(100));
+        assertThat(ConversationLog.of(null)).isEmpty();
+
+        var log = build(3);
+        assertThat(ConversationLog.of(log)).isSameAs(log);
+    }
+
+    private static ConversationLog build(int size) {
+        return ConversationLog.of(entries(size));
+    }
+
+    private static List<Conversation> entries(int size) {
+        var entries = new ArrayList<Conversation>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(entry(i));
+        }
+        return entries;
+    }
+
+    private static Conversation entry(int i) {
+        return new Conversation("assistant", "entry " + i);
+    }
+}